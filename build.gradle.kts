@@ -2,6 +2,8 @@ import org.jetbrains.kotlin.gradle.tasks.KotlinCompile
 
 plugins {
     id("org.springframework.boot") version "3.2.5"
+    // Ahead-of-time processing of the Spring context (processAot task)
+    id("org.springframework.boot.aot") version "3.2.5"
     id("io.spring.dependency-management") version "1.1.4"
     kotlin("jvm") version "1.9.23"
     java
@@ -27,6 +29,9 @@ dependencies {
     // Spring AOP for method decorators
     implementation("org.springframework.boot:spring-boot-starter-aop")
 
+    // Jackson for the JSON metrics summary
+    implementation("org.springframework.boot:spring-boot-starter-json")
+
     // Library for parsing and writing CSV files
     implementation("com.opencsv:opencsv:5.9")
 
@@ -46,6 +51,187 @@ tasks.withType<KotlinCompile> {
     }
 }
 
+// The vectorized CSV delimiter scanner uses the incubating Vector API. It has a source set of its own,
+// so only its compilation reads the incubator module; the main code loads it reflectively.
+val vectorSourceSet = sourceSets.create("vector") {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(vectorSourceSet.compileJavaTaskName) {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+sourceSets.test {
+    runtimeClasspath += vectorSourceSet.output
+}
+
+tasks.jar {
+    from(vectorSourceSet.output)
+}
+
+tasks.bootJar {
+    classpath(vectorSourceSet.output)
+}
+
+tasks.bootRun {
+    classpath(vectorSourceSet.output)
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// The regular tests run without the incubator module, so they cover the scalar fallback of the parser
+tasks.test {
+    systemProperty("parsing.expected-scanner", "scalar")
+}
+
+// The parser tests again, on a JVM with the incubator module, against the vector scanner
+val vectorTest by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Runs the parser tests with the Vector API module, against the vectorized delimiter scanner."
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter.includeTestsMatching("com.jomaleda.ravenpack.interview.parsing.*")
+    jvmArgs("--add-modules=jdk.incubator.vector")
+    systemProperty("parsing.expected-scanner", "vector")
+    shouldRunAfter(tasks.test)
+}
+
+tasks.check {
+    dependsOn(vectorTest)
+}
+
+// --- Fast CLI startup: Spring AOT + AppCDS ---
+// The CDS launch uses a thin jar with a Class-Path manifest and its dependencies in lib/,
+// because class data sharing can only archive classes loaded from plain jar files.
+val cdsDirectory = layout.buildDirectory.dir("cds")
+val mainClassName = "com.jomaleda.ravenpack.interview.ContentModerationApplication"
+
+val cdsLibs by tasks.registering(Sync::class) {
+    group = "cds"
+    description = "Copies the runtime dependencies for the CDS launch."
+    from(configurations.runtimeClasspath)
+    into(cdsDirectory.map { it.dir("lib") })
+}
+
+val cdsJar by tasks.registering(Jar::class) {
+    group = "cds"
+    description = "Builds the thin, AOT-processed application jar for the CDS launch."
+    dependsOn(cdsLibs)
+    archiveFileName.set("application.jar")
+    destinationDirectory.set(cdsDirectory)
+    from(sourceSets.main.get().output)
+    from(vectorSourceSet.output)
+    from(sourceSets.named("aot").get().output)
+    manifest {
+        attributes("Main-Class" to mainClassName)
+    }
+    doFirst {
+        manifest.attributes("Class-Path" to configurations.runtimeClasspath.get().joinToString(" ") { "lib/${it.name}" })
+    }
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+    group = "cds"
+    description = "Creates the AppCDS archive from a training run that stops after the Spring context is refreshed."
+    dependsOn(cdsJar)
+    val archiveFile = cdsDirectory.map { it.file("application.jsa") }
+    inputs.files(cdsJar)
+    outputs.file(archiveFile)
+    workingDir = projectDir
+    commandLine(
+        "java",
+        "-XX:ArchiveClassesAtExit=${archiveFile.get().asFile}",
+        "-Dspring.aot.enabled=true",
+        "-Dspring.context.exit=onRefresh",
+        "-jar", cdsDirectory.get().file("application.jar").asFile.path
+    )
+}
+
+// Startup comparison: runs the thin jar on a sample file as is, then with the AOT classes and the CDS archive,
+// and reports the median time to first row of each launch. Set the number of runs with -Pstartup.runs=<n>.
+// The simulated API latency is turned off, so the first row takes the same time to score in both launches.
+val compareStartup by tasks.registering {
+    group = "cds"
+    description = "Compares the median time to first row of the plain and the CDS+AOT launch over several runs."
+    dependsOn(cdsArchive)
+    val runs = (findProperty("startup.runs") as String?)?.toInt() ?: 11
+    val reportFile = layout.buildDirectory.file("reports/startup/startup-comparison.json")
+    outputs.file(reportFile)
+    outputs.upToDateWhen { false }
+    doLast {
+        val jar = cdsDirectory.get().file("application.jar").asFile.path
+        val launches = mapOf(
+            "plain" to listOf("-jar", jar),
+            "cds_aot" to listOf("-XX:SharedArchiveFile=${cdsDirectory.get().file("application.jsa").asFile.path}",
+                "-Dspring.aot.enabled=true", "-jar", jar)
+        )
+        // The launches alternate, so a machine getting slower or faster during the runs affects both alike
+        val times = launches.mapValues { mutableListOf<Long>() }
+        repeat(runs) {
+            launches.forEach { (name, options) ->
+                val command = listOf("java", "-Dmoderation.latency.min-millis=0", "-Dmoderation.latency.max-millis=0") +
+                    options + listOf("data/sample1.csv", "data/startup_$name.csv")
+                val process = ProcessBuilder(command).directory(projectDir)
+                    .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start()
+                check(process.waitFor() == 0) { "Launch $name failed: ${command.joinToString(" ")}" }
+                val summary = file("data/startup_${name}_metrics.json")
+                val metrics = groovy.json.JsonSlurper().parse(summary) as Map<*, *>
+                times.getValue(name).add((metrics["time_to_first_row_millis"] as Number).toLong())
+                summary.delete()
+                file("data/startup_$name.csv").delete()
+            }
+        }
+        val results = times.mapValues { (_, values) ->
+            val sorted = values.sorted()
+            mapOf("median_time_to_first_row_millis" to sorted[sorted.size / 2], "time_to_first_row_millis" to sorted)
+        }
+        results.forEach { (name, result) ->
+            logger.lifecycle("$name: median time to first row ${result["median_time_to_first_row_millis"]} ms over $runs runs")
+        }
+        val output = reportFile.get().asFile
+        output.parentFile.mkdirs()
+        output.writeText(groovy.json.JsonOutput.prettyPrint(groovy.json.JsonOutput.toJson(results)))
+    }
+}
+
+// The workload generator has a main method too; keep the application as the main class of the boot jar
+springBoot {
+    mainClass.set(mainClassName)
+}
+
+// --- Synthetic workloads for load testing ---
+val generateWorkload by tasks.registering(JavaExec::class) {
+    group = "load testing"
+    description = "Generates a synthetic input CSV with skewed users and messages. Pass options with --args."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.jomaleda.ravenpack.interview.workload.WorkloadGenerator")
+    workingDir = projectDir
+}
+
+// --- Performance regression suite ---
+// End-to-end runs against budgets (src/perfTest/resources/perf-budgets.properties), kept out of the
+// regular test task. Override a workload setting or budget with -Pperf.<name>=<value>.
+val perfTestSourceSet = sourceSets.create("perfTest") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output + vectorSourceSet.output
+}
+configurations[perfTestSourceSet.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+configurations[perfTestSourceSet.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
+
+val perfTest by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Runs the pipeline on a large generated input and fails when it goes past the performance budgets."
+    testClassesDirs = perfTestSourceSet.output.classesDirs
+    classpath = perfTestSourceSet.runtimeClasspath
+    shouldRunAfter(tasks.test)
+    maxHeapSize = "1g"
+    jvmArgs("--add-modules=jdk.incubator.vector")
+    val reportFile = layout.buildDirectory.file("reports/perf/perf-report.json")
+    outputs.file(reportFile)
+    outputs.file(layout.buildDirectory.file("reports/perf/parse-report.json"))
+    outputs.upToDateWhen { false }
+    systemProperty("perf.report-file", reportFile.get().asFile.path)
+    project.properties.filterKeys { it.startsWith("perf.") }.forEach { (name, value) -> systemProperty(name, value.toString()) }
+}
@@ -1,42 +1,197 @@
 package com.jomaleda.ravenpack.interview;
 
+import com.jomaleda.ravenpack.interview.batch.BatchProcessorService;
+import com.jomaleda.ravenpack.interview.batch.DirectoryWatchService;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.daemon.DaemonServer;
+import com.jomaleda.ravenpack.interview.metrics.MetricsReporter;
 import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import com.jomaleda.ravenpack.interview.streaming.StreamingService;
+import com.jomaleda.ravenpack.interview.tracing.FlightRecorderService;
+import com.jomaleda.ravenpack.interview.tracing.PinningMonitor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ApplicationRunner implements CommandLineRunner {
+    private static final String JFR_FLAG = "--jfr";
+    private static final String DAEMON_FLAG = "--daemon";
+    private static final String BATCH_FLAG = "--batch";
+    private static final String WATCH_FLAG = "--watch";
+    private static final String STREAM_FLAG = "--stream";
+    private static final String SAMPLE_FLAG = "--sample";
+
     private final FileProcessorService fileProcessorService;
+    private final BatchProcessorService batchProcessorService;
+    private final DirectoryWatchService directoryWatchService;
+    private final StreamingService streamingService;
+    private final MetricsReporter metricsReporter;
+    private final FlightRecorderService flightRecorderService;
+    private final PinningMonitor pinningMonitor;
+    private final DaemonServer daemonServer;
+    private final ModerationProperties properties;
 
     @Override
     public void run(String... args) {
-        if (args.length != 2) {
-            log.error("Usage: java -jar <jar-file-name>.jar <input-csv-path> <output-csv-path>");
+        List<String> flags = Arrays.asList(args);
+        if (properties.getDaemon().isEnabled() || flags.contains(DAEMON_FLAG)) {
+            runDaemon();
+            return;
+        }
+
+        // Options such as --jfr or --moderation.* properties are not positional arguments.
+        // Plain loops keep lambda and stream bootstrapping off the startup path.
+        List<String> paths = new ArrayList<>(2);
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() != 2) {
+            log.error("Usage: java -jar <jar-file-name>.jar <input-csv-path> <output-csv-path> [--sample[=<per-user>]] [--jfr]");
+            log.error("   or: java -jar <jar-file-name>.jar --batch <input-directory-or-glob> <output-directory> [--jfr]");
+            log.error("   or: java -jar <jar-file-name>.jar --watch <input-directory> <output-directory>");
+            log.error("   or: java -jar <jar-file-name>.jar --stream <-|tcp:port|growing-csv-path> <output-csv-path>");
+            log.error("   or: java -jar <jar-file-name>.jar --daemon");
             System.exit(1);
         }
 
-        String inputPath = args[0];
-        String outputPath = args[1];
+        String inputPath = paths.get(0);
+        String outputPath = paths.get(1);
+        boolean recordJfr = properties.getJfr().isEnabled() || flags.contains(JFR_FLAG);
+        boolean watch = flags.contains(WATCH_FLAG);
+        boolean batch = flags.contains(BATCH_FLAG);
+        boolean stream = flags.contains(STREAM_FLAG);
+        int samplePerUser = samplePerUser(args);
+        if (samplePerUser < 0) {
+            log.error("Invalid sample size, expected {}=<positive number of messages per user>", SAMPLE_FLAG);
+            System.exit(1);
+        }
+        if (samplePerUser > 0 && (watch || batch || stream)) {
+            log.error("{} only applies to a single input file; set moderation.sampling.enabled=true to sample {} and {} files, "
+                    + "streams are not sampled", SAMPLE_FLAG, BATCH_FLAG, WATCH_FLAG);
+            System.exit(1);
+        }
 
         log.info("Starting content moderation process...");
-        log.info("Input file: {}", inputPath);
-        log.info("Output file: {}", outputPath);
+        log.info("Input {}: {}", watch || batch ? "files" : stream ? "stream" : "file", inputPath);
+        log.info("Output {}: {}", watch || batch ? "directory" : "file", outputPath);
 
+        int exitCode = 0;
+        if (recordJfr) {
+            flightRecorderService.startRecording();
+        }
         long startTime = System.currentTimeMillis();
         try {
-            fileProcessorService.processFile(inputPath, outputPath);
+            pinningMonitor.start();
+            if (stream) {
+                streamingService.stream(inputPath, outputPath);
+            } else if (watch) {
+                directoryWatchService.watch(inputPath, outputPath);
+            } else if (batch) {
+                batchProcessorService.processAll(inputPath, outputPath);
+            } else if (samplePerUser > 0) {
+                log.info("Sampling mode: scoring at most {} messages per user", samplePerUser);
+                fileProcessorService.processFile(inputPath, outputPath, samplePerUser);
+            } else {
+                fileProcessorService.processFile(inputPath, outputPath);
+            }
             long endTime = System.currentTimeMillis();
             log.info("Process finished successfully in {}ms.", (endTime - startTime));
         } catch (SecurityException e) {
             log.error("Security error: Invalid file path provided - {}", e.getMessage());
-            System.exit(2);
+            exitCode = 2;
+        } catch (IOException | RuntimeException e) {
+            log.error("Processing error: {}", e.getMessage(), e);
+            exitCode = 3;
+        } finally {
+            pinningMonitor.stop();
+            stopRecording(outputPath);
+        }
+        // Written once the pinning monitor has stopped, so the summary has every pinning of the run
+        if (exitCode == 0) {
+            exitCode = writeSummary(outputPath);
+        }
+
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Runs the daemon until the application is shut down, for example with SIGTERM.
+     */
+    private void runDaemon() {
+        try {
+            pinningMonitor.start();
+            daemonServer.start();
+            daemonServer.awaitStop();
+        } catch (IOException e) {
+            pinningMonitor.stop();
+            log.error("Failed to start daemon: {}", e.getMessage(), e);
+            System.exit(4);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pinningMonitor.stop();
+        }
+    }
+
+    /**
+     * Reads the sampling option of a single file: --sample scores the configured number of messages
+     * per user, and --sample=N at most N.
+     *
+     * @return the sample size per user, 0 without the option, or -1 if the size is not a positive number
+     */
+    private int samplePerUser(String... args) {
+        for (String arg : args) {
+            if (arg.equals(SAMPLE_FLAG)) {
+                return Math.max(1, properties.getSampling().getPerUser());
+            }
+            if (arg.startsWith(SAMPLE_FLAG + "=")) {
+                try {
+                    int size = Integer.parseInt(arg.substring(SAMPLE_FLAG.length() + 1));
+                    return size > 0 ? size : -1;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the metrics summary next to the report.
+     *
+     * @return 0, or the exit code of the error that prevented writing the summary
+     */
+    private int writeSummary(String outputPath) {
+        try {
+            metricsReporter.writeSummary(outputPath);
+            return 0;
+        } catch (SecurityException e) {
+            log.error("Security error: Invalid file path provided - {}", e.getMessage());
+            return 2;
         } catch (RuntimeException e) {
             log.error("Processing error: {}", e.getMessage(), e);
-            System.exit(3);
+            return 3;
+        }
+    }
+
+    private void stopRecording(String outputPath) {
+        try {
+            flightRecorderService.stopRecording(outputPath);
+        } catch (RuntimeException e) {
+            log.error("Failed to save Flight Recorder recording: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
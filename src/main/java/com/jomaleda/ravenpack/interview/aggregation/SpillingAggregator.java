@@ -0,0 +1,374 @@
+package com.jomaleda.ravenpack.interview.aggregation;
+
+import com.jomaleda.ravenpack.interview.model.UserStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-user aggregation with a memory budget, spilling partial aggregates to disk when the budget is exceeded.
+ *
+ * <p>Scores are aggregated in an in-memory map whose size is estimated as users are added. Once
+ * the estimate exceeds the budget, the map is swapped for an empty one and its entries are
+ * hash-partitioned by user ID, sorted within each partition and written as one run file per
+ * partition. The final statistics are produced partition by partition with a k-way merge of the
+ * sorted runs, combining the partial statistics of each user, so the heap only ever holds the
+ * budget plus one entry per run being merged, whatever the number of users.</p>
+ *
+ * <p>{@link #add(String, double)} is thread-safe. Adds share the read side of a read-write lock
+ * and a spill takes the write side, so no add is lost while the map is swapped and written out.
+ * A budget of 0 or less never spills. Spill files are deleted on {@link #close()}.</p>
+ */
+@Slf4j
+public class SpillingAggregator implements Closeable {
+    /**
+     * Rough heap cost of a map entry with its user ID, statistics object and map node.
+     */
+    static final long ENTRY_OVERHEAD_BYTES = 160;
+    /**
+     * Maximum number of runs merged at once; more runs are first merged into intermediate runs.
+     */
+    static final int MAX_MERGE_FAN_IN = 64;
+
+    private final Supplier<UserStats> statsFactory;
+    private final long memoryBudgetBytes;
+    private final long bytesPerUser;
+    private final int partitions;
+    private final Path spillBaseDirectory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final List<List<Path>> runsByPartition = new ArrayList<>();
+    private volatile Map<String, UserStats> current = new ConcurrentHashMap<>();
+    private volatile IOException spillFailure;
+    private Path spillDirectory;
+    private int spillCount;
+    private int runSequence;
+
+    /**
+     * @param statsFactory creates the empty statistics of a user seen for the first time
+     * @param memoryBudgetBytes estimated heap the in-memory aggregates may take, 0 or less for no limit
+     * @param bytesPerUser estimated heap of the statistics of one user beyond the fixed entry overhead
+     * @param partitions number of hash partitions of the spilled runs
+     * @param spillBaseDirectory directory under which the spill files of this aggregation are created
+     */
+    public SpillingAggregator(Supplier<UserStats> statsFactory, long memoryBudgetBytes, long bytesPerUser,
+                              int partitions, Path spillBaseDirectory) {
+        this.statsFactory = statsFactory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.bytesPerUser = Math.max(0L, bytesPerUser);
+        this.partitions = Math.max(1, partitions);
+        this.spillBaseDirectory = spillBaseDirectory;
+        for (int p = 0; p < this.partitions; p++) {
+            runsByPartition.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds the score of one message to the statistics of its user, spilling to disk first if the budget is exceeded.
+     *
+     * @param userId the user ID
+     * @param score the message score
+     * @throws UncheckedIOException if an earlier or this spill failed
+     */
+    public void add(String userId, double score) {
+        lock.readLock().lock();
+        try {
+            current.compute(userId, (id, stats) -> {
+                UserStats userStats = stats;
+                if (userStats == null) {
+                    userStats = statsFactory.get();
+                    estimatedBytes.addAndGet(ENTRY_OVERHEAD_BYTES + bytesPerUser + id.length());
+                }
+                userStats.addMessage(score);
+                return userStats;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (memoryBudgetBytes > 0 && estimatedBytes.get() > memoryBudgetBytes) {
+            spill(false);
+        }
+    }
+
+    /**
+     * @return whether any partial aggregates were spilled to disk
+     */
+    public boolean hasSpilled() {
+        lock.readLock().lock();
+        try {
+            return spillCount > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of times the in-memory aggregates were spilled
+     */
+    public int getSpillCount() {
+        return spillCount;
+    }
+
+    /**
+     * Returns the in-memory statistics. Only complete if nothing was spilled.
+     *
+     * @return map of user ID to statistics
+     */
+    public Map<String, UserStats> inMemoryStats() {
+        return current;
+    }
+
+    /**
+     * Passes the final statistics of every user to the consumer, once per user. Without spills the
+     * in-memory map is used directly; otherwise the remaining aggregates are spilled too and the runs
+     * are merged partition by partition. Must be called after all adds have finished.
+     *
+     * @param consumer receives each user ID with its merged statistics
+     * @throws IOException if a spill failed or the runs cannot be read
+     */
+    public void forEachUser(BiConsumer<String, UserStats> consumer) throws IOException {
+        if (!hasSpilled()) {
+            current.forEach(consumer);
+            return;
+        }
+        try {
+            spill(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (List<Path> runs : runsByPartition) {
+            List<Path> pending = new ArrayList<>(runs);
+            while (pending.size() > MAX_MERGE_FAN_IN) {
+                List<Path> group = new ArrayList<>(pending.subList(0, MAX_MERGE_FAN_IN));
+                pending.subList(0, MAX_MERGE_FAN_IN).clear();
+                pending.add(mergeIntoRun(group));
+            }
+            merge(pending, consumer);
+        }
+    }
+
+    /**
+     * Deletes the spill files of this aggregation.
+     */
+    @Override
+    public void close() {
+        if (spillDirectory == null) {
+            return;
+        }
+        try (var files = Files.list(spillDirectory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(spillDirectory);
+        } catch (IOException e) {
+            log.warn("Failed to delete spill directory {}: {}", spillDirectory, e.getMessage());
+        }
+    }
+
+    private void spill(boolean force) {
+        lock.writeLock().lock();
+        try {
+            if (spillFailure != null) {
+                throw new UncheckedIOException(spillFailure);
+            }
+            if (!force && estimatedBytes.get() <= memoryBudgetBytes) {
+                return; // Another thread spilled first
+            }
+            Map<String, UserStats> full = current;
+            current = new ConcurrentHashMap<>();
+            estimatedBytes.set(0L);
+            if (full.isEmpty()) {
+                return;
+            }
+            // Written while holding the lock, so the heap never holds two budgets' worth of aggregates.
+            writeRuns(full);
+            spillCount++;
+            log.info("Spilled aggregates of {} users to disk (spill {})", full.size(), spillCount);
+        } catch (IOException e) {
+            spillFailure = e;
+            throw new UncheckedIOException("Failed to spill aggregates", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeRuns(Map<String, UserStats> aggregates) throws IOException {
+        if (spillDirectory == null) {
+            Files.createDirectories(spillBaseDirectory);
+            spillDirectory = Files.createTempDirectory(spillBaseDirectory, "aggregation-");
+        }
+        List<List<Map.Entry<String, UserStats>>> partitioned = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            partitioned.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, UserStats> entry : aggregates.entrySet()) {
+            partitioned.get(partitionOf(entry.getKey())).add(entry);
+        }
+        for (int p = 0; p < partitions; p++) {
+            List<Map.Entry<String, UserStats>> entries = partitioned.get(p);
+            if (entries.isEmpty()) {
+                continue;
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            Path run = newRunFile();
+            try (RunWriter writer = new RunWriter(run)) {
+                for (Map.Entry<String, UserStats> entry : entries) {
+                    writer.write(entry.getKey(), entry.getValue());
+                }
+            }
+            runsByPartition.get(p).add(run);
+        }
+    }
+
+    private Path mergeIntoRun(List<Path> runs) throws IOException {
+        Path merged = newRunFile();
+        try (RunWriter writer = new RunWriter(merged)) {
+            merge(runs, (userId, stats) -> {
+                try {
+                    writer.write(userId, stats);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        return merged;
+    }
+
+    /**
+     * K-way merge of sorted runs, combining the entries of the same user.
+     */
+    private void merge(List<Path> runs, BiConsumer<String, UserStats> consumer) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparing(RunReader::currentUserId));
+        List<RunReader> opened = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                opened.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader first = queue.poll();
+                String userId = first.currentUserId();
+                UserStats stats = first.currentStats();
+                requeue(first, queue);
+                while (!queue.isEmpty() && queue.peek().currentUserId().equals(userId)) {
+                    RunReader next = queue.poll();
+                    stats.merge(next.currentStats());
+                    requeue(next, queue);
+                }
+                consumer.accept(userId, stats);
+            }
+        } finally {
+            for (RunReader reader : opened) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void requeue(RunReader reader, PriorityQueue<RunReader> queue) throws IOException {
+        if (reader.advance()) {
+            queue.add(reader);
+        }
+    }
+
+    private int partitionOf(String userId) {
+        int hash = userId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private Path newRunFile() {
+        return spillDirectory.resolve("run-" + (runSequence++) + ".bin");
+    }
+
+    /**
+     * Writes user entries sorted by user ID to a run file.
+     */
+    private static final class RunWriter implements Closeable {
+        private final DataOutputStream out;
+
+        private RunWriter(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        }
+
+        private void write(String userId, UserStats stats) throws IOException {
+            byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+            out.writeBoolean(true);
+            out.writeInt(id.length);
+            out.write(id);
+            stats.writeTo(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeBoolean(false);
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the entries of a run file one at a time.
+     */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        private String userId;
+        private UserStats stats;
+
+        private RunReader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        private boolean advance() throws IOException {
+            if (!in.readBoolean()) {
+                userId = null;
+                stats = null;
+                return false;
+            }
+            byte[] id = new byte[in.readInt()];
+            in.readFully(id);
+            userId = new String(id, StandardCharsets.UTF_8);
+            stats = UserStats.readFrom(in);
+            return true;
+        }
+
+        private String currentUserId() {
+            return userId;
+        }
+
+        private UserStats currentStats() {
+            return stats;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -7,8 +7,14 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation to simulate network latency on method calls.
+ * Only applies to public methods of Spring beans called from another bean.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SimulateLatency {
-}
\ No newline at end of file
+
+    /**
+     * @return name of the simulated downstream service, under which its calls are counted
+     */
+    String value() default "api";
+}
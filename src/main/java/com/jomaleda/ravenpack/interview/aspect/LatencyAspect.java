@@ -1,6 +1,9 @@
 package com.jomaleda.ravenpack.interview.aspect;
 
 import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,21 +14,33 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Aspect for simulating network latency on annotated methods.
+ * The latency is drawn uniformly between the configured minimum and maximum, so setting both to
+ * the same value gives a fixed latency, as used by the performance tests. Both are 0 by default,
+ * which simulates no latency. Every call is counted as a downstream call of the service named by the annotation.
  */
 @Aspect
 @Component
+@RequiredArgsConstructor
 public class LatencyAspect {
     private final SecureRandom secureRandom = new SecureRandom();
+    private final ModerationProperties properties;
+    private final PipelineMetrics metrics;
 
     @Around("@annotation(simulateLatency)")
     public Object simulateLatency(ProceedingJoinPoint joinPoint, SimulateLatency simulateLatency) throws Throwable {
-        try {
-            long latency = 50 + secureRandom.nextInt(151);
-            TimeUnit.MILLISECONDS.sleep(latency);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Service call was interrupted", e);
+        metrics.recordDownstreamCall(simulateLatency.value());
+        ModerationProperties.Latency settings = properties.getLatency();
+        long minMillis = Math.max(0L, settings.getMinMillis());
+        long maxMillis = Math.max(minMillis, settings.getMaxMillis());
+        if (maxMillis > 0) {
+            try {
+                long latency = minMillis + (maxMillis > minMillis ? secureRandom.nextLong(maxMillis - minMillis + 1) : 0L);
+                TimeUnit.MILLISECONDS.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Service call was interrupted", e);
+            }
         }
         return joinPoint.proceed();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.jomaleda.ravenpack.interview.batch;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for processing many CSV files in one run.
+ *
+ * <p>Files are processed concurrently on the coordination executor and share the caches and the
+ * global concurrency budget, so the total downstream call rate stays bounded however many files
+ * arrive at once. Each input file gets its own report in the output directory.</p>
+ */
+@Service
+@Slf4j
+public class BatchProcessorService {
+    private final FileProcessorService fileProcessorService;
+    private final ExecutorService coordinationExecutor;
+    private final Semaphore fileSlots;
+    private final String reportSuffix;
+
+    public BatchProcessorService(FileProcessorService fileProcessorService,
+                                 @Qualifier("coordinationExecutor") ExecutorService coordinationExecutor,
+                                 ModerationProperties properties) {
+        this.fileProcessorService = fileProcessorService;
+        this.coordinationExecutor = coordinationExecutor;
+        this.fileSlots = new Semaphore(Math.max(1, properties.getBatch().getMaxConcurrentFiles()), true);
+        this.reportSuffix = properties.getBatch().getReportSuffix();
+    }
+
+    /**
+     * Processes every CSV file matched by a directory or a glob pattern.
+     * A directory matches the "*.csv" files directly inside it; a pattern such as "data/drops/*.csv"
+     * matches the files of its parent directory against its last segment.
+     *
+     * @param source directory or glob pattern of the input files (must be within 'data' directory)
+     * @param outputDirectory directory where the reports are written (must be within 'data' directory)
+     * @return summary of each processed file, keyed by input path, in input order; failed files are omitted
+     * @throws RuntimeException if the input files cannot be listed
+     * @throws SecurityException if a path is outside the allowed directory
+     */
+    public Map<Path, ProcessingSummary> processAll(String source, String outputDirectory) {
+        List<Path> inputs = resolveInputs(source);
+        log.info("Processing {} files from {}", inputs.size(), source);
+
+        Map<Path, CompletableFuture<ProcessingSummary>> futures = new LinkedHashMap<>();
+        for (Path input : inputs) {
+            futures.put(input, submit(input, outputDirectory));
+        }
+
+        Map<Path, ProcessingSummary> summaries = new LinkedHashMap<>();
+        futures.forEach((input, future) -> {
+            ProcessingSummary summary = future.join();
+            if (summary != null) {
+                summaries.put(input, summary);
+            }
+        });
+        log.info("Batch finished: {} of {} files processed successfully", summaries.size(), inputs.size());
+        return summaries;
+    }
+
+    /**
+     * Processes a single file asynchronously, once a file slot is free.
+     *
+     * @param input the validated input file
+     * @param outputDirectory directory where the report is written
+     * @return future with the summary of the file, or null if processing failed
+     */
+    public CompletableFuture<ProcessingSummary> submit(Path input, String outputDirectory) {
+        String outputPath = reportPathFor(input, outputDirectory);
+        return CompletableFuture.supplyAsync(() -> processWithSlot(input, outputPath), coordinationExecutor);
+    }
+
+    /**
+     * @param input the input file
+     * @param outputDirectory directory where the report is written
+     * @return path of the report of the input file
+     */
+    String reportPathFor(Path input, String outputDirectory) {
+        String fileName = input.getFileName().toString();
+        String baseName = fileName.endsWith(".csv") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        return PathValidator.validate(Path.of(outputDirectory, baseName + reportSuffix).toString()).toString();
+    }
+
+    /**
+     * @param fileName name of a file
+     * @return whether the file is a report written by a batch, which must not be processed again
+     */
+    boolean isReport(String fileName) {
+        return fileName.endsWith(reportSuffix);
+    }
+
+    List<Path> resolveInputs(String source) {
+        Path sourcePath = PathValidator.validate(source);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(sourcePath)) {
+            directory = sourcePath;
+            matcher = FileSystems.getDefault().getPathMatcher("glob:*.csv");
+        } else {
+            directory = sourcePath.getParent();
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + sourcePath.getFileName());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(file.getFileName()))
+                    .filter(file -> !isReport(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list input files", e);
+        }
+    }
+
+    private ProcessingSummary processWithSlot(Path input, String outputPath) {
+        try {
+            fileSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted before processing {}", input);
+            return null;
+        }
+        try {
+            ProcessingSummary summary = fileProcessorService.processFile(input.toString(), outputPath);
+            log.info("Processed {} -> {}: {} messages, {} users, {} errors in {}ms", input, outputPath,
+                    summary.getTotalMessages(), summary.getUsers(), summary.getErrors(), summary.getDurationMillis());
+            return summary;
+        } catch (RuntimeException e) {
+            log.error("Failed to process {}: {}", input, e.getMessage());
+            return null;
+        } finally {
+            fileSlots.release();
+        }
+    }
+}
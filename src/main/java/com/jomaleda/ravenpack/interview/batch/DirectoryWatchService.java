@@ -0,0 +1,145 @@
+package com.jomaleda.ravenpack.interview.batch;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for watching a directory and processing CSV files as they are dropped into it.
+ *
+ * <p>A file is processed once it has stayed unchanged for the configured settle time, so files
+ * still being copied are not read half-written. Files are handed to the {@link BatchProcessorService},
+ * so they share its file slots, the caches and the global concurrency budget. A file is processed
+ * again if it is modified after its report was written.</p>
+ */
+@Service
+@Slf4j
+public class DirectoryWatchService {
+    private final BatchProcessorService batchProcessorService;
+    private final long settleNanos;
+    private volatile WatchService watchService;
+
+    public DirectoryWatchService(BatchProcessorService batchProcessorService, ModerationProperties properties) {
+        this.batchProcessorService = batchProcessorService;
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getBatch().getSettleMillis());
+    }
+
+    /**
+     * Processes the CSV files already in the directory, then watches it for new or modified files
+     * until {@link #stop()} is called or the thread is interrupted.
+     *
+     * @param directory the directory to watch (must be within 'data' directory)
+     * @param outputDirectory directory where the reports are written (must be within 'data' directory)
+     * @throws IOException if the directory cannot be watched
+     * @throws SecurityException if a path is outside the allowed directory
+     */
+    public void watch(String directory, String outputDirectory) throws IOException {
+        Path watchedDirectory = PathValidator.validate(directory);
+        PathValidator.validate(outputDirectory);
+        Map<Path, Long> pending = new HashMap<>();
+        Map<Path, FileTime> processed = new HashMap<>();
+
+        try (WatchService service = watchedDirectory.getFileSystem().newWatchService()) {
+            watchService = service;
+            watchedDirectory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            log.info("Watching {} for CSV files", watchedDirectory);
+            markAll(watchedDirectory, pending, 0L);
+
+            long pollMillis = Math.max(10L, TimeUnit.NANOSECONDS.toMillis(settleNanos) / 2);
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collectEvents(key, watchedDirectory, pending);
+                }
+                submitSettledFiles(pending, processed, outputDirectory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed");
+        } finally {
+            watchService = null;
+        }
+        log.info("Stopped watching {}", watchedDirectory);
+    }
+
+    /**
+     * Stops a running {@link #watch(String, String)} call. Files already submitted keep processing.
+     */
+    @PreDestroy
+    public void stop() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Failed to close watch service: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void collectEvents(WatchKey key, Path directory, Map<Path, Long> pending) throws IOException {
+        long now = System.nanoTime();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                markAll(directory, pending, now);
+            } else if (event.context() instanceof Path name && isCandidate(name)) {
+                pending.put(directory.resolve(name), now);
+            }
+        }
+        key.reset();
+    }
+
+    private void markAll(Path directory, Map<Path, Long> pending, long eventNanos) throws IOException {
+        try (var files = Files.list(directory)) {
+            files.filter(file -> isCandidate(file.getFileName())).forEach(file -> pending.put(file, eventNanos));
+        }
+    }
+
+    private void submitSettledFiles(Map<Path, Long> pending, Map<Path, FileTime> processed, String outputDirectory) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (now - entry.getValue() < settleNanos) {
+                continue;
+            }
+            entries.remove();
+            Path file = entry.getKey();
+            try {
+                if (!Files.isRegularFile(file)) {
+                    continue;
+                }
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.equals(processed.get(file))) {
+                    continue;
+                }
+                processed.put(file, modified);
+                batchProcessorService.submit(file, outputDirectory);
+            } catch (IOException e) {
+                log.warn("Skipping {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isCandidate(Path name) {
+        String fileName = name.getFileName().toString();
+        return fileName.endsWith(".csv") && !batchProcessorService.isReport(fileName);
+    }
+}
@@ -0,0 +1,328 @@
+package com.jomaleda.ravenpack.interview.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal client of a key-value server speaking the Redis serialization protocol (RESP 2), such as
+ * Redis or Valkey, with automatic batching and pipelining.
+ *
+ * <p>Callers never talk to the server themselves. Their lookups and writes are queued, and a single
+ * pipeline thread sends everything queued at once: all pending lookups as one MGET and all pending
+ * writes as one MSET, written together in one flush before either reply is read. While the pipeline
+ * waits for the replies, new requests queue up for the next batch, so the more callers there are,
+ * the more keys each round trip carries.</p>
+ *
+ * <p>When the server cannot be reached or replies with an error, the requests of the batch fail with
+ * an {@link IOException}, and after a failed connection attempt, requests fail without reconnecting
+ * until the retry delay has passed. Thread-safe.</p>
+ */
+@Slf4j
+public final class RespClient implements Closeable {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] MGET = "MGET".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MSET = "MSET".getBytes(StandardCharsets.US_ASCII);
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+    private final int timeoutMillis;
+    private final int maxBatchSize;
+    private final long retryDelayNanos;
+    private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+    private final LongAdder batches = new LongAdder();
+    private final Thread pipeline;
+    private volatile boolean closed;
+
+    // Owned by the pipeline thread
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+    private long reconnectAtNanos;
+
+    /**
+     * @param host host of the server
+     * @param port port of the server
+     * @param connectTimeoutMillis maximum time to open the connection
+     * @param timeoutMillis maximum time to wait for a reply
+     * @param maxBatchSize maximum number of operations sent in one batch
+     * @param retryDelayMillis time to wait before reconnecting after a failed connection attempt
+     */
+    public RespClient(String host, int port, int connectTimeoutMillis, int timeoutMillis, int maxBatchSize,
+                      int retryDelayMillis) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.retryDelayNanos = retryDelayMillis * 1_000_000L;
+        this.reconnectAtNanos = System.nanoTime();
+        this.pipeline = Thread.ofPlatform().name("resp-pipeline").daemon(true).start(this::runPipeline);
+    }
+
+    /**
+     * Looks up a key in the next batch.
+     *
+     * @param key the key
+     * @return future of the value, completed with null if the key is absent
+     */
+    public CompletableFuture<byte[]> get(String key) {
+        return enqueue(new Operation(key, null));
+    }
+
+    /**
+     * Writes a key in the next batch.
+     *
+     * @param key the key
+     * @param value the value
+     * @return future completed once the server has stored the value
+     */
+    public CompletableFuture<byte[]> set(String key, byte[] value) {
+        return enqueue(new Operation(key, value));
+    }
+
+    /**
+     * @return number of batches sent to the server
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Stops the pipeline. Requests still queued fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pipeline.interrupt();
+        try {
+            pipeline.join(timeoutMillis + connectTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<byte[]> enqueue(Operation operation) {
+        if (closed) {
+            operation.result.completeExceptionally(new IOException("Client is closed"));
+        } else {
+            queue.add(operation);
+        }
+        return operation.result;
+    }
+
+    private void runPipeline() {
+        List<Operation> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            send(batch);
+            batch.clear();
+        }
+        disconnect();
+        queue.drainTo(batch);
+        batch.forEach(operation -> operation.result.completeExceptionally(new IOException("Client is closed")));
+    }
+
+    private void send(List<Operation> batch) {
+        List<Operation> gets = new ArrayList<>();
+        List<Operation> sets = new ArrayList<>();
+        for (Operation operation : batch) {
+            (operation.value == null ? gets : sets).add(operation);
+        }
+        try {
+            connect();
+            if (!gets.isEmpty()) {
+                List<byte[]> arguments = new ArrayList<>(gets.size() + 1);
+                arguments.add(MGET);
+                gets.forEach(operation -> arguments.add(operation.keyBytes()));
+                writeCommand(out, arguments);
+            }
+            if (!sets.isEmpty()) {
+                List<byte[]> arguments = new ArrayList<>(2 * sets.size() + 1);
+                arguments.add(MSET);
+                sets.forEach(operation -> {
+                    arguments.add(operation.keyBytes());
+                    arguments.add(operation.value);
+                });
+                writeCommand(out, arguments);
+            }
+            out.flush();
+            batches.increment();
+            if (!gets.isEmpty()) {
+                List<?> values = (List<?>) readReply(in);
+                if (values.size() != gets.size()) {
+                    throw new IOException("Expected " + gets.size() + " values, got " + values.size());
+                }
+                for (int i = 0; i < gets.size(); i++) {
+                    gets.get(i).result.complete((byte[]) values.get(i));
+                }
+            }
+            if (!sets.isEmpty()) {
+                readReply(in);
+                sets.forEach(operation -> operation.result.complete(operation.value));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (socket != null) {
+                log.warn("Remote cache request to {}:{} failed: {}", host, port, e.toString());
+            }
+            disconnect();
+            IOException failure = e instanceof IOException io ? io : new IOException(e);
+            batch.forEach(operation -> operation.result.completeExceptionally(failure));
+        }
+    }
+
+    private void connect() throws IOException {
+        if (socket != null) {
+            return;
+        }
+        if (System.nanoTime() - reconnectAtNanos < 0) {
+            throw new IOException("Remote cache " + host + ":" + port + " unavailable, retrying later");
+        }
+        Socket connection = new Socket();
+        try {
+            connection.setTcpNoDelay(true);
+            connection.setSoTimeout(timeoutMillis);
+            connection.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+        } catch (IOException e) {
+            connection.close();
+            reconnectAtNanos = System.nanoTime() + retryDelayNanos;
+            log.warn("Cannot connect to remote cache {}:{}: {}", host, port, e.toString());
+            throw e;
+        }
+        socket = connection;
+        in = new BufferedInputStream(connection.getInputStream(), 1 << 16);
+        out = new BufferedOutputStream(connection.getOutputStream(), 1 << 16);
+        log.info("Connected to remote cache {}:{}", host, port);
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Error closing the remote cache connection", e);
+            }
+            socket = null;
+            in = null;
+            out = null;
+        }
+    }
+
+    /**
+     * Writes a command as a RESP array of bulk strings.
+     */
+    static void writeCommand(OutputStream out, List<byte[]> arguments) throws IOException {
+        writeHeader(out, '*', arguments.size());
+        for (byte[] argument : arguments) {
+            writeHeader(out, '$', argument.length);
+            out.write(argument);
+            out.write(CRLF);
+        }
+    }
+
+    private static void writeHeader(OutputStream out, char type, int length) throws IOException {
+        out.write(type);
+        out.write(Integer.toString(length).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    /**
+     * Reads one RESP value: a String for a simple string, a Long for an integer, a byte array or null
+     * for a bulk string, and a List of values or null for an array.
+     *
+     * @throws IOException if the value is an error reply or the stream ends or is malformed
+     */
+    static Object readReply(InputStream in) throws IOException {
+        int type = in.read();
+        String line = readLine(in);
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                throw new IOException("Remote cache error: " + line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException("Truncated bulk string");
+                }
+                return bytes;
+            }
+            case '*': {
+                int count = Integer.parseInt(line);
+                if (count < 0) {
+                    return null;
+                }
+                List<Object> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(readReply(in));
+                }
+                return values;
+            }
+            case -1:
+                throw new EOFException("Connection closed by the remote cache");
+            default:
+                throw new IOException("Unexpected reply type: " + (char) type);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                return line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Expected line feed after carriage return");
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A queued lookup, or a write when it has a value.
+     */
+    private static final class Operation {
+        private final String key;
+        private final byte[] value;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private Operation(String key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private byte[] keyBytes() {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,25 +1,128 @@
 package com.jomaleda.ravenpack.interview.config;
 
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.CacheService;
+import com.jomaleda.ravenpack.interview.service.InMemoryCacheService;
+import com.jomaleda.ravenpack.interview.service.RespCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * Application configuration class for Spring Boot.
  * Configures beans and application-wide settings.
  */
 @Configuration
+@EnableConfigurationProperties(ModerationProperties.class)
+@Slf4j
 public class AppConfig {
-    
+    static final String SCHEDULER_PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+
+    /**
+     * Creates the ExecutorService running the message tasks, with the strategy selected by
+     * {@code moderation.executor.strategy}. Virtual threads, the default, provide high concurrency
+     * with low resource overhead; the platform strategies are there to compare against them, for
+     * example when the pinning diagnostics show carrier threads pinned on the hot path.
+     *
+     * @param properties the application settings
+     * @return ExecutorService of the configured strategy
+     */
+    @Bean
+    @Primary
+    public ExecutorService taskExecutor(ModerationProperties properties) {
+        ModerationProperties.Executor settings = properties.getExecutor();
+        int parallelism = settings.getParallelism() > 0 ? settings.getParallelism() : Runtime.getRuntime().availableProcessors();
+        log.info("Message tasks run on the {} executor strategy", settings.getStrategy());
+        return switch (settings.getStrategy()) {
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+            case VIRTUAL_FIXED_PARALLELISM -> newVirtualThreadExecutor(parallelism);
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(Math.max(1, settings.getPoolSize()),
+                    Thread.ofPlatform().name("moderation-worker-", 0).daemon(true).factory());
+            case FORK_JOIN -> Executors.newWorkStealingPool(parallelism);
+        };
+    }
+
     /**
-     * Creates an ExecutorService using Java 21 virtual threads.
-     * Virtual threads provide high concurrency with low resource overhead.
+     * Creates the ExecutorService of the tasks that coordinate others and mostly wait, such as the
+     * files of a batch, the daemon jobs and the daemon HTTP handlers. It always uses virtual threads,
+     * so a bounded message executor can never be exhausted by tasks waiting for their own messages.
      *
      * @return ExecutorService configured for virtual thread execution
      */
     @Bean
-    public ExecutorService taskExecutor() {
+    public ExecutorService coordinationExecutor() {
         return Executors.newVirtualThreadPerTaskExecutor();
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the cache of translations and scores, with the backend selected by {@code moderation.cache.backend}.
+     * The backend is chosen here when the bean is created rather than with a condition on the property,
+     * because Spring AOT evaluates conditions once at build time and an AOT-processed launch would
+     * ignore the property. The RESP backend is closed with the context.
+     *
+     * @param properties the application settings
+     * @param metrics the pipeline metrics recording the hits and misses
+     * @return CacheService of the configured backend
+     */
+    @Bean
+    public CacheService cacheService(ModerationProperties properties, PipelineMetrics metrics) {
+        ModerationProperties.Cache settings = properties.getCache();
+        return switch (settings.getBackend()) {
+            case IN_MEMORY -> new InMemoryCacheService(metrics);
+            case RESP -> {
+                log.info("Caching translations and scores on {}:{}", settings.getRemote().getHost(), settings.getRemote().getPort());
+                yield new RespCacheService(metrics, properties);
+            }
+        };
+    }
+
+    /**
+     * Creates a virtual thread executor whose scheduler runs on the given number of carrier threads.
+     * The JDK has no API to plug in a scheduler, and the parallelism of the single virtual thread
+     * scheduler is read once, when the first virtual thread starts. It must therefore be given on the
+     * command line, {@code -Djdk.virtualThreadScheduler.parallelism=N}. Without it, the property is set
+     * here, which only works if no virtual thread has started yet. A warning is logged when the
+     * scheduler ends up with another parallelism than the configured one.
+     */
+    private static ExecutorService newVirtualThreadExecutor(int parallelism) {
+        String configured = System.getProperty(SCHEDULER_PARALLELISM_PROPERTY);
+        if (configured == null) {
+            System.setProperty(SCHEDULER_PARALLELISM_PROPERTY, Integer.toString(parallelism));
+        }
+        int effective = schedulerParallelism();
+        if (effective > 0 && effective != parallelism) {
+            log.warn("Virtual threads run on {} carrier threads instead of the configured {}: the scheduler was created "
+                    + "before this setting was read; start the JVM with -D{}={}",
+                    effective, parallelism, SCHEDULER_PARALLELISM_PROPERTY, parallelism);
+        }
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Reads the parallelism of the virtual thread scheduler from the pool of its carrier threads,
+     * which are ForkJoinPool workers. A virtual thread is started first, so that the scheduler and at
+     * least one carrier thread exist.
+     *
+     * @return the parallelism of the scheduler, or -1 if no carrier thread could be found
+     */
+    static int schedulerParallelism() {
+        try {
+            Thread.ofVirtual().start(() -> { }).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread instanceof ForkJoinWorkerThread worker && CARRIER_THREAD_CLASS.equals(thread.getClass().getName())) {
+                return worker.getPool().getParallelism();
+            }
+        }
+        return -1;
+    }
+}
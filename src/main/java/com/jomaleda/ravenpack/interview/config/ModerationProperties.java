@@ -0,0 +1,441 @@
+package com.jomaleda.ravenpack.interview.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application-wide settings bound from the {@code moderation.*} properties.
+ * Every setting has a default, so the application runs without any configuration.
+ */
+@Data
+@ConfigurationProperties(prefix = "moderation")
+public class ModerationProperties {
+    private final Metrics metrics = new Metrics();
+    private final Jfr jfr = new Jfr();
+    private final Daemon daemon = new Daemon();
+    private final Concurrency concurrency = new Concurrency();
+    private final Batch batch = new Batch();
+    private final Streaming streaming = new Streaming();
+    private final Report report = new Report();
+    private final TopUsers topUsers = new TopUsers();
+    private final Aggregation aggregation = new Aggregation();
+    private final Cache cache = new Cache();
+    private final FastPath fastPath = new FastPath();
+    private final Executor executor = new Executor();
+    private final Deadlines deadlines = new Deadlines();
+    private final Latency latency = new Latency();
+    private final Parser parser = new Parser();
+    private final Sampling sampling = new Sampling();
+
+    /**
+     * Settings for the metrics layer.
+     */
+    @Data
+    public static class Metrics {
+        /**
+         * Whether a JSON summary of the run metrics is written next to the output report.
+         */
+        private boolean summaryEnabled = true;
+    }
+
+    /**
+     * Settings for Java Flight Recorder tracing.
+     */
+    @Data
+    public static class Jfr {
+        /**
+         * Whether each run is recorded with Flight Recorder. Can also be enabled with the --jfr flag.
+         */
+        private boolean enabled = false;
+    }
+
+    /**
+     * Settings for the long-running daemon mode.
+     */
+    @Data
+    public static class Daemon {
+        /**
+         * Whether the application starts as a daemon instead of processing one file. Can also be enabled with the --daemon flag.
+         */
+        private boolean enabled = false;
+        /**
+         * Address the daemon HTTP endpoint binds to.
+         */
+        private String bindAddress = "127.0.0.1";
+        /**
+         * Port of the daemon HTTP endpoint. Use 0 to pick a free port.
+         */
+        private int port = 8085;
+        /**
+         * Maximum number of jobs processed at the same time. Further jobs are queued.
+         */
+        private int maxConcurrentJobs = 4;
+        /**
+         * Maximum number of jobs kept for status queries. The oldest finished jobs are dropped first.
+         */
+        private int jobHistory = 1000;
+    }
+
+    /**
+     * Settings for the global concurrency budget shared by all files processed in the JVM.
+     */
+    @Data
+    public static class Concurrency {
+        /**
+         * Maximum number of messages translated and scored at the same time across all files. 0 disables the limit.
+         */
+        private int maxInFlight = 4096;
+        /**
+         * Maximum number of outstanding messages of a single file, so small files are not stuck behind large ones. 0 disables the limit.
+         */
+        private int perFileWindow = 1024;
+    }
+
+    /**
+     * Settings for multi-file batch and directory-watch ingestion.
+     */
+    @Data
+    public static class Batch {
+        /**
+         * Maximum number of files processed at the same time.
+         */
+        private int maxConcurrentFiles = 8;
+        /**
+         * Suffix replacing ".csv" in the name of the report of each input file.
+         */
+        private String reportSuffix = "_report.csv";
+        /**
+         * Time a watched file must stay unchanged before it is processed, so partially written files are skipped.
+         */
+        private long settleMillis = 1000;
+    }
+
+    /**
+     * Settings for continuous streaming ingestion.
+     */
+    @Data
+    public static class Streaming {
+        /**
+         * Length of each report window.
+         */
+        private long windowMillis = 10_000;
+        /**
+         * Distance between the starts of consecutive windows. 0 makes the windows tumbling; otherwise
+         * the windows slide and the window length must be a multiple of the slide.
+         */
+        private long slideMillis = 0;
+        /**
+         * Time the watermark trails the clock, so rows read just before a window closes still make it in.
+         */
+        private long allowedLatenessMillis = 1000;
+        /**
+         * Interval at which closed windows are written to the report.
+         */
+        private long flushIntervalMillis = 500;
+        /**
+         * Interval at which a tailed file is checked for new rows.
+         */
+        private long tailPollMillis = 200;
+    }
+
+    /**
+     * Settings for the per-user report.
+     */
+    @Data
+    public static class Report {
+        /**
+         * Score quantiles added as columns to the report, for example 0.5,0.95. Empty keeps the report
+         * to count and average and skips tracking the score distribution.
+         */
+        private List<Double> quantiles = new ArrayList<>();
+        /**
+         * Maximum relative error of the reported quantiles.
+         */
+        private double quantileAccuracy = 0.02;
+        /**
+         * Maximum number of buckets of the score distribution kept per user, which bounds its memory.
+         */
+        private int quantileMaxBins = 128;
+    }
+
+    /**
+     * Settings for the ranking of the worst offenders, tracked in fixed memory while rows are processed.
+     */
+    @Data
+    public static class TopUsers {
+        /**
+         * Value users are ranked by.
+         */
+        public enum Metric {
+            /** Sum of the scores of all messages of the user. */
+            TOTAL_SCORE,
+            /** Number of messages scoring at least the offensive threshold. */
+            OFFENSIVE_COUNT
+        }
+
+        /**
+         * Whether the ranking is written next to the report, with the "_topk.csv" suffix.
+         */
+        private boolean enabled = false;
+        /**
+         * Number of users in the ranking.
+         */
+        private int size = 100;
+        /**
+         * Number of users tracked by the sketch. More than the ranking size makes the ranking more exact.
+         */
+        private int capacity = 1000;
+        private Metric metric = Metric.TOTAL_SCORE;
+        /**
+         * Score from which a message counts as offensive for the OFFENSIVE_COUNT metric.
+         */
+        private double offensiveThreshold = 0.5;
+    }
+
+    /**
+     * Settings for the per-user aggregation of a file.
+     */
+    @Data
+    public static class Aggregation {
+        /**
+         * Estimated heap the per-user aggregates of one file may take before they are spilled to disk.
+         * 0 keeps every aggregate in memory.
+         */
+        private long memoryBudgetBytes = 0;
+        /**
+         * Number of hash partitions of the spilled aggregates, each merged separately.
+         */
+        private int spillPartitions = 16;
+        /**
+         * Directory within 'data' where spill files are written and deleted after the run.
+         */
+        private String spillDirectory = "data/spill";
+    }
+
+    /**
+     * Settings for the translation and scoring caches.
+     */
+    @Data
+    public static class Cache {
+        /**
+         * Where cached translations and scores are kept.
+         */
+        public enum Backend {
+            /** Maps in the heap of this JVM. */
+            IN_MEMORY,
+            /** A remote server speaking the Redis protocol (RESP), shared by every JVM using it. */
+            RESP
+        }
+
+        /**
+         * Cache backend. It is selected when the application starts, also in an AOT-processed launch.
+         */
+        private Backend backend = Backend.IN_MEMORY;
+        /**
+         * Settings of the RESP backend.
+         */
+        private final Remote remote = new Remote();
+        /**
+         * Whether cache entries are keyed by a 128-bit fingerprint of the message instead of its full text,
+         * which makes the key size of an entry independent of the message length.
+         */
+        private boolean fingerprintKeys = false;
+        /**
+         * Whether the final score of a message is cached under the original message, in the "result"
+         * namespace. A repeated message is then scored with a single lookup and no translation, and
+         * on a miss the message is translated and scored without the translation and score caches.
+         */
+        private boolean resultCacheEnabled = false;
+        /**
+         * Whether translations are still cached when the result cache is enabled.
+         */
+        private boolean resultCacheKeepTranslations = false;
+
+        /**
+         * Settings of the remote cache server of the RESP backend.
+         */
+        @Data
+        public static class Remote {
+            /**
+             * Host of the server.
+             */
+            private String host = "127.0.0.1";
+            /**
+             * Port of the server.
+             */
+            private int port = 6379;
+            /**
+             * Prefix of every key written, so several applications can share a server.
+             */
+            private String keyPrefix = "moderation:";
+            /**
+             * Maximum time to open the connection.
+             */
+            private int connectTimeoutMillis = 1_000;
+            /**
+             * Maximum time to wait for a lookup. A lookup that takes longer counts as a miss.
+             */
+            private int timeoutMillis = 500;
+            /**
+             * Maximum number of lookups or writes sent in one MGET or MSET command.
+             */
+            private int maxBatchSize = 256;
+            /**
+             * Time to wait before reconnecting after the server could not be reached. Lookups in the
+             * meantime count as misses.
+             */
+            private int retryDelayMillis = 1_000;
+        }
+    }
+
+    /**
+     * Settings for the local fast path that skips remote calls for messages that do not need them.
+     */
+    @Data
+    public static class FastPath {
+        /**
+         * Whether messages are classified locally before translation. Empty messages are then neither translated nor scored.
+         */
+        private boolean enabled = true;
+        /**
+         * Whether whitespace-only messages are skipped like empty ones. Off by default: the scoring
+         * service gives them a score of their own, so skipping them changes the averages of their users.
+         */
+        private boolean skipWhitespaceOnly = false;
+        /**
+         * Score given to blank messages without calling the scoring service.
+         */
+        private float blankScore = 0.0f;
+        /**
+         * Whether messages detected as already in the target language skip translation and are scored as they are.
+         */
+        private boolean targetLanguageDetection = false;
+        /**
+         * Minimum share of frequent target-language trigrams for a message to count as already in the target language.
+         */
+        private double targetLanguageThreshold = 0.4;
+        /**
+         * Minimum number of letters for a message to be checked for the target language.
+         */
+        private int targetLanguageMinLetters = 8;
+    }
+
+    /**
+     * Settings for the executor running the message tasks.
+     */
+    @Data
+    public static class Executor {
+        /**
+         * Executor strategies for the message tasks.
+         */
+        public enum Strategy {
+            /** One virtual thread per task on the default scheduler. */
+            VIRTUAL,
+            /**
+             * One virtual thread per task on a scheduler with the configured parallelism. The JVM reads it once,
+             * so pass it as {@code -Djdk.virtualThreadScheduler.parallelism=N} too; a mismatch is logged.
+             */
+            VIRTUAL_FIXED_PARALLELISM,
+            /** Fixed pool of platform threads. */
+            PLATFORM_POOL,
+            /** Work-stealing ForkJoinPool of platform threads. */
+            FORK_JOIN
+        }
+
+        /**
+         * Executor strategy of the message tasks.
+         */
+        private Strategy strategy = Strategy.VIRTUAL;
+        /**
+         * Number of threads of the PLATFORM_POOL strategy.
+         */
+        private int poolSize = 256;
+        /**
+         * Parallelism of the FORK_JOIN and VIRTUAL_FIXED_PARALLELISM strategies. 0 uses the number of processors.
+         */
+        private int parallelism = 0;
+        /**
+         * Whether virtual threads pinning their carrier thread are recorded, with the code location, in the metrics.
+         */
+        private boolean pinningDiagnostics = false;
+        /**
+         * Minimum duration of a pinning to be recorded.
+         */
+        private long pinningThresholdMillis = 20;
+    }
+
+    /**
+     * Deadlines of the messages of a file and of the whole file.
+     */
+    @Data
+    public static class Deadlines {
+        /**
+         * Time a message may take from submission to its score before it is cancelled and counted as an error.
+         * 0 or less for no per-message deadline.
+         */
+        private long messageTimeoutMillis = 30_000;
+        /**
+         * Time a whole file may take. Outstanding messages are then cancelled and a partial report is written.
+         * 0 or less for no deadline.
+         */
+        private long runTimeoutMillis = 300_000;
+        /**
+         * Time cancelled messages are given to wind down before the partial report is written.
+         */
+        private long cancelGraceMillis = 5_000;
+    }
+
+    /**
+     * Settings for the simulated latency of the downstream API calls. Off by default, as the original
+     * application never applied it; the performance tests set a fixed latency.
+     */
+    @Data
+    public static class Latency {
+        /**
+         * Minimum simulated latency of a call.
+         */
+        private long minMillis = 0;
+        /**
+         * Maximum simulated latency of a call. Equal to the minimum for a fixed latency, 0 for none.
+         */
+        private long maxMillis = 0;
+    }
+
+    /**
+     * Settings for parsing input files.
+     */
+    @Data
+    public static class Parser {
+        /**
+         * Whether rows are parsed straight from the file bytes, scanning for delimiters with the Vector API.
+         * Needs the JVM option --add-modules jdk.incubator.vector, or falls back to scalar scanning.
+         */
+        private boolean vectorized = false;
+        /**
+         * Initial size of the read buffer of the byte parser.
+         */
+        private int bufferBytes = 1 << 20;
+    }
+
+    /**
+     * Settings for estimating the reports from a sample of the messages of each user.
+     */
+    @Data
+    public static class Sampling {
+        /**
+         * Whether every file is processed in sampling mode, as with the --sample option.
+         */
+        private boolean enabled = false;
+        /**
+         * Maximum number of messages scored per user; the messages of a user are counted exactly either way.
+         */
+        private int perUser = 100;
+        /**
+         * Confidence level of the interval of the estimated average score, between 0 and 1.
+         */
+        private double confidence = 0.95;
+    }
+}
@@ -0,0 +1,147 @@
+package com.jomaleda.ravenpack.interview.daemon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Local HTTP endpoint of the long-running daemon mode.
+ *
+ * <p>Keeps the JVM, the JIT-compiled code and the caches warm across jobs. Endpoints:</p>
+ * <ul>
+ *   <li>{@code POST /jobs} with {@code {"input": "data/in.csv", "output": "data/out.csv"}} queues a job</li>
+ *   <li>{@code GET /jobs} lists the known jobs</li>
+ *   <li>{@code GET /jobs/<id>} returns the status and timings of a job</li>
+ *   <li>{@code GET /health} reports that the daemon is up</li>
+ * </ul>
+ * <p>The server binds to the loopback address by default, as jobs read and write local files.</p>
+ */
+@Component
+@Slf4j
+public class DaemonServer {
+    private static final String JOBS_PATH = "/jobs";
+
+    private final JobService jobService;
+    private final ModerationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService coordinationExecutor;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    public DaemonServer(JobService jobService, ModerationProperties properties, ObjectMapper objectMapper,
+                        @Qualifier("coordinationExecutor") ExecutorService coordinationExecutor) {
+        this.jobService = jobService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.coordinationExecutor = coordinationExecutor;
+    }
+
+    /**
+     * Starts listening on the configured address and port.
+     *
+     * @return the port the server is bound to
+     * @throws IOException if the server cannot bind
+     */
+    public synchronized int start() throws IOException {
+        ModerationProperties.Daemon config = properties.getDaemon();
+        server = HttpServer.create(new InetSocketAddress(config.getBindAddress(), config.getPort()), 0);
+        server.createContext(JOBS_PATH, this::handleJobs);
+        server.createContext("/health", exchange -> sendJson(exchange, 200, Map.of("status", "UP")));
+        server.setExecutor(coordinationExecutor);
+        server.start();
+        int port = server.getAddress().getPort();
+        log.info("Daemon listening on {}:{}", config.getBindAddress(), port);
+        return port;
+    }
+
+    /**
+     * Blocks until the daemon is stopped.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops the server, letting in-flight requests finish for up to one second.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            server = null;
+            log.info("Daemon stopped");
+        }
+        stopped.countDown();
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals(JOBS_PATH) && method.equals("POST")) {
+                submitJob(exchange);
+            } else if (path.equals(JOBS_PATH) && method.equals("GET")) {
+                sendJson(exchange, 200, jobService.listJobs());
+            } else if (path.startsWith(JOBS_PATH + "/") && method.equals("GET")) {
+                String id = path.substring(JOBS_PATH.length() + 1);
+                var job = jobService.getJob(id);
+                if (job.isPresent()) {
+                    sendJson(exchange, 200, job.get());
+                } else {
+                    sendJson(exchange, 404, Map.of("error", "Unknown job " + id));
+                }
+            } else {
+                sendJson(exchange, 405, Map.of("error", "Unsupported request " + method + " " + path));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to handle daemon request", e);
+            sendJson(exchange, 500, Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void submitJob(HttpExchange exchange) throws IOException {
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        } catch (IOException e) {
+            sendJson(exchange, 400, Map.of("error", "Request body must be JSON"));
+            return;
+        }
+        if (request == null || !request.hasNonNull("input") || !request.hasNonNull("output")) {
+            sendJson(exchange, 400, Map.of("error", "Fields 'input' and 'output' are required"));
+            return;
+        }
+        try {
+            ModerationJob job = jobService.submit(request.get("input").asText(), request.get("output").asText());
+            sendJson(exchange, 202, job);
+        } catch (SecurityException e) {
+            sendJson(exchange, 400, Map.of("error", "Invalid file path"));
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+}
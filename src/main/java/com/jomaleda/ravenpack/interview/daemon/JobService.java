@@ -0,0 +1,117 @@
+package com.jomaleda.ravenpack.interview.daemon;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service for running file processing jobs inside the long-running daemon.
+ *
+ * <p>Jobs run concurrently on the coordination executor, against the same warm caches, up to the
+ * configured number of concurrent jobs; further jobs stay queued until a slot frees up. Finished
+ * jobs are kept for status queries until the job history limit is reached.</p>
+ */
+@Service
+@Slf4j
+public class JobService {
+    private final FileProcessorService fileProcessorService;
+    private final ExecutorService coordinationExecutor;
+    private final Semaphore jobSlots;
+    private final int jobHistory;
+    private final Map<String, ModerationJob> jobs = new ConcurrentHashMap<>();
+
+    public JobService(FileProcessorService fileProcessorService,
+                      @Qualifier("coordinationExecutor") ExecutorService coordinationExecutor, ModerationProperties properties) {
+        this.fileProcessorService = fileProcessorService;
+        this.coordinationExecutor = coordinationExecutor;
+        this.jobSlots = new Semaphore(properties.getDaemon().getMaxConcurrentJobs(), true);
+        this.jobHistory = properties.getDaemon().getJobHistory();
+    }
+
+    /**
+     * Submits a job that processes an input file into an output report.
+     *
+     * @param inputPath path to input CSV file containing user messages
+     * @param outputPath path where the output CSV report will be written
+     * @return the queued job
+     * @throws SecurityException if a file path is outside the allowed directory
+     */
+    public ModerationJob submit(String inputPath, String outputPath) {
+        PathValidator.validate(inputPath);
+        PathValidator.validate(outputPath);
+        evictFinishedJobs();
+
+        ModerationJob job = new ModerationJob(UUID.randomUUID().toString(), inputPath, outputPath);
+        jobs.put(job.getId(), job);
+        coordinationExecutor.execute(() -> run(job));
+        log.info("Job {} queued: {} -> {}", job.getId(), inputPath, outputPath);
+        return job;
+    }
+
+    /**
+     * @param id the job identifier
+     * @return the job, if it is known
+     */
+    public Optional<ModerationJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * @return all known jobs, oldest first
+     */
+    public List<ModerationJob> listJobs() {
+        List<ModerationJob> snapshot = new ArrayList<>(jobs.values());
+        snapshot.sort(Comparator.comparingLong(ModerationJob::getSubmittedAtMillis));
+        return snapshot;
+    }
+
+    private void run(ModerationJob job) {
+        try {
+            jobSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.markFailed("Job was interrupted while queued");
+            return;
+        }
+        try {
+            job.markRunning();
+            ProcessingSummary summary = fileProcessorService.processFile(job.getInputPath(), job.getOutputPath());
+            job.markSucceeded(summary);
+            log.info("Job {} succeeded in {}ms", job.getId(), job.getRunningMillis());
+        } catch (RuntimeException e) {
+            job.markFailed(e.getMessage());
+            log.error("Job {} failed: {}", job.getId(), e.getMessage());
+        } finally {
+            jobSlots.release();
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - jobHistory + 1;
+        if (excess <= 0) {
+            return;
+        }
+        List<ModerationJob> finished = new ArrayList<>(jobs.values());
+        finished.removeIf(job -> !job.isFinished());
+        finished.sort(Comparator.comparingLong(ModerationJob::getSubmittedAtMillis));
+        Iterator<ModerationJob> oldest = finished.iterator();
+        while (excess-- > 0 && oldest.hasNext()) {
+            jobs.remove(oldest.next().getId());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.jomaleda.ravenpack.interview.daemon;
+
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import lombok.Getter;
+
+/**
+ * A file processing job submitted to the daemon, with its status and timings.
+ * Status transitions are published safely to the HTTP threads that report them.
+ */
+@Getter
+public class ModerationJob {
+
+    /**
+     * Lifecycle of a job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final String inputPath;
+    private final String outputPath;
+    private final long submittedAtMillis;
+    private volatile Status status = Status.QUEUED;
+    private volatile long startedAtMillis;
+    private volatile long finishedAtMillis;
+    private volatile ProcessingSummary summary;
+    private volatile String error;
+
+    public ModerationJob(String id, String inputPath, String outputPath) {
+        this.id = id;
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.submittedAtMillis = System.currentTimeMillis();
+    }
+
+    void markRunning() {
+        startedAtMillis = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded(ProcessingSummary processingSummary) {
+        summary = processingSummary;
+        finishedAtMillis = System.currentTimeMillis();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String message) {
+        error = message;
+        finishedAtMillis = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    /**
+     * @return milliseconds the job waited for a free slot, or 0 while it is still queued
+     */
+    public long getQueuedMillis() {
+        return startedAtMillis == 0L ? 0L : startedAtMillis - submittedAtMillis;
+    }
+
+    /**
+     * @return milliseconds the job has been running, up to now if it has not finished yet
+     */
+    public long getRunningMillis() {
+        if (startedAtMillis == 0L) {
+            return 0L;
+        }
+        return (finishedAtMillis == 0L ? System.currentTimeMillis() : finishedAtMillis) - startedAtMillis;
+    }
+
+    /**
+     * @return whether the job has reached a final status
+     */
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jomaleda.ravenpack.interview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingSummary {
+   private long totalMessages;
+   private long errors;
+   private int users;
+   private long durationMillis;
+   /**
+    * Messages cancelled at their own deadline or at the deadline of the file, included in the errors.
+    */
+   private long timedOut;
+   /**
+    * Whether the deadline of the file cut the run short, leaving rows unread or unprocessed.
+    */
+   private boolean partial;
+   /**
+    * Messages scored, fewer than the total messages when the averages are estimated from a sample of each user.
+    */
+   private long scoredMessages;
+
+   public ProcessingSummary(long totalMessages, long errors, int users, long durationMillis) {
+      this(totalMessages, errors, users, durationMillis, 0L, false);
+   }
+
+   public ProcessingSummary(long totalMessages, long errors, int users, long durationMillis, long timedOut,
+                            boolean partial) {
+      this(totalMessages, errors, users, durationMillis, timedOut, partial, totalMessages);
+   }
+}
@@ -0,0 +1,15 @@
+package com.jomaleda.ravenpack.interview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopUserReport {
+   private int rank;
+   private String userId;
+   private double value;
+   private double maxOverestimate;
+}
@@ -15,4 +15,25 @@ public class UserReport {
    private int totalMessages;
    @CsvBindByName(column = "avg_score")
    private float avgScore;
-}
\ No newline at end of file
+   private float[] scoreQuantiles;
+   /**
+    * False if messages of the user were cancelled at a deadline, so the figures cover only part of them.
+    */
+   private boolean complete = true;
+   /**
+    * Half-width of the confidence interval of the average score when it is estimated from a sample, 0 when exact.
+    */
+   private float avgScoreMargin;
+
+   public UserReport(String userId, int totalMessages, float avgScore) {
+      this(userId, totalMessages, avgScore, new float[0]);
+   }
+
+   public UserReport(String userId, int totalMessages, float avgScore, float[] scoreQuantiles) {
+      this(userId, totalMessages, avgScore, scoreQuantiles, true);
+   }
+
+   public UserReport(String userId, int totalMessages, float avgScore, float[] scoreQuantiles, boolean complete) {
+      this(userId, totalMessages, avgScore, scoreQuantiles, complete, 0.0f);
+   }
+}
@@ -0,0 +1,20 @@
+package com.jomaleda.ravenpack.interview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistics of one user within one window of a stream. Window bounds are epoch milliseconds,
+ * the start inclusive and the end exclusive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WindowReport {
+   private long windowStart;
+   private long windowEnd;
+   private String userId;
+   private int totalMessages;
+   private float avgScore;
+}
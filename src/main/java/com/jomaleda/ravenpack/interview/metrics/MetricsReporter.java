@@ -0,0 +1,46 @@
+package com.jomaleda.ravenpack.interview.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes the end-of-run JSON summary of the pipeline metrics.
+ * The summary is stored next to the output report, replacing its ".csv" extension with "_metrics.json".
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MetricsReporter {
+    static final String SUMMARY_SUFFIX = "_metrics.json";
+
+    private final PipelineMetrics metrics;
+    private final ModerationProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the metrics summary for a finished run, if enabled.
+     *
+     * @param outputPath the path of the output report of the run
+     * @throws RuntimeException if the summary cannot be written
+     * @throws SecurityException if the summary path is outside the allowed directory
+     */
+    public void writeSummary(String outputPath) {
+        if (!properties.getMetrics().isSummaryEnabled()) {
+            return;
+        }
+        Path summaryPath = PathValidator.companionOf(outputPath, SUMMARY_SUFFIX);
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(summaryPath.toFile(), metrics.snapshot());
+            log.info("Metrics summary written to {}", summaryPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write metrics summary", e);
+        }
+    }
+}
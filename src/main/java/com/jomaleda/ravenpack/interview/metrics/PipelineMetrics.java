@@ -0,0 +1,333 @@
+package com.jomaleda.ravenpack.interview.metrics;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Central registry of the performance metrics of the moderation pipeline.
+ *
+ * <p>Holds per-stage latency histograms, per-namespace cache hit and miss counters, row, error and
+ * fast-path counters, per-service downstream call counters, per-site virtual thread pinning counters and in-flight task gauges. All recording methods are thread-safe and allocation-free,
+ * so they can be called from every message task. The metrics are exposed over JMX and can be
+ * exported as a snapshot map for the end-of-run JSON summary.</p>
+ */
+@Component
+@ManagedResource(objectName = "com.jomaleda.ravenpack:type=PipelineMetrics", description = "Content moderation pipeline metrics")
+public class PipelineMetrics {
+
+    /**
+     * Pipeline stages with their own latency histogram. ROW covers a whole row, from the start of its task to its end.
+     */
+    public enum Stage {
+        PARSE, TRANSLATE, SCORE, AGGREGATE, ROW
+    }
+
+    private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+    private final Map<String, CacheCounters> cacheCounters = new ConcurrentHashMap<>();
+    private final Map<String, PinningCounters> pinningCounters = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> downstreamCalls = new ConcurrentHashMap<>();
+    private final LongAdder rowsProcessed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder blankMessagesSkipped = new LongAdder();
+    private final LongAdder translationsSkipped = new LongAdder();
+    private final LongAdder tasksSubmitted = new LongAdder();
+    private final LongAdder tasksStarted = new LongAdder();
+    private final LongAdder tasksFinished = new LongAdder();
+    private final AtomicInteger activeRuns = new AtomicInteger();
+    private final AtomicLong rowsAtRunStart = new AtomicLong();
+    private final AtomicLong runStartNanos = new AtomicLong();
+    private final AtomicLong runEndNanos = new AtomicLong();
+    private final AtomicLong firstRowUptimeMillis = new AtomicLong();
+
+    public PipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            stageLatencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Marks the start of a run. Rows per second are measured from the point where the first of
+     * several overlapping runs started.
+     */
+    public void runStarted() {
+        if (activeRuns.getAndIncrement() == 0) {
+            rowsAtRunStart.set(rowsProcessed.sum());
+            runEndNanos.set(0L);
+            runStartNanos.set(System.nanoTime());
+        }
+    }
+
+    /**
+     * Marks the end of a run. Rows per second are measured up to the point where the last of
+     * several overlapping runs finished.
+     */
+    public void runFinished() {
+        if (activeRuns.decrementAndGet() == 0) {
+            runEndNanos.set(System.nanoTime());
+        }
+    }
+
+    /**
+     * Records the duration of a pipeline stage for one message.
+     *
+     * @param stage the pipeline stage
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordStage(Stage stage, long nanos) {
+        stageLatencies.get(stage).record(nanos);
+    }
+
+    public void recordRow() {
+        rowsProcessed.increment();
+        if (firstRowUptimeMillis.get() == 0L) {
+            firstRowUptimeMillis.compareAndSet(0L, ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Records a blank message that was neither translated nor scored.
+     */
+    public void recordBlankSkipped() {
+        blankMessagesSkipped.increment();
+    }
+
+    /**
+     * Records a message already in the target language that was scored without translation.
+     */
+    public void recordTranslationSkipped() {
+        translationsSkipped.increment();
+    }
+
+    public void taskSubmitted() {
+        tasksSubmitted.increment();
+    }
+
+    public void taskStarted() {
+        tasksStarted.increment();
+    }
+
+    public void taskFinished() {
+        tasksFinished.increment();
+    }
+
+    /**
+     * Records a cache lookup outcome for the given namespace.
+     *
+     * @param namespace the cache namespace, such as "translate" or "score"
+     * @param hit whether the value was already cached
+     */
+    public void recordCacheLookup(String namespace, boolean hit) {
+        CacheCounters counters = cacheCounters.get(namespace);
+        if (counters == null) {
+            counters = cacheCounters.computeIfAbsent(namespace, key -> new CacheCounters());
+        }
+        if (hit) {
+            counters.hits.increment();
+        } else {
+            counters.misses.increment();
+        }
+    }
+
+    /**
+     * Records a virtual thread that pinned its carrier thread.
+     *
+     * @param site the code location where the thread pinned, such as "UserStats.addMessage:34"
+     * @param nanos how long the carrier thread was pinned, in nanoseconds
+     */
+    public void recordPinning(String site, long nanos) {
+        PinningCounters counters = pinningCounters.get(site);
+        if (counters == null) {
+            counters = pinningCounters.computeIfAbsent(site, key -> new PinningCounters());
+        }
+        counters.count.increment();
+        counters.nanos.add(nanos);
+    }
+
+    /**
+     * Records a call to a downstream service.
+     *
+     * @param service the service, such as "translation" or "scoring"
+     */
+    public void recordDownstreamCall(String service) {
+        LongAdder calls = downstreamCalls.get(service);
+        if (calls == null) {
+            calls = downstreamCalls.computeIfAbsent(service, key -> new LongAdder());
+        }
+        calls.increment();
+    }
+
+    /**
+     * @param stage the pipeline stage
+     * @return the latency histogram of the stage
+     */
+    public LatencyHistogram getStageLatency(Stage stage) {
+        return stageLatencies.get(stage);
+    }
+
+    @ManagedAttribute(description = "Rows processed since startup")
+    public long getRowsProcessed() {
+        return rowsProcessed.sum();
+    }
+
+    @ManagedAttribute(description = "Milliseconds from JVM start until the first row was processed, or 0 before that")
+    public long getTimeToFirstRowMillis() {
+        return firstRowUptimeMillis.get();
+    }
+
+    @ManagedAttribute(description = "Rows that failed processing since startup")
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @ManagedAttribute(description = "Blank messages that skipped translation and scoring since startup")
+    public long getBlankMessagesSkipped() {
+        return blankMessagesSkipped.sum();
+    }
+
+    @ManagedAttribute(description = "Messages already in the target language that skipped translation since startup")
+    public long getTranslationsSkipped() {
+        return translationsSkipped.sum();
+    }
+
+    @ManagedAttribute(description = "Virtual thread pinnings recorded since startup, when pinning diagnostics are enabled")
+    public long getPinnedCount() {
+        long count = 0;
+        for (PinningCounters counters : pinningCounters.values()) {
+            count += counters.count.sum();
+        }
+        return count;
+    }
+
+    @ManagedAttribute(description = "Tasks submitted but not started yet")
+    public long getQueuedTasks() {
+        return tasksSubmitted.sum() - tasksStarted.sum();
+    }
+
+    @ManagedAttribute(description = "Tasks currently running")
+    public long getRunningTasks() {
+        return tasksStarted.sum() - tasksFinished.sum();
+    }
+
+    @ManagedAttribute(description = "Rows per second of the current or last runs")
+    public double getRowsPerSecond() {
+        long start = runStartNanos.get();
+        if (start == 0L) {
+            return 0.0;
+        }
+        long end = runEndNanos.get();
+        long elapsed = (end == 0L ? System.nanoTime() : end) - start;
+        long rows = rowsProcessed.sum() - rowsAtRunStart.get();
+        return elapsed <= 0L ? 0.0 : rows * 1_000_000_000.0 / elapsed;
+    }
+
+    @ManagedOperation(description = "Latency in microseconds of a stage (PARSE, TRANSLATE, SCORE, AGGREGATE, ROW) at a percentile")
+    public long getStageLatencyMicros(String stage, double percentile) {
+        return stageLatencies.get(Stage.valueOf(stage)).getValueAtPercentile(percentile) / 1_000L;
+    }
+
+    @ManagedOperation(description = "Calls to a downstream service (translation, scoring) since startup")
+    public long getDownstreamCalls(String service) {
+        LongAdder calls = downstreamCalls.get(service);
+        return calls == null ? 0L : calls.sum();
+    }
+
+    @ManagedOperation(description = "Cache hit ratio of a namespace, between 0.0 and 1.0")
+    public double getCacheHitRatio(String namespace) {
+        CacheCounters counters = cacheCounters.get(namespace);
+        return counters == null ? 0.0 : counters.hitRatio();
+    }
+
+    /**
+     * Builds a point-in-time view of all metrics, suitable for JSON serialization.
+     *
+     * @return nested map of metric names to values
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("rows_processed", getRowsProcessed());
+        snapshot.put("rows_per_second", getRowsPerSecond());
+        snapshot.put("time_to_first_row_millis", getTimeToFirstRowMillis());
+        snapshot.put("errors", getErrorCount());
+        snapshot.put("queued_tasks", getQueuedTasks());
+        snapshot.put("running_tasks", getRunningTasks());
+
+        Map<String, Object> fastPath = new LinkedHashMap<>();
+        fastPath.put("blank_skipped", getBlankMessagesSkipped());
+        fastPath.put("translation_skipped", getTranslationsSkipped());
+        snapshot.put("fast_path", fastPath);
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        stageLatencies.forEach((stage, histogram) -> stages.put(stage.name().toLowerCase(), histogramSnapshot(histogram)));
+        snapshot.put("stage_latency_micros", stages);
+
+        Map<String, Object> caches = new LinkedHashMap<>();
+        cacheCounters.forEach((namespace, counters) -> {
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("hits", counters.hits.sum());
+            cache.put("misses", counters.misses.sum());
+            cache.put("hit_ratio", counters.hitRatio());
+            caches.put(namespace, cache);
+        });
+        snapshot.put("cache", caches);
+
+        Map<String, Object> calls = new LinkedHashMap<>();
+        downstreamCalls.forEach((service, count) -> calls.put(service, count.sum()));
+        snapshot.put("downstream_calls", calls);
+
+        // Most frequent pinning sites first
+        Map<String, Object> pinning = new LinkedHashMap<>();
+        pinningCounters.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().count.sum(), a.getValue().count.sum()))
+                .forEach(entry -> {
+                    Map<String, Object> site = new LinkedHashMap<>();
+                    site.put("count", entry.getValue().count.sum());
+                    site.put("total_micros", entry.getValue().nanos.sum() / 1_000L);
+                    pinning.put(entry.getKey(), site);
+                });
+        snapshot.put("pinning", pinning);
+        return snapshot;
+    }
+
+    private static Map<String, Object> histogramSnapshot(LatencyHistogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getCount());
+        values.put("mean", histogram.getMean() / 1_000.0);
+        values.put("p50", histogram.getValueAtPercentile(50.0) / 1_000L);
+        values.put("p90", histogram.getValueAtPercentile(90.0) / 1_000L);
+        values.put("p99", histogram.getValueAtPercentile(99.0) / 1_000L);
+        values.put("p999", histogram.getValueAtPercentile(99.9) / 1_000L);
+        values.put("max", histogram.getMax() / 1_000L);
+        return values;
+    }
+
+    private static final class CacheCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private double hitRatio() {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }
+    }
+
+    private static final class PinningCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -0,0 +1,121 @@
+package com.jomaleda.ravenpack.interview.model;
+
+/**
+ * Fixed-width 128-bit fingerprint of a message, used as a cache key in place of the message text.
+ *
+ * <p>Computed with MurmurHash3 (x64, 128-bit variant) over the UTF-16 code units of the text, so no
+ * encoded copy of the message is allocated. The hash is fast but not cryptographic: it is meant to
+ * tell distinct messages apart, with a collision probability around 2^-64 even across billions of
+ * messages, not to resist crafted collisions.</p>
+ *
+ * <p>Immutable and thread-safe.</p>
+ */
+public final class Fingerprint {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long high;
+    private final long low;
+
+    private Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Computes the fingerprint of a text.
+     *
+     * @param text the text to fingerprint
+     * @return the fingerprint
+     */
+    public static Fingerprint of(CharSequence text) {
+        int length = text.length();
+        long h1 = 0L;
+        long h2 = 0L;
+        int blockEnd = length & ~7;
+        // Blocks of 8 chars (16 bytes) as two little-endian longs of 4 chars each
+        for (int i = 0; i < blockEnd; i += 8) {
+            long k1 = chars(text, i, 4);
+            long k2 = chars(text, i + 4, 4);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int tail = length - blockEnd;
+        if (tail > 4) {
+            h2 ^= mixK2(chars(text, blockEnd + 4, tail - 4));
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(chars(text, blockEnd, Math.min(tail, 4)));
+        }
+
+        long byteLength = 2L * length;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new Fingerprint(h1, h2);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Fingerprint fingerprint)) {
+            return false;
+        }
+        return high == fingerprint.high && low == fingerprint.low;
+    }
+
+    @Override
+    public int hashCode() {
+        // The bits are already well mixed
+        return (int) low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static long chars(CharSequence text, int from, int count) {
+        long packed = 0L;
+        for (int i = count - 1; i >= 0; i--) {
+            packed = (packed << 16) | text.charAt(from + i);
+        }
+        return packed;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,149 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving sketch that tracks the heaviest keys of a stream in fixed memory.
+ *
+ * <p>At most {@code capacity} keys are monitored. When an unmonitored key arrives and the sketch is
+ * full, it replaces the key with the smallest weight and inherits that weight as its possible
+ * overestimate. Any key whose true weight exceeds the total weight divided by the capacity is
+ * guaranteed to be monitored, and every estimate is at most its overestimate above the true weight.
+ * The monitored keys are kept in an indexed min-heap, so each update costs O(log capacity).</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public class HeavyHitterSketch {
+    private final int capacity;
+    private final String[] keys;
+    private final double[] weights;
+    private final double[] overestimates;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    /**
+     * @param capacity maximum number of monitored keys
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public HeavyHitterSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.weights = new double[capacity];
+        this.overestimates = new double[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds weight to a key. Weights of zero or less are ignored.
+     *
+     * @param key the key
+     * @param weight the weight to add
+     */
+    public synchronized void add(String key, double weight) {
+        if (!(weight > 0.0)) {
+            return;
+        }
+        Integer position = positions.get(key);
+        if (position != null) {
+            weights[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            keys[size] = key;
+            weights[size] = weight;
+            overestimates[size] = 0.0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            double minimum = weights[0];
+            positions.remove(keys[0]);
+            keys[0] = key;
+            weights[0] = minimum + weight;
+            overestimates[0] = minimum;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the heaviest monitored keys, heaviest first. Only the monitored keys are sorted,
+     * never the whole key space.
+     *
+     * @param k maximum number of keys to return
+     * @return up to k heavy hitters
+     */
+    public synchronized List<HeavyHitter> top(int k) {
+        List<HeavyHitter> hitters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hitters.add(new HeavyHitter(keys[i], weights[i], overestimates[i]));
+        }
+        hitters.sort(Comparator.comparingDouble(HeavyHitter::getEstimate).reversed()
+                .thenComparing(HeavyHitter::getKey));
+        return hitters.size() > k ? new ArrayList<>(hitters.subList(0, k)) : hitters;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (weights[parent] <= weights[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && weights[left] < weights[smallest]) {
+                smallest = left;
+            }
+            if (right < size && weights[right] < weights[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        double weight = weights[a];
+        weights[a] = weights[b];
+        weights[b] = weight;
+        double overestimate = overestimates[a];
+        overestimates[a] = overestimates[b];
+        overestimates[b] = overestimate;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+
+    /**
+     * A monitored key with its estimated weight, which exceeds the true weight by at most the overestimate.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class HeavyHitter {
+        private final String key;
+        private final double estimate;
+        private final double overestimate;
+    }
+}
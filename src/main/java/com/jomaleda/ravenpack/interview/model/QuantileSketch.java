@@ -0,0 +1,240 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Mergeable quantile sketch with a relative accuracy guarantee and a fixed maximum size, in the style of DDSketch.
+ *
+ * <p>Positive values are counted in logarithmic buckets, so any quantile is returned within the
+ * relative accuracy of the true value. At most {@code maxBins} buckets are kept; when values span
+ * a wider range, the lowest buckets are collapsed into one, which only degrades the accuracy of the
+ * lowest quantiles. Zero and smaller values share a dedicated bucket. Two sketches with the same
+ * parameters merge by adding their bucket counts, whatever the order of the values.</p>
+ *
+ * <p>Not thread-safe; {@link UserStats} guards its sketch with its own lock.</p>
+ */
+public final class QuantileSketch {
+    private static final double MIN_INDEXABLE_VALUE = 1e-9;
+    private static final int[] NO_BINS = new int[0];
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+    private int[] bins = NO_BINS;
+    private int minIndex;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param relativeAccuracy maximum relative error of the returned quantiles, between 0 and 1 exclusive
+     * @param maxBins maximum number of buckets kept
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0.0 || relativeAccuracy >= 1.0 || maxBins < 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1) and max bins positive");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1.0 + relativeAccuracy) / (1.0 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = maxBins;
+    }
+
+    /**
+     * Adds a value. NaN values are ignored.
+     *
+     * @param value the value to add
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            increment(index(value), 1);
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another sketch to this one.
+     *
+     * @param other the sketch to merge, left unchanged
+     * @throws IllegalArgumentException if the sketches have different parameters
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy || other.maxBins != maxBins) {
+            throw new IllegalArgumentException("Cannot merge sketches with different parameters");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (other.bins.length > 0) {
+            int otherMax = other.minIndex + other.bins.length - 1;
+            if (bins.length == 0) {
+                bins = new int[1];
+                minIndex = otherMax;
+            }
+            int newMax = Math.max(minIndex + bins.length - 1, otherMax);
+            int newMin = Math.max(Math.min(minIndex, other.minIndex), newMax - maxBins + 1);
+            resize(newMin, newMax);
+            for (int k = 0; k < other.bins.length; k++) {
+                bins[Math.max(other.minIndex + k, minIndex) - minIndex] += other.bins[k];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the value at the given quantile, by nearest rank.
+     *
+     * @param quantile the quantile, between 0.0 and 1.0
+     * @return the approximate value, or NaN if the sketch is empty
+     * @throws IllegalArgumentException if the quantile is out of range
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("Quantile must be between 0.0 and 1.0");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile == 0.0) {
+            return min;
+        }
+        if (quantile == 1.0) {
+            return max;
+        }
+        // Nearest rank: the smallest value with at least quantile * count values at or below it
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = zeroCount;
+        if (rank <= seen) {
+            return Math.min(Math.max(min, 0.0), max);
+        }
+        for (int k = 0; k < bins.length; k++) {
+            seen += bins[k];
+            if (rank <= seen) {
+                return clamp(value(minIndex + k));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of buckets currently allocated, at most the configured maximum
+     */
+    public int getBinCount() {
+        return bins.length;
+    }
+
+    /**
+     * @return an independent copy of this sketch
+     */
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(relativeAccuracy, maxBins);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Writes the sketch in a compact binary form, for example to spill partial aggregates to disk.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(relativeAccuracy);
+        out.writeInt(maxBins);
+        out.writeLong(zeroCount);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(minIndex);
+        out.writeInt(bins.length);
+        for (int bin : bins) {
+            out.writeInt(bin);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the sketch
+     * @throws IOException if reading fails
+     */
+    public static QuantileSketch readFrom(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch(in.readDouble(), in.readInt());
+        sketch.zeroCount = in.readLong();
+        sketch.count = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.minIndex = in.readInt();
+        int length = in.readInt();
+        if (length < 0 || length > sketch.maxBins) {
+            throw new IOException("Corrupt quantile sketch");
+        }
+        sketch.bins = length == 0 ? NO_BINS : new int[length];
+        for (int k = 0; k < length; k++) {
+            sketch.bins[k] = in.readInt();
+        }
+        return sketch;
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double value(int index) {
+        // Bucket i holds (gamma^(i-1), gamma^i]; this value is within the relative accuracy of both bounds.
+        return 2.0 * Math.pow(gamma, index) / (gamma + 1.0);
+    }
+
+    private double clamp(double value) {
+        return Math.min(Math.max(value, min), max);
+    }
+
+    private void increment(int index, int amount) {
+        if (bins.length == 0) {
+            bins = new int[1];
+            minIndex = index;
+        } else if (index < minIndex) {
+            int lowest = Math.max(index, minIndex + bins.length - maxBins);
+            resize(lowest, minIndex + bins.length - 1);
+            index = Math.max(index, lowest);
+        } else if (index >= minIndex + bins.length) {
+            resize(Math.max(minIndex, index - maxBins + 1), index);
+        }
+        bins[index - minIndex] += amount;
+    }
+
+    /**
+     * Re-allocates the buckets to cover [newMin, newMax]; buckets below newMin are collapsed into the lowest one.
+     */
+    private void resize(int newMin, int newMax) {
+        if (newMin == minIndex && newMax == minIndex + bins.length - 1) {
+            return;
+        }
+        int[] resized = new int[newMax - newMin + 1];
+        for (int k = 0; k < bins.length; k++) {
+            resized[Math.max(minIndex + k, newMin) - newMin] += bins[k];
+        }
+        bins = resized;
+        minIndex = newMin;
+    }
+}
@@ -0,0 +1,231 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random sample of the scores of one user's messages, of at most a fixed size, together with
+ * the exact number of messages seen (reservoir sampling, Algorithm R).
+ *
+ * <p>The reservoir decides whether a message enters the sample before it is scored, so only sampled
+ * messages cost a scoring call: all of the first {@code capacity} messages, then message k with
+ * probability capacity / k, replacing a random slot. That is about capacity * (1 + ln(n / capacity))
+ * scores for n messages. A score arrives later than its admission and may belong to a message that
+ * has been replaced in the meantime; each admission therefore gets a ticket, and the score of a
+ * replaced message is ignored. A slot whose score never arrives, for example after an error, stays
+ * out of the sample.</p>
+ *
+ * <p>The slots grow with the number of messages, so users with few messages take little memory.
+ * Thread-safe.</p>
+ */
+public class ScoreReservoir {
+    /**
+     * Returned by {@link #offer(RandomGenerator)} for a message left out of the sample.
+     */
+    public static final long REJECTED = -1L;
+    private static final int INITIAL_SLOTS = 4;
+
+    private final int capacity;
+    private long totalMessages;
+    private float[] scores = new float[0];
+    private int[] generations = new int[0];
+
+    /**
+     * @param capacity maximum sample size
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ScoreReservoir(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Counts a message and decides whether it enters the sample.
+     *
+     * @param random source of randomness
+     * @return the ticket to pass to {@link #record(long, float)} with the score of the message,
+     *         or {@link #REJECTED} if the message is not sampled and need not be scored
+     */
+    public synchronized long offer(RandomGenerator random) {
+        totalMessages++;
+        int slot;
+        if (totalMessages <= capacity) {
+            slot = (int) totalMessages - 1;
+            if (slot == scores.length) {
+                grow();
+            }
+        } else {
+            long candidate = random.nextLong(totalMessages);
+            if (candidate >= capacity) {
+                return REJECTED;
+            }
+            slot = (int) candidate;
+        }
+        // The replaced score leaves the sample now; the new one joins it when it arrives
+        scores[slot] = Float.NaN;
+        int generation = ++generations[slot];
+        return ((long) generation << 32) | slot;
+    }
+
+    /**
+     * Records the score of a sampled message, unless the message has been replaced since.
+     *
+     * @param ticket the ticket returned when the message was offered
+     * @param score the score of the message
+     */
+    public synchronized void record(long ticket, float score) {
+        int slot = (int) ticket;
+        if (generations[slot] == (int) (ticket >>> 32)) {
+            scores[slot] = score;
+        }
+    }
+
+    /**
+     * @return number of messages offered, sampled or not
+     */
+    public synchronized long getTotalMessages() {
+        return totalMessages;
+    }
+
+    /**
+     * @return number of scores in the sample
+     */
+    public synchronized int getSampleSize() {
+        int size = 0;
+        for (int i = 0; i < filledSlots(); i++) {
+            if (!Float.isNaN(scores[i])) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return mean score of the sample, an unbiased estimate of the mean of all messages, or 0 if the sample is empty
+     */
+    public synchronized float getMean() {
+        double sum = 0.0;
+        int size = 0;
+        for (int i = 0; i < filledSlots(); i++) {
+            if (!Float.isNaN(scores[i])) {
+                sum += scores[i];
+                size++;
+            }
+        }
+        return size == 0 ? 0.0f : (float) (sum / size);
+    }
+
+    /**
+     * Returns the half-width of the confidence interval of the mean, from the sample standard
+     * deviation with the finite population correction. It is 0 when every message is in the sample.
+     *
+     * @param z the standard normal quantile of the confidence level, such as 1.96 for 95%
+     * @return the margin of error of {@link #getMean()}, or NaN if fewer than two scores were sampled from more messages
+     */
+    public synchronized float getMarginOfError(double z) {
+        int size = getSampleSize();
+        if (size >= totalMessages) {
+            return 0.0f;
+        }
+        if (size < 2) {
+            return Float.NaN;
+        }
+        double mean = getMean();
+        double squares = 0.0;
+        for (int i = 0; i < filledSlots(); i++) {
+            if (!Float.isNaN(scores[i])) {
+                double deviation = scores[i] - mean;
+                squares += deviation * deviation;
+            }
+        }
+        double variance = squares / (size - 1);
+        double populationCorrection = (double) (totalMessages - size) / (totalMessages - 1);
+        return (float) (z * Math.sqrt(variance / size * populationCorrection));
+    }
+
+    /**
+     * @param quantile the quantile, between 0.0 and 1.0
+     * @return the score at the quantile of the sample (nearest rank), or NaN if the sample is empty
+     */
+    public synchronized float getQuantile(double quantile) {
+        float[] sorted = sortedSample();
+        if (sorted.length == 0) {
+            return Float.NaN;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    /**
+     * @param threshold the lowest score counted
+     * @return share of the sample scoring at least the threshold, or 0 if the sample is empty
+     */
+    public synchronized double getShareAtLeast(double threshold) {
+        int size = 0;
+        int atLeast = 0;
+        for (int i = 0; i < filledSlots(); i++) {
+            if (!Float.isNaN(scores[i])) {
+                size++;
+                if (scores[i] >= threshold) {
+                    atLeast++;
+                }
+            }
+        }
+        return size == 0 ? 0.0 : (double) atLeast / size;
+    }
+
+    /**
+     * Returns the standard normal quantile for a two-sided confidence level, using the rational
+     * approximation of Acklam (relative error below 1.2e-9).
+     *
+     * @param confidence the confidence level, between 0.0 and 1.0 exclusive, such as 0.95
+     * @return the z value, such as 1.96 for 0.95
+     * @throws IllegalArgumentException if the confidence level is out of range
+     */
+    public static double zScore(double confidence) {
+        if (!(confidence > 0.0 && confidence < 1.0)) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1: " + confidence);
+        }
+        // Upper quantile of the standard normal distribution at 1 - (1 - confidence) / 2
+        double p = 1.0 - (1.0 - confidence) / 2.0;
+        double q;
+        if (p > 0.97575) {
+            q = Math.sqrt(-2.0 * Math.log(1.0 - p));
+            return -(((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                    - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                    + 3.754408661907416e+00) * q + 1.0);
+        }
+        q = p - 0.5;
+        double r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1.0);
+    }
+
+    private int filledSlots() {
+        return (int) Math.min(totalMessages, scores.length);
+    }
+
+    private float[] sortedSample() {
+        float[] sample = new float[filledSlots()];
+        int size = 0;
+        for (int i = 0; i < filledSlots(); i++) {
+            if (!Float.isNaN(scores[i])) {
+                sample[size++] = scores[i];
+            }
+        }
+        sample = Arrays.copyOf(sample, size);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    private void grow() {
+        int slots = Math.min(capacity, Math.max(INITIAL_SLOTS, scores.length * 2));
+        scores = Arrays.copyOf(scores, slots);
+        generations = Arrays.copyOf(generations, slots);
+    }
+}
@@ -1,17 +1,64 @@
 package com.jomaleda.ravenpack.interview.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-@AllArgsConstructor
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class UserStats {
     @Getter
     private int totalMessages;
     private double scoreSum;
+    private final QuantileSketch sketch;
+
+    public UserStats(int totalMessages, double scoreSum) {
+        this(totalMessages, scoreSum, null);
+    }
+
+    /**
+     * Creates statistics that also track the score distribution in the given sketch.
+     *
+     * @param totalMessages the initial number of messages
+     * @param scoreSum the initial sum of scores
+     * @param sketch the sketch receiving every added score, or null to track count and sum only
+     */
+    public UserStats(int totalMessages, double scoreSum, QuantileSketch sketch) {
+        this.totalMessages = totalMessages;
+        this.scoreSum = scoreSum;
+        this.sketch = sketch;
+    }
 
     public synchronized void addMessage(double score) {
         this.totalMessages++;
         this.scoreSum += score;
+        if (sketch != null) {
+            sketch.add(score);
+        }
+    }
+
+    /**
+     * Adds the messages and scores of another instance to this one.
+     * The score distributions are merged when both instances track one.
+     *
+     * @param other the statistics to merge, left unchanged
+     */
+    public void merge(UserStats other) {
+        int otherMessages;
+        double otherScoreSum;
+        QuantileSketch otherSketch;
+        synchronized (other) {
+            otherMessages = other.totalMessages;
+            otherScoreSum = other.scoreSum;
+            otherSketch = sketch != null && other.sketch != null ? other.sketch.copy() : null;
+        }
+        synchronized (this) {
+            this.totalMessages += otherMessages;
+            this.scoreSum += otherScoreSum;
+            if (otherSketch != null) {
+                sketch.merge(otherSketch);
+            }
+        }
     }
 
     public float getAverageScore() {
@@ -20,4 +67,41 @@ public class UserStats {
         }
         return (float) (scoreSum / totalMessages);
     }
+
+    /**
+     * @param quantile the quantile, between 0.0 and 1.0
+     * @return the approximate score at the quantile, or NaN if no distribution is tracked or no score was added
+     */
+    public synchronized float getScoreQuantile(double quantile) {
+        return sketch == null ? Float.NaN : (float) sketch.getQuantile(quantile);
+    }
+
+    /**
+     * Writes the statistics in a compact binary form, for example to spill partial aggregates to disk.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeInt(totalMessages);
+        out.writeDouble(scoreSum);
+        out.writeBoolean(sketch != null);
+        if (sketch != null) {
+            sketch.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads statistics written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the statistics
+     * @throws IOException if reading fails
+     */
+    public static UserStats readFrom(DataInput in) throws IOException {
+        int totalMessages = in.readInt();
+        double scoreSum = in.readDouble();
+        QuantileSketch sketch = in.readBoolean() ? QuantileSketch.readFrom(in) : null;
+        return new UserStats(totalMessages, scoreSum, sketch);
+    }
 }
@@ -0,0 +1,160 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads "user_id,message" rows straight from the bytes of a UTF-8 file, finding line ends and
+ * commas with a {@link DelimiterScanner}, so only the user ID and the message of each row are ever
+ * decoded into strings.
+ *
+ * <p>Rows are parsed like {@code CsvService.parseLine}: the user ID is everything before the first
+ * comma and the message everything after it, both trimmed, with one pair of surrounding quotes
+ * removed from the message. Lines end with "\n", "\r\n" or a lone "\r", as with {@code Files.lines}. Malformed UTF-8 is replaced rather than rejected.</p>
+ *
+ * <p>Not thread-safe. Wrapping the stream in a buffer is unnecessary; the reader has its own.</p>
+ */
+public final class CsvRowReader implements Iterator<InputMessage>, Closeable {
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+
+    private final InputStream in;
+    private final DelimiterScanner scanner;
+    private final LongConsumer parseNanos;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private int scanned;
+    private boolean endOfInput;
+    private InputMessage next;
+
+    /**
+     * @param in the bytes of the file, closed with the reader
+     * @param bufferBytes initial size of the read buffer; it grows for longer lines
+     * @param scanner the scanner finding line ends and commas
+     * @param parseNanos receives the time spent finding and decoding each row, excluding reads
+     */
+    public CsvRowReader(InputStream in, int bufferBytes, DelimiterScanner scanner, LongConsumer parseNanos) {
+        this.in = in;
+        this.scanner = scanner;
+        this.parseNanos = parseNanos;
+        this.buffer = new byte[Math.max(64, bufferBytes)];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public InputMessage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        InputMessage row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private InputMessage readRow() throws IOException {
+        while (true) {
+            long start = System.nanoTime();
+            int end = scanner.indexOfAny(buffer, scanned, limit, LINE_FEED, CARRIAGE_RETURN);
+            if (end >= 0 && end == limit - 1 && buffer[end] == CARRIAGE_RETURN && !endOfInput) {
+                // A line feed may follow in the next read; scan the carriage return again then
+                scanned = end;
+                fill();
+                continue;
+            }
+            if (end >= 0 || (endOfInput && position < limit)) {
+                int next = limit;
+                if (end >= 0) {
+                    next = buffer[end] == CARRIAGE_RETURN && end + 1 < limit && buffer[end + 1] == LINE_FEED ? end + 2 : end + 1;
+                } else {
+                    end = limit;
+                }
+                InputMessage row = parse(position, end);
+                position = next;
+                scanned = position;
+                parseNanos.accept(System.nanoTime() - start);
+                return row;
+            }
+            if (endOfInput) {
+                return null;
+            }
+            scanned = limit; // No line end up to here; scan only the new bytes after the read
+            fill();
+        }
+    }
+
+    /**
+     * Reads more bytes after the unread ones, moving them to the start of the buffer first and
+     * growing the buffer when a single line fills it.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            scanned -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private InputMessage parse(int from, int end) {
+        int comma = scanner.indexOf(buffer, from, end, COMMA);
+        if (comma < 0) {
+            return new InputMessage(decodeTrimmed(from, end, false), "");
+        }
+        return new InputMessage(decodeTrimmed(from, comma, false), decodeTrimmed(comma + 1, end, true));
+    }
+
+    /**
+     * Decodes a range without the leading and trailing bytes that {@link String#trim()} would remove.
+     */
+    private String decodeTrimmed(int from, int end, boolean unquote) {
+        while (from < end && (buffer[from] & 0xff) <= ' ') {
+            from++;
+        }
+        while (end > from && (buffer[end - 1] & 0xff) <= ' ') {
+            end--;
+        }
+        if (unquote && end - from > 1 && buffer[from] == QUOTE && buffer[end - 1] == QUOTE) {
+            from++;
+            end--;
+        }
+        return new String(buffer, from, end - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+/**
+ * Finds delimiter bytes, such as the line feed and the comma of CSV rows, in a byte array.
+ * See {@link DelimiterScanners#fastest()} for the implementation to use.
+ */
+public interface DelimiterScanner {
+
+    /**
+     * @param bytes the bytes to scan
+     * @param from first index to scan, inclusive
+     * @param to last index to scan, exclusive
+     * @param delimiter the byte to find
+     * @return index of the first occurrence of the delimiter in the range, or -1 if there is none
+     */
+    int indexOf(byte[] bytes, int from, int to, byte delimiter);
+
+    /**
+     * @param bytes the bytes to scan
+     * @param from first index to scan, inclusive
+     * @param to last index to scan, exclusive
+     * @param first one of the bytes to find
+     * @param second the other byte to find
+     * @return index of the first occurrence of either byte in the range, or -1 if there is none
+     */
+    int indexOfAny(byte[] bytes, int from, int to, byte first, byte second);
+
+    /**
+     * @return short name of the implementation, for logs and benchmarks
+     */
+    String name();
+}
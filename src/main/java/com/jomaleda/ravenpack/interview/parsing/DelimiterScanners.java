@@ -0,0 +1,47 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chooses the delimiter scanner for the running JVM.
+ */
+@Slf4j
+public final class DelimiterScanners {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_SCANNER = "com.jomaleda.ravenpack.interview.parsing.VectorDelimiterScanner";
+
+    private DelimiterScanners() {
+    }
+
+    /**
+     * Returns the SIMD scanner when the {@code jdk.incubator.vector} module is available, which
+     * requires starting the JVM with {@code --add-modules jdk.incubator.vector}, and the scalar scanner otherwise.
+     *
+     * @return the fastest scanner available, created once
+     */
+    public static DelimiterScanner fastest() {
+        return Holder.FASTEST;
+    }
+
+    /**
+     * Loads the vector scanner reflectively, so no class of the incubator module is ever resolved when the module is missing.
+     */
+    private static DelimiterScanner create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("Module {} not available, scanning delimiters with scalar code", VECTOR_MODULE);
+            return new ScalarDelimiterScanner();
+        }
+        try {
+            DelimiterScanner scanner = (DelimiterScanner) Class.forName(VECTOR_SCANNER).getDeclaredConstructor().newInstance();
+            log.info("Scanning delimiters with {}", scanner.name());
+            return scanner;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector API unusable, scanning delimiters with scalar code: {}", e.toString());
+            return new ScalarDelimiterScanner();
+        }
+    }
+
+    private static final class Holder {
+        private static final DelimiterScanner FASTEST = create();
+    }
+}
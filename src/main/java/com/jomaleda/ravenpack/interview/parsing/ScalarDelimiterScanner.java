@@ -0,0 +1,32 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+/**
+ * Scans one byte at a time. Used when the Vector API is not available.
+ */
+public final class ScalarDelimiterScanner implements DelimiterScanner {
+
+    @Override
+    public int indexOf(byte[] bytes, int from, int to, byte delimiter) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfAny(byte[] bytes, int from, int to, byte first, byte second) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == first || bytes[i] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -1,29 +1,61 @@
 package com.jomaleda.ravenpack.interview.service;
 
-import org.springframework.stereotype.Service;
-import java.util.concurrent.ConcurrentHashMap;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+
 import java.util.function.Function;
 
 /**
- * Generic cache service for storing key-value pairs in memory.
- * Provides thread-safe caching operations using ConcurrentHashMap.
+ * Cache of computed values, such as translations and scores, so that duplicate messages
+ * (e.g. spam) do not cost another call to the downstream services.
  * Used by services like ScoringService and TranslationService to avoid code duplication.
+ *
+ * <p>Implementations are thread-safe. {@link InMemoryCacheService} keeps the values in this JVM and
+ * {@link RespCacheService} on a server speaking the Redis protocol, shared by several JVMs. The
+ * backend is selected with {@code moderation.cache.backend}.</p>
  */
-@Service
-public class CacheService {
-    private final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<>();
+public interface CacheService extends AutoCloseable {
 
     /**
      * Computes a value for the given key if not already present in cache.
-     * Thread-safe operation that ensures the supplier is called only once per key.
      *
      * @param <T> the type of the cached value
      * @param key the cache key
      * @param supplier function to compute the value if key is absent
      * @return the cached or computed value
      */
-    @SuppressWarnings("unchecked")
-    public <T> T computeIfAbsent(String key, Function<String, T> supplier) {
-        return (T) cache.computeIfAbsent(key, supplier);
+    <T> T computeIfAbsent(String key, Function<String, T> supplier);
+
+    /**
+     * Computes a value for the given key within a namespace if not already present in cache.
+     * Hits and misses are recorded per namespace in the pipeline metrics.
+     *
+     * @param <T> the type of the cached value
+     * @param namespace the cache namespace, such as "translate" or "score"
+     * @param key the cache key, unique within the namespace
+     * @param supplier function to compute the value from the key if it is absent
+     * @return the cached or computed value
+     */
+    <T> T computeIfAbsent(String namespace, String key, Function<String, T> supplier);
+
+    /**
+     * Computes a value for the given key within a namespace if not already present in cache, keyed by
+     * the fingerprint of the key instead of the key itself. The cache then holds a fixed-width key per
+     * entry whatever the key length. Hits and misses are recorded per namespace in the pipeline metrics.
+     *
+     * @param <T> the type of the cached value
+     * @param namespace the cache namespace, such as "translate" or "score"
+     * @param fingerprint the fingerprint identifying the entry within the namespace
+     * @param key the key the value is computed from, not stored
+     * @param supplier function to compute the value from the key if it is absent
+     * @return the cached or computed value
+     */
+    <T> T computeIfAbsent(String namespace, Fingerprint fingerprint, String key, Function<String, T> supplier);
+
+    /**
+     * Releases the resources of the backend, such as its connections. Does nothing by default.
+     * Declared here so that the context closes the bean whatever its backend.
+     */
+    @Override
+    default void close() {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global concurrency budget shared by every file processed in the JVM.
+ *
+ * <p>The global limit bounds the number of messages being translated and scored at the same time,
+ * which bounds the total call rate to the downstream services. Each file additionally gets its own
+ * window of outstanding messages, so a large file cannot fill the global queue and small files
+ * processed alongside it still get a fair share of the budget. A limit of 0 or less disables it.</p>
+ */
+@Component
+public class ConcurrencyBudget {
+    private final Semaphore inFlight;
+    private final int perFileWindow;
+
+    public ConcurrencyBudget(ModerationProperties properties) {
+        int maxInFlight = properties.getConcurrency().getMaxInFlight();
+        this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+        this.perFileWindow = properties.getConcurrency().getPerFileWindow();
+    }
+
+    /**
+     * Takes a slot of the global budget, waiting until one is free.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void acquire() throws InterruptedException {
+        if (inFlight != null) {
+            inFlight.acquire();
+        }
+    }
+
+    /**
+     * Returns a slot previously taken with {@link #acquire()}.
+     */
+    public void release() {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * @return number of free slots in the global budget, or -1 if it is unlimited
+     */
+    public int availableSlots() {
+        return inFlight == null ? -1 : inFlight.availablePermits();
+    }
+
+    /**
+     * Opens the window of outstanding messages for a new file.
+     *
+     * @return the window, to be used by a single file only
+     */
+    public FileWindow openFileWindow() {
+        return new FileWindow(perFileWindow > 0 ? new Semaphore(perFileWindow) : null);
+    }
+
+    /**
+     * Bounds the number of messages of one file that are submitted but not finished yet.
+     */
+    public static final class FileWindow {
+        private final Semaphore outstanding;
+
+        private FileWindow(Semaphore outstanding) {
+            this.outstanding = outstanding;
+        }
+
+        /**
+         * Waits until the file may submit another message.
+         *
+         * @throws InterruptedException if the waiting thread is interrupted
+         */
+        public void acquire() throws InterruptedException {
+            if (outstanding != null) {
+                outstanding.acquire();
+            }
+        }
+
+        /**
+         * Waits at most the given time until the file may submit another message.
+         *
+         * @param timeout the maximum time to wait
+         * @param unit the unit of the timeout
+         * @return true if the message may be submitted, false if the time ran out first
+         * @throws InterruptedException if the waiting thread is interrupted
+         */
+        public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+            return outstanding == null || outstanding.tryAcquire(timeout, unit);
+        }
+
+        /**
+         * Signals that a submitted message of the file has finished.
+         */
+        public void release() {
+            if (outstanding != null) {
+                outstanding.release();
+            }
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
 import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.dto.TopUserReport;
 import com.jomaleda.ravenpack.interview.dto.UserReport;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.parsing.CsvRowReader;
+import com.jomaleda.ravenpack.interview.parsing.DelimiterScanners;
 import com.opencsv.CSVWriter;
-import com.opencsv.bean.StatefulBeanToCsv;
-import com.opencsv.bean.StatefulBeanToCsvBuilder;
-import com.opencsv.exceptions.CsvDataTypeMismatchException;
-import com.opencsv.exceptions.CsvRequiredFieldEmptyException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.io.Closeable;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service for handling CSV file operations with security validation.
@@ -26,11 +35,22 @@ import java.util.stream.Stream;
  * Uses OpenCSV library for parsing and generating CSV files with proper resource management.</p>
  */
 @Service
+@RequiredArgsConstructor
 public class CsvService {
-    private final Path allowedDirectory = Paths.get("data");
+    /**
+     * Report header, in the alphabetical upper-case order that the OpenCSV bean writer used to produce.
+     */
+    private static final String[] REPORT_HEADER = {"AVG_SCORE", "TOTAL_MESSAGES", "USER_ID"};
+    private static final String COMPLETE_COLUMN = "COMPLETE";
+
+    private final PipelineMetrics metrics;
+    private final ModerationProperties properties;
 
     /**
      * Reads messages from a CSV file and returns them as a stream.
+     * Lines are read and parsed lazily as the stream is consumed, so files of any size can be
+     * processed with a bounded heap. The stream must be closed to release the file.
+     * With {@code moderation.parser.vectorized}, rows are parsed straight from the bytes of the file.
      * 
      * @param filePath the path to the input CSV file (must be within 'data' directory)
      * @return a stream of InputMessage objects parsed from the CSV
@@ -38,17 +58,44 @@ public class CsvService {
      * @throws SecurityException if file path is outside allowed directory
      */
     public Stream<InputMessage> readMessages(String filePath) throws IOException {
-        Path validatedPath = validatePath(filePath);
-        try (var reader = Files.newBufferedReader(validatedPath)) {
-            return reader.lines()
-                    .skip(1) // Skip header
-                    .map(this::parseLineManually)
-                    .filter(msg -> msg.getUserId() != null && !msg.getUserId().trim().isEmpty())
-                    .collect(java.util.stream.Collectors.toList())
-                    .stream();
-        }
+        Path validatedPath = PathValidator.validate(filePath);
+        Stream<InputMessage> rows = properties.getParser().isVectorized()
+                ? readRows(validatedPath).skip(1) // Skip header
+                : Files.lines(validatedPath).skip(1).map(this::parseLine);
+        return rows.filter(msg -> msg.getUserId() != null && !msg.getUserId().trim().isEmpty());
+    }
+
+    /**
+     * Reads rows from the bytes of the file, scanning for delimiters with SIMD instructions when the
+     * Vector API is available and with scalar code otherwise.
+     */
+    private Stream<InputMessage> readRows(Path path) throws IOException {
+        CsvRowReader reader = new CsvRowReader(Files.newInputStream(path), properties.getParser().getBufferBytes(),
+                DelimiterScanners.fastest(), nanos -> metrics.recordStage(PipelineMetrics.Stage.PARSE, nanos));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
     }
     
+    /**
+     * Parses a CSV line and records the parse duration in the pipeline metrics.
+     * Used for rows read from files as well as rows arriving on a stream.
+     *
+     * @param line the CSV line to parse
+     * @return the parsed InputMessage
+     */
+    public InputMessage parseLine(String line) {
+        long start = System.nanoTime();
+        InputMessage message = parseLineManually(line);
+        metrics.recordStage(PipelineMetrics.Stage.PARSE, System.nanoTime() - start);
+        return message;
+    }
+
     /**
      * Parses a CSV line manually to handle malformed data where commas in message content are not properly quoted.
      * Splits on the first comma to separate user_id from message, treating everything after as message content.
@@ -74,6 +121,8 @@ public class CsvService {
 
     /**
      * Writes user reports to a CSV file.
+     * Rows are written directly instead of through the reflection-based OpenCSV bean mapping,
+     * which keeps class loading and annotation introspection off the startup path.
      * 
      * @param filePath the path where the output CSV file will be created (must be within 'data' directory)
      * @param reports the list of UserReport objects to write
@@ -81,36 +130,200 @@ public class CsvService {
      * @throws SecurityException if file path is outside allowed directory
      */
     public void writeReports(String filePath, List<UserReport> reports) {
-        Path validatedPath = validatePath(filePath);
-        try (Writer writer = new FileWriter(validatedPath.toFile())) {
-            StatefulBeanToCsv<UserReport> beanToCsv = new StatefulBeanToCsvBuilder<UserReport>(writer)
-                    .withQuotechar(CSVWriter.NO_QUOTE_CHARACTER)
-                    .build();
-            beanToCsv.write(reports);
-        } catch (IOException | CsvDataTypeMismatchException | CsvRequiredFieldEmptyException e) {
-            throw new RuntimeException("Failed to write output CSV file", e);
+        writeReports(filePath, reports, List.of());
+    }
+
+    /**
+     * Writes user reports to a CSV file, with one score column per quantile after the standard columns,
+     * such as "P50" and "P95" for the quantiles 0.5 and 0.95.
+     *
+     * @param filePath the path where the output CSV file will be created (must be within 'data' directory)
+     * @param reports the list of UserReport objects to write, with one score per quantile
+     * @param quantiles the quantiles of the score columns, possibly empty
+     * @throws RuntimeException if file writing fails
+     * @throws SecurityException if file path is outside allowed directory
+     */
+    public void writeReports(String filePath, List<UserReport> reports, List<Double> quantiles) {
+        try (ReportWriter writer = openReportWriter(filePath, quantiles)) {
+            for (UserReport report : reports) {
+                writer.write(report);
+            }
         }
     }
 
+    /**
+     * Opens a report CSV file for writing reports one at a time, for reports too large to hold in memory.
+     * Uses the same columns as {@link #writeReports(String, List, List)}.
+     *
+     * @param filePath the path where the output CSV file will be created (must be within 'data' directory)
+     * @param quantiles the quantiles of the score columns, possibly empty
+     * @return the writer, to be closed once every report has been written
+     * @throws RuntimeException if the file cannot be created
+     * @throws SecurityException if file path is outside allowed directory
+     */
+    public ReportWriter openReportWriter(String filePath, List<Double> quantiles) {
+        return openReportWriter(filePath, quantiles, false);
+    }
 
     /**
-     * Validates and normalizes the file path to prevent path traversal attacks.
-     * Ensures the path is within the allowed 'data' directory.
-     * 
-     * @param filePath the file path to validate
-     * @return the normalized and validated Path object
-     * @throws SecurityException if the path is outside the allowed directory
+     * Opens a report CSV file for writing reports one at a time, optionally with a last COMPLETE column
+     * telling for each user whether all of their messages were processed, for partial reports.
+     *
+     * @param filePath the path where the output CSV file will be created (must be within 'data' directory)
+     * @param quantiles the quantiles of the score columns, possibly empty
+     * @param completeColumn whether to add the COMPLETE column
+     * @return the writer, to be closed once every report has been written
+     * @throws RuntimeException if the file cannot be created
+     * @throws SecurityException if file path is outside allowed directory
      */
-    private Path validatePath(String filePath) {
+    public ReportWriter openReportWriter(String filePath, List<Double> quantiles, boolean completeColumn) {
+        return openReportWriter(filePath, quantiles, null, completeColumn);
+    }
+
+    /**
+     * Opens a report CSV file for writing reports one at a time, optionally with a column of the
+     * margin of error of the average score after the quantile columns, for reports estimated from a
+     * sample, and a last COMPLETE column, for partial reports.
+     *
+     * @param filePath the path where the output CSV file will be created (must be within 'data' directory)
+     * @param quantiles the quantiles of the score columns, possibly empty
+     * @param marginColumn the header of the margin of error column, such as "AVG_SCORE_CI95", or null for none
+     * @param completeColumn whether to add the COMPLETE column
+     * @return the writer, to be closed once every report has been written
+     * @throws RuntimeException if the file cannot be created
+     * @throws SecurityException if file path is outside allowed directory
+     */
+    public ReportWriter openReportWriter(String filePath, List<Double> quantiles, String marginColumn,
+                                         boolean completeColumn) {
+        Path validatedPath = PathValidator.validate(filePath);
+        List<String> header = new ArrayList<>(Arrays.asList(REPORT_HEADER));
+        for (Double quantile : quantiles) {
+            header.add(quantileColumn(quantile));
+        }
+        if (marginColumn != null) {
+            header.add(marginColumn);
+        }
+        if (completeColumn) {
+            header.add(COMPLETE_COLUMN);
+        }
         try {
-            Path path = Paths.get(filePath).normalize().toAbsolutePath();
-            Path allowedAbsolute = allowedDirectory.toAbsolutePath().normalize();
-            if (!path.startsWith(allowedAbsolute)) {
-                throw new SecurityException("Invalid file path");
+            CSVWriter csvWriter = new CSVWriter(new FileWriter(validatedPath.toFile()), CSVWriter.DEFAULT_SEPARATOR,
+                    CSVWriter.NO_QUOTE_CHARACTER, CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END);
+            csvWriter.writeNext(header.toArray(new String[0]), false);
+            return new ReportWriter(csvWriter, new String[header.size()], quantiles.size(), marginColumn != null);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write output CSV file", e);
+        }
+    }
+
+    /**
+     * Writes the ranking of the worst offenders to a CSV file with the columns RANK, USER_ID,
+     * the ranking value and MAX_OVERESTIMATE, the most the value may exceed the true one by.
+     *
+     * @param filePath the path where the ranking CSV file will be created (must be within 'data' directory)
+     * @param valueColumn the header of the ranking value column, such as "TOTAL_SCORE"
+     * @param ranking the ranked users, best rank first
+     * @throws RuntimeException if file writing fails
+     * @throws SecurityException if file path is outside allowed directory
+     */
+    public void writeTopUsers(String filePath, String valueColumn, List<TopUserReport> ranking) {
+        Path validatedPath = PathValidator.validate(filePath);
+        try (Writer writer = new FileWriter(validatedPath.toFile());
+             CSVWriter csvWriter = new CSVWriter(writer, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.NO_QUOTE_CHARACTER,
+                     CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END)) {
+            csvWriter.writeNext(new String[]{"RANK", "USER_ID", valueColumn, "MAX_OVERESTIMATE"}, false);
+            for (TopUserReport user : ranking) {
+                csvWriter.writeNext(new String[]{
+                        Integer.toString(user.getRank()),
+                        user.getUserId(),
+                        formatWeight(user.getValue()),
+                        formatWeight(user.getMaxOverestimate())
+                }, false);
+            }
+            csvWriter.flush();
+            if (csvWriter.checkError()) {
+                throw new IOException("Failed to write ranking rows");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write ranking CSV file", e);
+        }
+    }
+
+    /**
+     * Formats counts without a fraction and score sums like the report scores.
+     */
+    private static String formatWeight(double weight) {
+        if (weight == Math.rint(weight) && Math.abs(weight) < 1e15) {
+            return Long.toString((long) weight);
+        }
+        return Float.toString((float) weight);
+    }
+
+    static String quantileColumn(double quantile) {
+        return "P" + BigDecimal.valueOf(quantile).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * @param confidence the confidence level of the interval, such as 0.95
+     * @return the header of the margin of error column, such as "AVG_SCORE_CI95"
+     */
+    public static String marginColumn(double confidence) {
+        return "AVG_SCORE_CI" + BigDecimal.valueOf(confidence).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Writes report rows to an open report CSV file.
+     */
+    public static final class ReportWriter implements Closeable {
+        private final CSVWriter csvWriter;
+        private final String[] row;
+        private final int quantiles;
+        private final boolean margin;
+
+        private ReportWriter(CSVWriter csvWriter, String[] row, int quantiles, boolean margin) {
+            this.csvWriter = csvWriter;
+            this.row = row;
+            this.quantiles = quantiles;
+            this.margin = margin;
+        }
+
+        /**
+         * Writes the row of one user, with one score per quantile column and the margin of error of
+         * the average score in its column, if any.
+         *
+         * @param report the user report
+         */
+        public void write(UserReport report) {
+            row[0] = Float.toString(report.getAvgScore());
+            row[1] = Integer.toString(report.getTotalMessages());
+            row[2] = report.getUserId();
+            for (int i = 0; i < quantiles; i++) {
+                row[REPORT_HEADER.length + i] = Float.toString(report.getScoreQuantiles()[i]);
+            }
+            if (margin) {
+                row[REPORT_HEADER.length + quantiles] = Float.toString(report.getAvgScoreMargin());
+            }
+            if (row.length > REPORT_HEADER.length + quantiles + (margin ? 1 : 0)) {
+                row[row.length - 1] = Boolean.toString(report.isComplete());
+            }
+            csvWriter.writeNext(row, false);
+        }
+
+        /**
+         * Flushes and closes the file.
+         *
+         * @throws RuntimeException if any row could not be written
+         */
+        @Override
+        public void close() {
+            try (csvWriter) {
+                csvWriter.flush();
+                if (csvWriter.checkError()) {
+                    throw new IOException("Failed to write report rows");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write output CSV file", e);
             }
-            return path;
-        } catch (Exception e) {
-            throw new SecurityException("Invalid file path");
         }
     }
-}
\ No newline at end of file
+}
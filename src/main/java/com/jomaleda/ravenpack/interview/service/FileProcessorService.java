@@ -1,22 +1,43 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.aggregation.SpillingAggregator;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
 import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.dto.TopUserReport;
 import com.jomaleda.ravenpack.interview.dto.UserReport;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.model.HeavyHitterSketch;
+import com.jomaleda.ravenpack.interview.model.QuantileSketch;
+import com.jomaleda.ravenpack.interview.model.ScoreReservoir;
 import com.jomaleda.ravenpack.interview.model.UserStats;
+import com.jomaleda.ravenpack.interview.tracing.MessageContext;
+import com.jomaleda.ravenpack.interview.tracing.MessageProcessedEvent;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,83 +49,347 @@ import java.util.stream.Stream;
 @Slf4j
 @RequiredArgsConstructor
 public class FileProcessorService {
+    static final String TOP_USERS_SUFFIX = "_topk.csv";
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final long NOT_SAMPLING = Long.MIN_VALUE;
+
     private final CsvService csvService;
     private final TranslationService translationService;
     private final ScoringService scoringService;
+    private final MessageClassifier messageClassifier;
     private final ExecutorService taskExecutor;
+    private final PipelineMetrics metrics;
+    private final ConcurrencyBudget concurrencyBudget;
+    private final ModerationProperties properties;
+    private final ScheduledThreadPoolExecutor deadlineTimer = newDeadlineTimer();
 
     /**
      * Processes a CSV file of user messages and generates a summary report.
-     * Uses concurrent processing with virtual threads for high performance.
+     * Uses concurrent processing with virtual threads for high performance, within the
+     * global {@link ConcurrencyBudget} shared with other files processed at the same time.
+     * Rows are read lazily and per-user aggregates beyond the configured memory budget are
+     * spilled to disk, so the heap stays bounded whatever the size of the file.
+     * Each message has its own deadline, after which it is cancelled and counted as an error.
+     * Once the deadline of the file passes, reading stops, the outstanding messages are cancelled
+     * and a partial report of the messages scored so far is written.
+     * Files are processed in sampling mode when it is enabled in the settings.
      *
      * @param inputPath path to input CSV file containing user messages
      * @param outputPath path where the output CSV report will be written
+     * @return summary of the run with row, error, user and timeout counts, its duration and whether it is partial
      * @throws RuntimeException if file processing fails
      */
-    public void processFile(String inputPath, String outputPath) {
-        Map<String, UserStats> userStatsMap = new ConcurrentHashMap<>();
-        AtomicInteger errorCount = new AtomicInteger(0);
+    public ProcessingSummary processFile(String inputPath, String outputPath) {
+        ModerationProperties.Sampling sampling = properties.getSampling();
+        return processFile(inputPath, outputPath, sampling.isEnabled() ? sampling.getPerUser() : 0);
+    }
 
-        try (Stream<InputMessage> messageStream = csvService.readMessages(inputPath)) {
-            List<CompletableFuture<Void>> futures = messageStream
-                    .map(message -> CompletableFuture.runAsync(() -> processMessage(message, userStatsMap, errorCount), taskExecutor))
-                    .collect(Collectors.toList());
+    /**
+     * Processes a CSV file of user messages as {@link #processFile(String, String)} does, optionally
+     * in sampling mode. In sampling mode every row is counted, but only a uniform random sample of at
+     * most the given number of messages per user is scored, chosen by reservoir sampling as the rows
+     * are read, so a user with n messages costs about perUser * (1 + ln(n / perUser)) scoring calls
+     * instead of n. The average score of each user is then estimated from the sample, and the report
+     * gets a column with the margin of error of the estimate at the configured confidence level, 0
+     * for users whose messages were all scored. The quantiles and the top users are estimated from
+     * the sample as well. The memory taken per user is bounded by the sample size, so the aggregates
+     * are never spilled.
+     *
+     * @param inputPath path to input CSV file containing user messages
+     * @param outputPath path where the output CSV report will be written
+     * @param samplePerUser maximum number of messages scored per user, or 0 to score every message
+     * @return summary of the run, whose total messages count every row and scored messages the sampled ones
+     * @throws RuntimeException if file processing fails
+     */
+    public ProcessingSummary processFile(String inputPath, String outputPath, int samplePerUser) {
+        long startTime = System.currentTimeMillis();
+        HeavyHitterSketch topUsers = properties.getTopUsers().isEnabled()
+                ? new HeavyHitterSketch(Math.max(properties.getTopUsers().getSize(), properties.getTopUsers().getCapacity()))
+                : null;
+        metrics.runStarted();
 
-            try {
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                    .get(5, TimeUnit.MINUTES);
-            } catch (TimeoutException e) {
-                log.error("Processing timed out after 5 minutes");
-                throw new RuntimeException("File processing timed out", e);
+        try (SpillingAggregator aggregator = newAggregator()) {
+            FileRun run = new FileRun(aggregator, topUsers, concurrencyBudget.openFileWindow(), samplePerUser);
+            try (Stream<InputMessage> messageStream = csvService.readMessages(inputPath)) {
+                Iterator<InputMessage> messages = messageStream.iterator();
+                while (!run.isPartial() && messages.hasNext()) {
+                    InputMessage message = messages.next();
+                    long ticket = run.offer(message);
+                    if (ticket != ScoreReservoir.REJECTED) {
+                        submitMessage(message, run, ticket);
+                    }
+                }
+                run.awaitCompletion();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw new RuntimeException("File processing was interrupted", e);
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to read input file: {}", inputPath, e);
+                throw new RuntimeException("Failed to read input file", e);
+            } catch (ExecutionException e) {
+                log.error("Failed to execute message processing tasks", e);
+                throw new RuntimeException("Failed to process messages", e);
+            } catch (RuntimeException e) {
+                log.error("Runtime error during file processing", e);
+                throw e;
+            } finally {
+                metrics.runFinished();
             }
 
+            long scoredMessages = run.pending.getSubmitted();
+            long totalMessages = run.isSampling() ? run.rowsRead : scoredMessages;
+            long[] totals = run.isSampling() ? writeSampledReports(outputPath, run) : writeReports(outputPath, run);
+            // Every submitted row that did not make it into the aggregates failed or was cancelled
+            long totalErrors = scoredMessages - totals[1];
+            if (totalErrors > 0) {
+                log.warn("Processing completed with {} errors. Check logs for details.", totalErrors);
+            }
+            if (topUsers != null) {
+                writeTopUsers(outputPath, topUsers);
+            }
+            return new ProcessingSummary(totalMessages, totalErrors, (int) totals[0],
+                    System.currentTimeMillis() - startTime, run.timedOut.sum(), run.isPartial(), scoredMessages);
+        }
+    }
+
+    /**
+     * Writes the report of every aggregated user. Reports of in-memory aggregates are written at once;
+     * after a spill they are streamed to the file as the spilled runs are merged. A run cut short by
+     * its deadline gets a partial report with a COMPLETE column marking the users with cancelled messages.
+     *
+     * @param outputPath path where the output CSV report will be written
+     * @param run the state of the file, with its per-user aggregates
+     * @return the number of users and the number of aggregated rows
+     */
+    private long[] writeReports(String outputPath, FileRun run) {
+        SpillingAggregator aggregator = run.aggregator;
+        List<Double> quantiles = properties.getReport().getQuantiles();
+        if (!aggregator.hasSpilled() && !run.isPartial()) {
+            Map<String, UserStats> userStatsMap = aggregator.inMemoryStats();
+            long aggregatedRows = userStatsMap.values().stream().mapToLong(UserStats::getTotalMessages).sum();
+            log.info("Aggregation complete. Generating report for {} users...", userStatsMap.size());
+            csvService.writeReports(outputPath, generateUserReports(userStatsMap), quantiles);
+            return new long[] {userStatsMap.size(), aggregatedRows};
+        }
+
+        if (aggregator.hasSpilled()) {
+            log.info("Aggregation spilled to disk {} times. Merging runs into the report...", aggregator.getSpillCount());
+        }
+        if (run.isPartial()) {
+            log.warn("File deadline reached. Writing a partial report, {} users have cancelled messages",
+                    run.incompleteUsers.size());
+        }
+        long[] totals = new long[2];
+        try (CsvService.ReportWriter writer = csvService.openReportWriter(outputPath, quantiles, run.isPartial())) {
+            aggregator.forEachUser((userId, stats) -> {
+                UserReport report = toUserReport(userId, stats, quantiles);
+                report.setComplete(!run.incompleteUsers.contains(userId));
+                writer.write(report);
+                totals[0]++;
+                totals[1] += stats.getTotalMessages();
+            });
         } catch (IOException e) {
-            log.error("Failed to read input file: {}", inputPath, e);
-            throw new RuntimeException("Failed to read input file", e);
-        } catch (ExecutionException e) {
-            log.error("Failed to execute message processing tasks", e);
-            throw new RuntimeException("Failed to process messages", e);
-        } catch (RuntimeException e) {
-            log.error("Runtime error during file processing", e);
-            throw e;
+            log.error("Failed to merge spilled aggregates", e);
+            throw new RuntimeException("Failed to merge spilled aggregates", e);
         }
+        return totals;
+    }
 
-        int totalErrors = errorCount.get();
-        if (totalErrors > 0) {
-            log.warn("Processing completed with {} errors. Check logs for details.", totalErrors);
+    /**
+     * Writes the report of every user of a run in sampling mode, with the averages and quantiles
+     * estimated from the sample and the margin of error column. The top users are ranked here, by
+     * their estimated total score or offensive count. A partial report gets the COMPLETE column too.
+     *
+     * @param outputPath path where the output CSV report will be written
+     * @param run the state of the file, with its per-user samples
+     * @return the number of users and the number of scored rows
+     */
+    private long[] writeSampledReports(String outputPath, FileRun run) {
+        List<Double> quantiles = properties.getReport().getQuantiles();
+        double confidence = properties.getSampling().getConfidence();
+        double z = ScoreReservoir.zScore(confidence);
+        log.info("Sampling complete. Scored {} of {} rows, generating estimated report for {} users...",
+                run.pending.getSubmitted(), run.rowsRead, run.samples.size());
+        long[] totals = new long[2];
+        try (CsvService.ReportWriter writer = csvService.openReportWriter(outputPath, quantiles,
+                CsvService.marginColumn(confidence), run.isPartial())) {
+            run.samples.forEach((userId, sample) -> {
+                float[] values = new float[quantiles.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = sample.getQuantile(quantiles.get(i));
+                }
+                UserReport report = new UserReport(userId, (int) sample.getTotalMessages(), sample.getMean(), values,
+                        !run.incompleteUsers.contains(userId), sample.getMarginOfError(z));
+                writer.write(report);
+                if (run.topUsers != null) {
+                    run.topUsers.add(userId, estimatedRankingWeight(sample));
+                }
+                totals[0]++;
+            });
         }
-        
-        log.info("Aggregation complete. Generating report for {} users...", userStatsMap.size());
-        List<UserReport> reports = generateUserReports(userStatsMap);
-        csvService.writeReports(outputPath, reports);
+        totals[1] = run.scoredRows.sum();
+        return totals;
     }
 
     /**
-     * Processes a single message by translating and scoring it.
-     * Updates user statistics in a thread-safe manner.
+     * Submits a single message for asynchronous processing on the task executor, with its own deadline.
+     * Waits first until the file window allows another outstanding message; if the deadline of the
+     * file passes while waiting, the message is not submitted and the run is cut short.
      *
      * @param message the input message to process
-     * @param userStatsMap concurrent map storing user statistics
-     * @param errorCount atomic counter for tracking processing errors
+     * @param run the state of the file
+     * @param ticket the ticket of the message in the sample of its user, unused unless sampling
+     * @throws InterruptedException if interrupted while waiting for the file window
+     */
+    private void submitMessage(InputMessage message, FileRun run, long ticket) throws InterruptedException {
+        if (!run.acquireSlot()) {
+            return;
+        }
+        metrics.taskSubmitted();
+        MessageTask task = new MessageTask(message, run, ticket);
+        run.started(task);
+        long timeoutMillis = properties.getDeadlines().getMessageTimeoutMillis();
+        if (timeoutMillis > 0) {
+            task.deadline = deadlineTimer.schedule(() -> {
+                if (task.cancel()) {
+                    log.warn("Message of user {} cancelled after {} ms", message.getUserId(), timeoutMillis);
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        taskExecutor.execute(task);
+    }
+
+    /**
+     * Translates and scores a single message within the global concurrency budget,
+     * recording the latency of both stages. Used by every ingestion mode.
+     * With fingerprint cache keys, the fingerprint of the message is computed once here
+     * and used for both the translation and the scoring lookup.
+     * Messages recognized by the {@link MessageClassifier} take a local fast path: blank messages
+     * get the configured blank score without any call, and messages already in the target language
+     * are scored without translation.
+     * With the result cache, a message is looked up once by its original text, and only on a miss
+     * translated and scored, bypassing the translation and score caches.
+     * The user of the message is set in the {@link MessageContext} meanwhile, for the service events.
+     *
+     * @param message the input message to score
+     * @return the score of the translated message
+     * @throws InterruptedException if interrupted while waiting for the concurrency budget
+     */
+    public float scoreMessage(InputMessage message) throws InterruptedException {
+        MessageClassifier.Classification classification = messageClassifier.classify(message.getMessage());
+        if (classification == MessageClassifier.Classification.BLANK) {
+            metrics.recordBlankSkipped();
+            return properties.getFastPath().getBlankScore();
+        }
+        concurrencyBudget.acquire();
+        String previousUserId = MessageContext.enter(message.getUserId());
+        try {
+            ModerationProperties.Cache cache = properties.getCache();
+            Fingerprint fingerprint = cache.isFingerprintKeys() ? Fingerprint.of(message.getMessage()) : null;
+            if (!cache.isResultCacheEnabled()) {
+                return translateAndScore(message.getMessage(), classification, fingerprint, true, true);
+            }
+            boolean cacheTranslation = cache.isResultCacheKeepTranslations();
+            return scoringService.getResultScore(message.getMessage(), fingerprint,
+                    original -> translateAndScore(original, classification, fingerprint, cacheTranslation, false));
+        } finally {
+            MessageContext.exit(previousUserId);
+            concurrencyBudget.release();
+        }
+    }
+
+    /**
+     * Translates and scores a message, unless it is already in the target language, recording the
+     * latency of both stages.
+     *
+     * @param text the original text of the message
+     * @param classification the classification of the message
+     * @param fingerprint the fingerprint of the message, or null to key the caches by text
+     * @param cacheTranslation whether the translation is looked up in the translation cache
+     * @param cacheScore whether the score is looked up in the score cache
+     * @return the score of the translated message
+     */
+    private float translateAndScore(String text, MessageClassifier.Classification classification,
+                                    Fingerprint fingerprint, boolean cacheTranslation, boolean cacheScore) {
+        long start = System.nanoTime();
+        String translatedMessage;
+        if (classification == MessageClassifier.Classification.TARGET_LANGUAGE) {
+            translatedMessage = text;
+            metrics.recordTranslationSkipped();
+        } else {
+            translatedMessage = !cacheTranslation ? translationService.translateUncached(text)
+                    : fingerprint == null ? translationService.translate(text)
+                    : translationService.translate(text, fingerprint);
+            metrics.recordStage(PipelineMetrics.Stage.TRANSLATE, System.nanoTime() - start);
+        }
+        long translated = System.nanoTime();
+
+        float score = !cacheScore ? scoringService.getScoreUncached(translatedMessage)
+                : fingerprint == null ? scoringService.getScore(translatedMessage)
+                : scoringService.getScore(translatedMessage, fingerprint);
+        metrics.recordStage(PipelineMetrics.Stage.SCORE, System.nanoTime() - translated);
+        return score;
+    }
+
+    /**
+     * Processes a single message by translating and scoring it.
+     * Updates user statistics in a thread-safe manner and records per-stage latencies.
+     * A message cancelled at its deadline is never aggregated, and one cancelled before it started does no work.
+     * Emits a {@link MessageProcessedEvent} when the event is enabled in a Flight Recorder recording.
+     *
+     * @param task the task of the message
      */
-    private void processMessage(InputMessage message, Map<String, UserStats> userStatsMap, AtomicInteger errorCount) {
+    private void processMessage(MessageTask task) {
+        InputMessage message = task.message;
+        long start = System.nanoTime();
+        metrics.taskStarted();
+        MessageProcessedEvent event = new MessageProcessedEvent();
+        event.begin();
+        boolean cancelled = true; // Cancelled rows are counted as errors only
         try {
-            String translatedMessage = translationService.translate(message.getMessage());
-            float score = scoringService.getScore(translatedMessage);
+            if (task.isSettled()) {
+                return; // Cancelled before it started
+            }
+            float score = scoreMessage(message);
+            long scored = System.nanoTime();
+            if (!task.settle()) {
+                return; // Cancelled while scoring, already counted
+            }
+            cancelled = false;
 
-            userStatsMap.compute(message.getUserId(), (userId, stats) -> {
-                if (stats == null) {
-                    return new UserStats(1, score);
+            if (task.run.isSampling()) {
+                task.run.samples.get(message.getUserId()).record(task.ticket, score);
+                task.run.scoredRows.increment();
+            } else {
+                task.run.aggregator.add(message.getUserId(), score);
+                if (task.run.topUsers != null) {
+                    task.run.topUsers.add(message.getUserId(), rankingWeight(score));
                 }
-                stats.addMessage(score);
-                return stats;
-            });
+            }
+            metrics.recordStage(PipelineMetrics.Stage.AGGREGATE, System.nanoTime() - scored);
+            event.score = score;
+            event.succeeded = true;
         } catch (Exception e) {
-            errorCount.incrementAndGet();
+            if (!task.settle()) {
+                return; // Failed because it was cancelled, already counted
+            }
+            cancelled = false;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            metrics.recordError();
             log.error("Failed to process message for user {}: {}", message.getUserId(), message.getMessage(), e);
+        } finally {
+            if (!cancelled) {
+                metrics.recordStage(PipelineMetrics.Stage.ROW, System.nanoTime() - start);
+                metrics.recordRow();
+            }
+            metrics.taskFinished();
+            if (event.shouldCommit()) {
+                event.userId = message.getUserId();
+                event.messageLength = message.getMessage() == null ? 0 : message.getMessage().length();
+                event.commit();
+            }
         }
     }
 
@@ -115,12 +400,336 @@ public class FileProcessorService {
      * @return list of user reports with total messages and average scores
      */
     private List<UserReport> generateUserReports(Map<String, UserStats> userStatsMap) {
+        List<Double> quantiles = properties.getReport().getQuantiles();
         return userStatsMap.entrySet().stream()
-                .map(entry -> new UserReport(
-                        entry.getKey(),
-                        entry.getValue().getTotalMessages(),
-                        entry.getValue().getAverageScore()
-                ))
+                .map(entry -> toUserReport(entry.getKey(), entry.getValue(), quantiles))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private static UserReport toUserReport(String userId, UserStats stats, List<Double> quantiles) {
+        return new UserReport(userId, stats.getTotalMessages(), stats.getAverageScore(), scoreQuantiles(stats, quantiles));
+    }
+
+    /**
+     * Creates the per-user aggregation of a file. The estimated size of a user includes its score
+     * sketch when quantiles are reported, assuming the sketch may grow to its maximum size.
+     *
+     * @return the aggregator, to be closed to delete any spill files
+     */
+    private SpillingAggregator newAggregator() {
+        ModerationProperties.Aggregation settings = properties.getAggregation();
+        ModerationProperties.Report report = properties.getReport();
+        long bytesPerUser = report.getQuantiles().isEmpty() ? 0L : 64L + 4L * report.getQuantileMaxBins();
+        return new SpillingAggregator(this::newUserStats, settings.getMemoryBudgetBytes(), bytesPerUser,
+                settings.getSpillPartitions(), PathValidator.validate(settings.getSpillDirectory()));
+    }
+
+    /**
+     * Creates the statistics of a user seen for the first time. The score distribution is only
+     * tracked when quantiles are reported, so the default report keeps its small per-user footprint.
+     *
+     * @return empty statistics
+     */
+    private UserStats newUserStats() {
+        ModerationProperties.Report report = properties.getReport();
+        if (report.getQuantiles().isEmpty()) {
+            return new UserStats(0, 0.0);
+        }
+        return new UserStats(0, 0.0, new QuantileSketch(report.getQuantileAccuracy(), report.getQuantileMaxBins()));
+    }
+
+    private static float[] scoreQuantiles(UserStats stats, List<Double> quantiles) {
+        float[] values = new float[quantiles.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = stats.getScoreQuantile(quantiles.get(i));
+        }
+        return values;
+    }
+
+    private double rankingWeight(float score) {
+        ModerationProperties.TopUsers settings = properties.getTopUsers();
+        if (settings.getMetric() == ModerationProperties.TopUsers.Metric.OFFENSIVE_COUNT) {
+            return score >= settings.getOffensiveThreshold() ? 1.0 : 0.0;
+        }
+        return score;
+    }
+
+    /**
+     * Estimates the ranking weight of all the messages of a user from their sample.
+     */
+    private double estimatedRankingWeight(ScoreReservoir sample) {
+        ModerationProperties.TopUsers settings = properties.getTopUsers();
+        double share = settings.getMetric() == ModerationProperties.TopUsers.Metric.OFFENSIVE_COUNT
+                ? sample.getShareAtLeast(settings.getOffensiveThreshold())
+                : sample.getMean();
+        return share * sample.getTotalMessages();
+    }
+
+    /**
+     * Writes the ranking of the worst offenders next to the report, with the "_topk.csv" suffix.
+     *
+     * @param outputPath path of the report
+     * @param topUsers sketch ranking the users
+     */
+    private void writeTopUsers(String outputPath, HeavyHitterSketch topUsers) {
+        ModerationProperties.TopUsers settings = properties.getTopUsers();
+        List<TopUserReport> ranking = new ArrayList<>();
+        for (HeavyHitterSketch.HeavyHitter hitter : topUsers.top(settings.getSize())) {
+            ranking.add(new TopUserReport(ranking.size() + 1, hitter.getKey(), hitter.getEstimate(), hitter.getOverestimate()));
+        }
+        String rankingPath = PathValidator.companionOf(outputPath, TOP_USERS_SUFFIX).toString();
+        csvService.writeTopUsers(rankingPath, settings.getMetric().name(), ranking);
+    }
+
+    /**
+     * Stops the timer of the message deadlines.
+     */
+    @PreDestroy
+    public void shutdown() {
+        deadlineTimer.shutdownNow();
+    }
+
+    private static ScheduledThreadPoolExecutor newDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("message-deadlines").daemon(true).factory());
+        // Most deadlines are cancelled long before they expire; do not keep them queued until then
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * State of one file being processed: its aggregates, its outstanding messages and its deadline.
+     * In sampling mode, the aggregates are replaced by a score reservoir per user, filled by the
+     * reading thread, which alone draws from the random generator and counts the rows.
+     */
+    private final class FileRun {
+        private final SpillingAggregator aggregator;
+        private final HeavyHitterSketch topUsers;
+        private final ConcurrencyBudget.FileWindow window;
+        private final long deadlineNanos;
+        private final PendingMessages pending = new PendingMessages();
+        private final Set<MessageTask> outstanding = ConcurrentHashMap.newKeySet();
+        private final Set<String> incompleteUsers = ConcurrentHashMap.newKeySet();
+        private final LongAdder timedOut = new LongAdder();
+        private final int samplePerUser;
+        private final Map<String, ScoreReservoir> samples;
+        private final LongAdder scoredRows = new LongAdder();
+        private final SplittableRandom random;
+        private long rowsRead;
+        private volatile boolean partial;
+
+        private FileRun(SpillingAggregator aggregator, HeavyHitterSketch topUsers, ConcurrencyBudget.FileWindow window,
+                        int samplePerUser) {
+            this.aggregator = aggregator;
+            this.topUsers = topUsers;
+            this.window = window;
+            this.samplePerUser = samplePerUser;
+            boolean sampling = samplePerUser > 0;
+            this.samples = sampling ? new ConcurrentHashMap<>() : null;
+            this.random = sampling ? new SplittableRandom() : null;
+            long runTimeoutMillis = properties.getDeadlines().getRunTimeoutMillis();
+            this.deadlineNanos = runTimeoutMillis > 0
+                    ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runTimeoutMillis)
+                    : NO_DEADLINE;
+        }
+
+        private boolean isSampling() {
+            return samples != null;
+        }
+
+        /**
+         * Counts a row read from the file and, in sampling mode, offers it to the sample of its user.
+         *
+         * @return the ticket of the message in the sample, {@link #NOT_SAMPLING} to process the message
+         *         without sampling, or {@link ScoreReservoir#REJECTED} if the message is left out of the sample
+         */
+        private long offer(InputMessage message) {
+            rowsRead++;
+            if (!isSampling()) {
+                return NOT_SAMPLING;
+            }
+            return samples.computeIfAbsent(message.getUserId(), userId -> new ScoreReservoir(samplePerUser))
+                    .offer(random);
+        }
+
+        /**
+         * Waits until the window allows another message, at most until the deadline of the file.
+         *
+         * @return true if the message may be submitted, false if the run was cut short by its deadline
+         */
+        private boolean acquireSlot() throws InterruptedException {
+            long remaining = remainingNanos();
+            if (remaining <= 0 || !window.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                partial = true;
+                return false;
+            }
+            return true;
+        }
+
+        private void started(MessageTask task) {
+            pending.submitted();
+            outstanding.add(task);
+        }
+
+        private void finished(MessageTask task, Throwable error) {
+            outstanding.remove(task);
+            window.release();
+            pending.completed(error);
+        }
+
+        private void cancelled(MessageTask task) {
+            timedOut.increment();
+            incompleteUsers.add(task.message.getUserId());
+            metrics.recordError();
+        }
+
+        /**
+         * Waits for every submitted message until the deadline of the file. Once the deadline has
+         * passed, the outstanding messages are cancelled and given a short grace period to stop, so
+         * no task still updates the aggregates while the report is written.
+         */
+        private void awaitCompletion() throws InterruptedException, ExecutionException {
+            CompletableFuture<Void> done = pending.allSubmitted();
+            if (!partial) {
+                try {
+                    done.get(remainingNanos(), TimeUnit.NANOSECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    partial = true;
+                }
+            }
+            log.warn("File deadline reached. Cancelling {} outstanding messages", outstanding.size());
+            for (MessageTask task : outstanding) {
+                task.cancel();
+            }
+            try {
+                done.get(properties.getDeadlines().getCancelGraceMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("{} cancelled messages did not stop within the grace period", outstanding.size());
+            }
+        }
+
+        private long remainingNanos() {
+            return deadlineNanos == NO_DEADLINE ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+        }
+
+        private boolean isPartial() {
+            return partial;
+        }
+    }
+
+    /**
+     * Task of one message. Whichever comes first of its result and its cancellation settles the
+     * message: a cancelled message is never aggregated, and a message already aggregated is no longer
+     * cancelled. Cancelling a running task interrupts its thread, which frees a thread stuck in a
+     * hung call; the interrupt is cleared when the task ends, so it cannot reach the next task of a pooled thread.
+     */
+    private final class MessageTask implements Runnable {
+        private final InputMessage message;
+        private final FileRun run;
+        private final long ticket;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile ScheduledFuture<?> deadline;
+        private Thread runner;
+        private boolean interrupted;
+
+        private MessageTask(InputMessage message, FileRun run, long ticket) {
+            this.message = message;
+            this.run = run;
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void run() {
+            Throwable error = null;
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                processMessage(this);
+            } catch (RuntimeException | Error e) {
+                error = e;
+                throw e;
+            } finally {
+                boolean clearInterrupt;
+                synchronized (this) {
+                    runner = null;
+                    clearInterrupt = interrupted;
+                }
+                if (clearInterrupt) {
+                    Thread.interrupted();
+                }
+                ScheduledFuture<?> timer = deadline;
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                run.finished(this, error);
+            }
+        }
+
+        private boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+
+        private boolean isSettled() {
+            return settled.get();
+        }
+
+        /**
+         * Cancels the message unless it already has its result.
+         *
+         * @return true if the message was cancelled
+         */
+        private boolean cancel() {
+            if (!settle()) {
+                return false;
+            }
+            // Counted before the interrupt, which may let the run complete before this method returns
+            run.cancelled(this);
+            synchronized (this) {
+                if (runner != null) {
+                    interrupted = true;
+                    runner.interrupt();
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Tracks the completion of the messages of a file without keeping a future per message.
+     * The count starts at one for the submitting thread, so the returned future cannot complete
+     * before every message has been submitted.
+     */
+    private static final class PendingMessages {
+        private final AtomicLong outstanding = new AtomicLong(1);
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long submitted;
+
+        void submitted() {
+            submitted++;
+            outstanding.incrementAndGet();
+        }
+
+        void completed(Throwable error) {
+            if (error != null) {
+                done.completeExceptionally(error);
+            }
+            if (outstanding.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+
+        /**
+         * @return future completed once every submitted message has completed, or exceptionally on the first failure
+         */
+        CompletableFuture<Void> allSubmitted() {
+            completed(null);
+            return done;
+        }
+
+        long getSubmitted() {
+            return submitted;
+        }
+    }
+}
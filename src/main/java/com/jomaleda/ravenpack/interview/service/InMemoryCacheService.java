@@ -0,0 +1,142 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.CacheLookupEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Cache service storing key-value pairs in the memory of this JVM.
+ * Provides thread-safe caching operations using ConcurrentHashMap, with one map per namespace.
+ * Namespaced lookups emit a {@link CacheLookupEvent} when the event is enabled in a Flight Recorder recording.
+ *
+ * <p>Values are computed outside the maps: the first lookup of a missing key registers a future for it
+ * and calls the supplier, and concurrent lookups of the same key wait for that future. The supplier
+ * is therefore called once per key without holding a lock of the map, so a slow supplier neither
+ * blocks unrelated keys nor pins the carrier of a virtual thread, and a supplier may itself look up
+ * other keys, such as a translation while computing the score of a message. If the supplier throws,
+ * the lookups that waited for it compute the value again themselves. Waiting can be interrupted.</p>
+ */
+public class InMemoryCacheService implements CacheService {
+    private static final String DEFAULT_NAMESPACE = "default";
+
+    private final ConcurrentHashMap<String, Namespace<String>> caches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Namespace<Fingerprint>> fingerprintCaches = new ConcurrentHashMap<>();
+    private final PipelineMetrics metrics;
+
+    public InMemoryCacheService(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Thread-safe operation that ensures the supplier is called only once per key.
+     */
+    @Override
+    public <T> T computeIfAbsent(String key, Function<String, T> supplier) {
+        return computeIfAbsent(DEFAULT_NAMESPACE, key, supplier);
+    }
+
+    @Override
+    public <T> T computeIfAbsent(String namespace, String key, Function<String, T> supplier) {
+        return lookup(namespace, namespace(caches, namespace), key, key, supplier);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Lookups hash and compare 128 bits instead of the whole key.
+     */
+    @Override
+    public <T> T computeIfAbsent(String namespace, Fingerprint fingerprint, String key, Function<String, T> supplier) {
+        return lookup(namespace, namespace(fingerprintCaches, namespace), fingerprint, key, supplier);
+    }
+
+    private static <K> Namespace<K> namespace(ConcurrentHashMap<String, Namespace<K>> namespaces, String namespace) {
+        Namespace<K> entries = namespaces.get(namespace);
+        return entries != null ? entries : namespaces.computeIfAbsent(namespace, absentNamespace -> new Namespace<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, T> T lookup(String namespace, Namespace<K> entries, K cacheKey, String key, Function<String, T> supplier) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Object cached = entries.values.get(cacheKey);
+        boolean hit = cached != null;
+        if (!hit) {
+            Lookup outcome = entries.compute(cacheKey, key, supplier);
+            cached = outcome.value;
+            hit = !outcome.computed;
+        }
+        metrics.recordCacheLookup(namespace, hit);
+        if (event.shouldCommit()) {
+            event.namespace = namespace;
+            event.keyLength = key.length();
+            event.cacheHit = hit;
+            event.commit();
+        }
+        return (T) cached;
+    }
+
+    /**
+     * The values of one namespace, and the values being computed.
+     */
+    private static final class Namespace<K> {
+        private final ConcurrentHashMap<K, Object> values = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the value of a key missing from the map, computing it unless another thread already is.
+         */
+        private Lookup compute(K cacheKey, String key, Function<String, ?> supplier) {
+            while (true) {
+                CompletableFuture<Object> pending = new CompletableFuture<>();
+                CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, pending);
+                if (existing != null) {
+                    try {
+                        return new Lookup(existing.get(), false);
+                    } catch (ExecutionException e) {
+                        continue; // The other thread failed; compute the value here instead
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Cache lookup was interrupted", e);
+                    }
+                }
+                try {
+                    // The value may have been stored since the map was read
+                    Object value = values.get(cacheKey);
+                    boolean computed = value == null;
+                    if (computed) {
+                        value = supplier.apply(key);
+                        if (value != null) {
+                            values.put(cacheKey, value);
+                        }
+                    }
+                    pending.complete(value);
+                    return new Lookup(value, computed);
+                } catch (RuntimeException | Error e) {
+                    pending.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(cacheKey, pending);
+                }
+            }
+        }
+    }
+
+    /**
+     * A value, and whether this lookup called the supplier for it.
+     */
+    private static final class Lookup {
+        private final Object value;
+        private final boolean computed;
+
+        private Lookup(Object value, boolean computed) {
+            this.value = value;
+            this.computed = computed;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cheap local classifier that runs before the translation call, so messages that need no remote
+ * translation are recognized without a cache entry or a round trip.
+ *
+ * <p>Empty messages are detected directly, and whitespace-only ones too when configured. Messages already in the target language (English) are
+ * detected with a character trigram check: the share of the trigrams of the message that belong to
+ * a fixed profile of the most frequent English trigrams. English text typically scores around 0.5
+ * and above, other languages and scrambled text around 0.3 and below. The check only looks at Latin letters and
+ * never allocates more than one small buffer per message.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageClassifier {
+
+    /**
+     * What a message needs before it can be scored.
+     */
+    public enum Classification {
+        /** Empty, or whitespace-only when configured; neither translated nor scored. */
+        BLANK,
+        /** Already in the target language; scored without translation. */
+        TARGET_LANGUAGE,
+        /** Translated, then scored. */
+        TRANSLATE
+    }
+
+    /**
+     * Most frequent English trigrams, with '_' marking a word boundary.
+     */
+    private static final String TARGET_LANGUAGE_PROFILE =
+            "_th the he_ _an and nd_ _in ing ng_ _to to_ _of of_ ion on_ ed_ _a_ is_ _is in_ er_ es_ ent _co _be _re "
+            + "re_ ati tio for _fo or_ _ha her hat tha at_ ere ter _wh _it it_ his _hi thi _yo you ou_ _wi wit ith "
+            + "th_ ly_ all _al ll_ as_ _as are _ar _on _wa was _we _no not ot_ ve_ hav ave _so _ma _me _mo ay_ day "
+            + "_da ne_ ste est st_ _st men nt_ con _wo ght igh _fr _pr pro ut_ our ome me_ _se ver ers rs_ ts_ ess "
+            + "ss_ le_ ate te_ ge_ age ain _do _ch ch_ ck_ che _ne _li lik ike ke_ _ti tim ime _us use se_ _i_ _my "
+            + "my_ _up up_ _ju jus ust out _ou ree eat gre _gr ead _he ort nce ce_ _de _su sag ssa mes _ca _lo _ye "
+            + "ry_ _ev eve ery ny_ ant ear _ab abo bou _ho _ge";
+    private static final int ALPHABET = 27; // '_' and 'a' to 'z'
+    private static final boolean[] TARGET_LANGUAGE_TRIGRAMS = new boolean[ALPHABET * ALPHABET * ALPHABET];
+
+    static {
+        for (String trigram : TARGET_LANGUAGE_PROFILE.split(" ")) {
+            TARGET_LANGUAGE_TRIGRAMS[code(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2))] = true;
+        }
+    }
+
+    private final ModerationProperties properties;
+
+    /**
+     * Classifies a message. Every message needs translation when the fast path is disabled,
+     * and target-language detection is only attempted when enabled on its own.
+     *
+     * @param message the message, possibly null
+     * @return the classification of the message
+     */
+    public Classification classify(String message) {
+        ModerationProperties.FastPath settings = properties.getFastPath();
+        if (!settings.isEnabled()) {
+            return Classification.TRANSLATE;
+        }
+        if (message == null || message.isEmpty() || settings.isSkipWhitespaceOnly() && message.isBlank()) {
+            return Classification.BLANK;
+        }
+        if (settings.isTargetLanguageDetection()
+                && targetLanguageShare(message, settings.getTargetLanguageMinLetters()) >= settings.getTargetLanguageThreshold()) {
+            return Classification.TARGET_LANGUAGE;
+        }
+        return Classification.TRANSLATE;
+    }
+
+    /**
+     * Returns the share of the letter trigrams of a message that are frequent in the target language.
+     * Any letter outside the basic Latin alphabet rules the message out.
+     *
+     * @param message the message
+     * @param minLetters minimum number of letters for a reliable answer
+     * @return share between 0.0 and 1.0, or 0.0 if the message is too short or not in Latin letters
+     */
+    static double targetLanguageShare(String message, int minLetters) {
+        // Letters lower-cased and runs of anything else collapsed into one '_' word boundary
+        char[] normalized = new char[message.length() + 2];
+        int length = 0;
+        int letters = 0;
+        normalized[length++] = '_';
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c >= 'a' && c <= 'z') {
+                normalized[length++] = c;
+                letters++;
+            } else if (Character.isLetter(c)) {
+                return 0.0;
+            } else if (normalized[length - 1] != '_') {
+                normalized[length++] = '_';
+            }
+        }
+        if (normalized[length - 1] != '_') {
+            normalized[length++] = '_';
+        }
+        if (letters < minLetters) {
+            return 0.0;
+        }
+        int trigrams = 0;
+        int hits = 0;
+        for (int i = 0; i + 3 <= length; i++) {
+            if (normalized[i + 1] == '_') {
+                continue; // Single boundary between words, not a trigram of either
+            }
+            trigrams++;
+            if (TARGET_LANGUAGE_TRIGRAMS[code(normalized[i], normalized[i + 1], normalized[i + 2])]) {
+                hits++;
+            }
+        }
+        return trigrams == 0 ? 0.0 : (double) hits / trigrams;
+    }
+
+    private static int code(char first, char second, char third) {
+        return (symbol(first) * ALPHABET + symbol(second)) * ALPHABET + symbol(third);
+    }
+
+    private static int symbol(char c) {
+        return c == '_' ? 0 : c - 'a' + 1;
+    }
+}
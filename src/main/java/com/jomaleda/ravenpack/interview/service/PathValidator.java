@@ -0,0 +1,50 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Validates that file paths stay inside the 'data' directory.
+ * Shared by every component that reads or writes files to prevent path traversal attacks.
+ */
+public final class PathValidator {
+    private static final Path ALLOWED_DIRECTORY = Paths.get("data");
+
+    private PathValidator() {
+    }
+
+    /**
+     * Validates and normalizes the file path to prevent path traversal attacks.
+     * Ensures the path is within the allowed 'data' directory.
+     *
+     * @param filePath the file path to validate
+     * @return the normalized and validated Path object
+     * @throws SecurityException if the path is outside the allowed directory
+     */
+    public static Path validate(String filePath) {
+        try {
+            Path path = Paths.get(filePath).normalize().toAbsolutePath();
+            Path allowedAbsolute = ALLOWED_DIRECTORY.toAbsolutePath().normalize();
+            if (!path.startsWith(allowedAbsolute)) {
+                throw new SecurityException("Invalid file path");
+            }
+            return path;
+        } catch (Exception e) {
+            throw new SecurityException("Invalid file path");
+        }
+    }
+
+    /**
+     * Derives the path of a companion file of an output report, such as its metrics summary.
+     * The trailing ".csv" extension of the report path, if any, is replaced by the given suffix.
+     *
+     * @param reportPath the path of the output report
+     * @param suffix the suffix of the companion file, for example "_metrics.json"
+     * @return the validated path of the companion file
+     * @throws SecurityException if the path is outside the allowed directory
+     */
+    public static Path companionOf(String reportPath, String suffix) {
+        String base = reportPath.endsWith(".csv") ? reportPath.substring(0, reportPath.length() - 4) : reportPath;
+        return validate(base + suffix);
+    }
+}
@@ -0,0 +1,211 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.cache.RespClient;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.CacheLookupEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Cache service storing key-value pairs on a remote server speaking the Redis protocol, so that
+ * several JVMs share their translations and scores.
+ *
+ * <p>Lookups and writes go through a {@link RespClient}, which batches the requests of all
+ * concurrent messages into MGET and MSET commands, so there is no round trip per key. Within this
+ * JVM, concurrent lookups of the same key wait for the first one, and the supplier is called once;
+ * a computed value is served locally until the server has stored it.
+ * Across JVMs two of them may compute the same value; since the values are deterministic, either
+ * write is correct.</p>
+ *
+ * <p>The cache is an optimization: when the server is slow or unreachable, lookups count as misses
+ * and the value is computed locally. Only String and Float values can be stored remotely.
+ * Namespaced lookups emit a {@link CacheLookupEvent} when the event is enabled in a Flight Recorder recording.</p>
+ */
+@Slf4j
+public class RespCacheService implements CacheService {
+    private static final String DEFAULT_NAMESPACE = "default";
+    private static final char STRING_TYPE = 's';
+    private static final char FLOAT_TYPE = 'f';
+
+    private final RespClient client;
+    private final PipelineMetrics metrics;
+    private final String keyPrefix;
+    private final int timeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public RespCacheService(PipelineMetrics metrics, ModerationProperties properties) {
+        ModerationProperties.Cache.Remote settings = properties.getCache().getRemote();
+        this.client = new RespClient(settings.getHost(), settings.getPort(), settings.getConnectTimeoutMillis(),
+                settings.getTimeoutMillis(), settings.getMaxBatchSize(), settings.getRetryDelayMillis());
+        this.metrics = metrics;
+        this.keyPrefix = settings.getKeyPrefix();
+        this.timeoutMillis = settings.getTimeoutMillis();
+    }
+
+    @Override
+    public <T> T computeIfAbsent(String key, Function<String, T> supplier) {
+        return computeIfAbsent(DEFAULT_NAMESPACE, key, supplier);
+    }
+
+    @Override
+    public <T> T computeIfAbsent(String namespace, String key, Function<String, T> supplier) {
+        return lookup(namespace, keyPrefix + namespace + ':' + key, key, supplier);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The remote key holds the 32 hexadecimal digits of the fingerprint.
+     */
+    @Override
+    public <T> T computeIfAbsent(String namespace, Fingerprint fingerprint, String key, Function<String, T> supplier) {
+        return lookup(namespace, keyPrefix + namespace + '#' + fingerprint, key, supplier);
+    }
+
+    /**
+     * @return number of batches sent to the server
+     */
+    public long getBatches() {
+        return client.getBatches();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(String namespace, String remoteKey, String key, Function<String, T> supplier) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Object cached;
+        boolean hit;
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(remoteKey, pending);
+        if (existing != null) {
+            // A value still being written is served from here, as a hit once it is known
+            hit = existing.isDone();
+            cached = join(existing);
+        } else {
+            byte[] encoded;
+            try {
+                cached = fetch(remoteKey);
+                hit = cached != null;
+                if (!hit) {
+                    cached = supplier.apply(key);
+                }
+                encoded = hit ? null : encode(cached);
+                pending.complete(cached);
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+                inFlight.remove(remoteKey, pending);
+                throw e;
+            }
+            if (hit) {
+                inFlight.remove(remoteKey, pending);
+            } else {
+                store(remoteKey, encoded, pending);
+            }
+        }
+        metrics.recordCacheLookup(namespace, hit);
+        if (event.shouldCommit()) {
+            event.namespace = namespace;
+            event.keyLength = key.length();
+            event.cacheHit = hit;
+            event.commit();
+        }
+        return (T) cached;
+    }
+
+    /**
+     * Waits for the lookup of the same key by another thread, rethrowing its exception as it was thrown.
+     */
+    private static Object join(CompletableFuture<Object> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the value stored remotely, or null if it is absent or the server did not answer in time
+     */
+    private Object fetch(String remoteKey) {
+        try {
+            byte[] value = client.get(remoteKey).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return value == null ? null : decode(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Remote cache lookup of {} failed, computing the value", remoteKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a computed value, keeping it in flight until the server has stored it, so that lookups
+     * of the key in the meantime neither miss nor compute it again.
+     */
+    private void store(String remoteKey, byte[] encoded, CompletableFuture<Object> pending) {
+        client.set(remoteKey, encoded).whenComplete((stored, e) -> {
+            inFlight.remove(remoteKey, pending);
+            if (e != null) {
+                log.debug("Remote cache write of {} failed", remoteKey, e);
+            }
+        });
+    }
+
+    /**
+     * Encodes a value as one type character followed by its text.
+     *
+     * @throws IllegalArgumentException if the value is neither a String nor a Float
+     */
+    static byte[] encode(Object value) {
+        if (value instanceof String text) {
+            return (STRING_TYPE + text).getBytes(StandardCharsets.UTF_8);
+        }
+        if (value instanceof Float number) {
+            return (FLOAT_TYPE + Float.toString(number)).getBytes(StandardCharsets.UTF_8);
+        }
+        throw new IllegalArgumentException("Only String and Float values can be cached remotely: "
+                + (value == null ? null : value.getClass().getName()));
+    }
+
+    /**
+     * @return the decoded value, or null if the bytes were not written by {@link #encode(Object)}
+     */
+    static Object decode(byte[] bytes) {
+        String encoded = new String(bytes, StandardCharsets.UTF_8);
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        String text = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case STRING_TYPE -> text;
+            case FLOAT_TYPE -> parseFloat(text);
+            default -> null;
+        };
+    }
+
+    private static Float parseFloat(String text) {
+        try {
+            return Float.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client of the simulated external scoring API.
+ * A bean of its own, so calls from {@link ScoringService} go through the Spring proxy
+ * and get the simulated network latency.
+ */
+@Component
+public class ScoringApiClient {
+
+    /**
+     * Simulates fetching score from external API with realistic latency.
+     *
+     * @param message the message to score
+     * @return deterministic score based on message hash
+     */
+    @SimulateLatency("scoring")
+    public float score(String message) {
+        // Calculates random value to be assigned as
+        // score for the input message
+        return (float) (Math.abs(message.hashCode() % 1001)) / 1000.0f;
+    }
+}
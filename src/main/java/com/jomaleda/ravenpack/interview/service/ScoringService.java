@@ -1,9 +1,13 @@
 package com.jomaleda.ravenpack.interview.service;
 
-import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.MessageContext;
+import com.jomaleda.ravenpack.interview.tracing.ScoringEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Function;
+
 /**
  * Service for scoring messages using a simulated external API.
  * Provides thread-safe caching to ensure idempotent behavior.
@@ -11,29 +15,93 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class ScoringService {
+    static final String CACHE_NAMESPACE = "score";
+    static final String RESULT_CACHE_NAMESPACE = "result";
+
     private final CacheService cacheService;
+    private final ScoringApiClient scoringApiClient;
 
     /**
      * Gets the offensive content score for a message.
      * Uses caching to ensure idempotent results.
      *
+     * Emits a {@link ScoringEvent} when the event is enabled in a Flight Recorder recording.
+     *
      * @param message the message to score
      * @return score between 0.0 and 1.0
      */
     public float getScore(String message) {
-        return cacheService.computeIfAbsent("score<->" + message, (key) -> this.fetchScoreFromApi(message));
+        return getScore(message, null);
     }
 
     /**
-     * Simulates fetching score from external API with realistic latency.
+     * Gets the offensive content score for a message, caching the result under the given fingerprint
+     * instead of the message text. Since translation is deterministic, the fingerprint of the original
+     * message identifies its translation too, so the same fingerprint serves both lookups.
      *
      * @param message the message to score
-     * @return deterministic score based on message hash
+     * @param fingerprint the fingerprint identifying the message, or null to key the cache by the message text
+     * @return score between 0.0 and 1.0
+     */
+    public float getScore(String message, Fingerprint fingerprint) {
+        ScoringEvent event = new ScoringEvent();
+        if (!event.isEnabled()) {
+            return cached(message, fingerprint, scoringApiClient::score);
+        }
+        event.begin();
+        event.cacheHit = true;
+        float score = cached(message, fingerprint, key -> {
+            event.cacheHit = false;
+            return scoringApiClient.score(key);
+        });
+        event.userId = MessageContext.currentUserId();
+        event.messageLength = message.length();
+        event.commit();
+        return score;
+    }
+
+    /**
+     * Gets the score of an original, untranslated message from the result cache, which maps each
+     * message straight to its final score. Only on a miss is the message translated and scored, by
+     * the given function, so a repeated message costs one lookup instead of a translation lookup and
+     * a score lookup, and no translated text needs to be kept.
+     *
+     * @param message the original message
+     * @param fingerprint the fingerprint of the original message, or null to key the cache by the message text
+     * @param translateAndScore function translating and scoring the original message, called on a miss
+     * @return score between 0.0 and 1.0
      */
-    @SimulateLatency
-    private float fetchScoreFromApi(String message) {
-        // Calculates random value to be assigned as
-        // score for the input message
-        return (float) (Math.abs(message.hashCode() % 1001)) / 1000.0f;
+    public float getResultScore(String message, Fingerprint fingerprint, Function<String, Float> translateAndScore) {
+        return fingerprint == null
+                ? cacheService.computeIfAbsent(RESULT_CACHE_NAMESPACE, message, translateAndScore)
+                : cacheService.computeIfAbsent(RESULT_CACHE_NAMESPACE, fingerprint, message, translateAndScore);
+    }
+
+    /**
+     * Gets the offensive content score for a message without the cache, for callers caching the
+     * final score under the original message instead.
+     * Emits a {@link ScoringEvent} when the event is enabled in a Flight Recorder recording.
+     *
+     * @param message the message to score
+     * @return score between 0.0 and 1.0
+     */
+    public float getScoreUncached(String message) {
+        ScoringEvent event = new ScoringEvent();
+        if (!event.isEnabled()) {
+            return scoringApiClient.score(message);
+        }
+        event.begin();
+        float score = scoringApiClient.score(message);
+        event.cacheHit = false;
+        event.userId = MessageContext.currentUserId();
+        event.messageLength = message.length();
+        event.commit();
+        return score;
+    }
+
+    private Float cached(String message, Fingerprint fingerprint, Function<String, Float> fetch) {
+        return fingerprint == null
+                ? cacheService.computeIfAbsent(CACHE_NAMESPACE, message, fetch)
+                : cacheService.computeIfAbsent(CACHE_NAMESPACE, fingerprint, message, fetch);
     }
-}
\ No newline at end of file
+}
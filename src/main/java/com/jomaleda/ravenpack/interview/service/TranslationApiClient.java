@@ -0,0 +1,29 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client of the simulated external translation API.
+ * A bean of its own, so calls from {@link TranslationService} go through the Spring proxy
+ * and get the simulated network latency.
+ */
+@Component
+public class TranslationApiClient {
+
+    /**
+     * Simulates fetching translation from external API with realistic latency.
+     * Currently, reverses the message as a simple translation simulation.
+     *
+     * @param message the message to translate
+     * @return the translated message (reversed)
+     */
+    @SimulateLatency("translation")
+    public String translate(String message) {
+        // Simulates translation by reversing the message
+        if (!message.isEmpty()) {
+            message = new StringBuilder(message).reverse().toString();
+        }
+        return message;
+    }
+}
@@ -1,9 +1,13 @@
 package com.jomaleda.ravenpack.interview.service;
 
-import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.MessageContext;
+import com.jomaleda.ravenpack.interview.tracing.TranslationEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Function;
+
 /**
  * Service for translating messages using a simulated external API.
  * Provides thread-safe caching to ensure idempotent behavior.
@@ -11,32 +15,72 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class TranslationService {
+    static final String CACHE_NAMESPACE = "translate";
+
     private final CacheService cacheService;
+    private final TranslationApiClient translationApiClient;
 
     /**
      * Translates a message using cached results for performance.
      * Uses caching to ensure idempotent results.
+     * Emits a {@link TranslationEvent} when the event is enabled in a Flight Recorder recording.
      *
      * @param message the message to translate
      * @return the translated message
      */
     public String translate(String message) {
-        return cacheService.computeIfAbsent("translate<->" + message, (key) -> this.fetchTranslationFromApi(message));
+        return translate(message, null);
     }
 
     /**
-     * Simulates fetching translation from external API with realistic latency.
-     * Currently, reverses the message as a simple translation simulation.
+     * Translates a message, caching the result under the given fingerprint of the message instead of its text.
      *
      * @param message the message to translate
-     * @return the translated message (reversed)
+     * @param fingerprint the fingerprint of the message, or null to key the cache by the message text
+     * @return the translated message
      */
-    @SimulateLatency
-    private String fetchTranslationFromApi(String message) {
-        // Simulates translation by reversing the message
-        if (!message.isEmpty()) {
-            message = new StringBuilder(message).reverse().toString();
+    public String translate(String message, Fingerprint fingerprint) {
+        TranslationEvent event = new TranslationEvent();
+        if (!event.isEnabled()) {
+            return cached(message, fingerprint, translationApiClient::translate);
         }
-        return message;
+        event.begin();
+        event.cacheHit = true;
+        String translated = cached(message, fingerprint, key -> {
+            event.cacheHit = false;
+            return translationApiClient.translate(key);
+        });
+        event.userId = MessageContext.currentUserId();
+        event.messageLength = message.length();
+        event.commit();
+        return translated;
+    }
+
+    /**
+     * Translates a message without the cache, for callers caching the final score of the message
+     * instead of its translation.
+     * Emits a {@link TranslationEvent} when the event is enabled in a Flight Recorder recording.
+     *
+     * @param message the message to translate
+     * @return the translated message
+     */
+    public String translateUncached(String message) {
+        TranslationEvent event = new TranslationEvent();
+        if (!event.isEnabled()) {
+            return translationApiClient.translate(message);
+        }
+        event.begin();
+        String translated = translationApiClient.translate(message);
+        event.cacheHit = false;
+        event.userId = MessageContext.currentUserId();
+        event.messageLength = message.length();
+        event.commit();
+        return translated;
+    }
+
+    private String cached(String message, Fingerprint fingerprint, Function<String, String> fetch) {
+        return fingerprint == null
+                ? cacheService.computeIfAbsent(CACHE_NAMESPACE, message, fetch)
+                : cacheService.computeIfAbsent(CACHE_NAMESPACE, fingerprint, message, fetch);
     }
-}
\ No newline at end of file
+}
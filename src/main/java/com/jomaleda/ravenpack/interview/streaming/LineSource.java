@@ -0,0 +1,19 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Live source of CSV rows for the streaming mode.
+ */
+public interface LineSource extends Closeable {
+
+    /**
+     * Waits for the next complete line.
+     *
+     * @return the line without its terminator, or null once the source has ended or was closed
+     * @throws IOException if reading fails
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    String readLine() throws IOException, InterruptedException;
+}
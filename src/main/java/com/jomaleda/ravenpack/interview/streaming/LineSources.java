@@ -0,0 +1,187 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Factory of the supported streaming sources.
+ *
+ * <ul>
+ *   <li>{@code -} reads standard input until it is closed.</li>
+ *   <li>{@code tcp:<port>} listens on the loopback interface and reads the rows sent by each
+ *   connection in turn, until the source is closed.</li>
+ *   <li>Any other value is a file within the 'data' directory that is read from the start and
+ *   then followed as it grows, like {@code tail -f}, until the source is closed.</li>
+ * </ul>
+ */
+public final class LineSources {
+    static final String STDIN = "-";
+    static final String TCP_PREFIX = "tcp:";
+
+    private LineSources() {
+    }
+
+    /**
+     * Opens the source described by the given specification.
+     *
+     * @param spec "-", "tcp:&lt;port&gt;" or a file path
+     * @param tailPollMillis interval at which a followed file is checked for new rows
+     * @return the opened source
+     * @throws IOException if the source cannot be opened
+     * @throws SecurityException if a file path is outside the allowed directory
+     * @throws IllegalArgumentException if the port is not a number
+     */
+    public static LineSource open(String spec, long tailPollMillis) throws IOException {
+        if (STDIN.equals(spec)) {
+            return new ReaderSource(System.in);
+        }
+        if (spec.startsWith(TCP_PREFIX)) {
+            return new SocketSource(Integer.parseInt(spec.substring(TCP_PREFIX.length())));
+        }
+        return new TailingFileSource(PathValidator.validate(spec), tailPollMillis);
+    }
+
+    /**
+     * Reads lines from a stream until it ends.
+     */
+    static final class ReaderSource implements LineSource {
+        private final BufferedReader reader;
+
+        ReaderSource(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Follows a growing file. Only lines terminated by a newline are returned, so a row still
+     * being written is never read half-way.
+     */
+    static final class TailingFileSource implements LineSource {
+        private final InputStream input;
+        private final long pollMillis;
+        private final byte[] buffer = new byte[8192];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int position;
+        private int limit;
+        private volatile boolean closed;
+
+        TailingFileSource(Path file, long pollMillis) throws IOException {
+            this.input = Files.newInputStream(file);
+            this.pollMillis = Math.max(1L, pollMillis);
+        }
+
+        @Override
+        public String readLine() throws IOException, InterruptedException {
+            while (!closed) {
+                while (position < limit) {
+                    byte b = buffer[position++];
+                    if (b == '\n') {
+                        return takeLine();
+                    }
+                    line.write(b);
+                }
+                int read;
+                try {
+                    read = input.read(buffer);
+                } catch (IOException e) {
+                    if (closed) {
+                        return null;
+                    }
+                    throw e;
+                }
+                if (read > 0) {
+                    position = 0;
+                    limit = read;
+                } else {
+                    Thread.sleep(pollMillis);
+                }
+            }
+            return null;
+        }
+
+        private String takeLine() {
+            byte[] bytes = line.toByteArray();
+            line.reset();
+            int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            input.close();
+        }
+    }
+
+    /**
+     * Accepts connections on a loopback port one at a time and reads their lines.
+     */
+    static final class SocketSource implements LineSource {
+        private final ServerSocket serverSocket;
+        private volatile Socket connection;
+        private BufferedReader reader;
+
+        SocketSource(int port) throws IOException {
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        }
+
+        int getLocalPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            try {
+                while (true) {
+                    if (reader == null) {
+                        Socket accepted = serverSocket.accept();
+                        connection = accepted;
+                        reader = new BufferedReader(new InputStreamReader(accepted.getInputStream(), StandardCharsets.UTF_8));
+                    }
+                    String line = reader.readLine();
+                    if (line != null) {
+                        return line;
+                    }
+                    connection.close();
+                    reader = null;
+                }
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            Socket current = connection;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
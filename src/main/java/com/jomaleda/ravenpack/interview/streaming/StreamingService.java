@@ -0,0 +1,286 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.dto.WindowReport;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.ConcurrencyBudget;
+import com.jomaleda.ravenpack.interview.service.CsvService;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service for moderating a live feed of CSV rows and reporting per-user statistics per window.
+ *
+ * <p>Rows are scored as they arrive, on the same executor, caches and global concurrency budget
+ * as file processing, and aggregated by a {@link WindowedAggregator}. A flusher writes every
+ * window whose end has passed the watermark to the output CSV file, so a row shows up in the
+ * report at most one window length plus the allowed lateness and the flush interval after it
+ * arrived. The number of rows being scored is bounded by the per-file window of the budget, which
+ * applies backpressure to the source.</p>
+ *
+ * <p>Each row has the message deadline of file processing. A row still being scored at its deadline
+ * is failed and counted as an error, so a hung call cannot hold back its window, nor every later
+ * one; its thread is interrupted, and its slot in the window is released once the call returns.</p>
+ */
+@Service
+@Slf4j
+public class StreamingService {
+    private static final String HEADER_LINE = "user_id,message";
+
+    private final CsvService csvService;
+    private final FileProcessorService fileProcessorService;
+    private final ExecutorService taskExecutor;
+    private final PipelineMetrics metrics;
+    private final ConcurrencyBudget concurrencyBudget;
+    private final ModerationProperties.Streaming settings;
+    private final long messageTimeoutMillis;
+    private volatile LineSource activeSource;
+
+    public StreamingService(CsvService csvService, FileProcessorService fileProcessorService, ExecutorService taskExecutor,
+                            PipelineMetrics metrics, ConcurrencyBudget concurrencyBudget, ModerationProperties properties) {
+        this.csvService = csvService;
+        this.fileProcessorService = fileProcessorService;
+        this.taskExecutor = taskExecutor;
+        this.metrics = metrics;
+        this.concurrencyBudget = concurrencyBudget;
+        this.settings = properties.getStreaming();
+        this.messageTimeoutMillis = properties.getDeadlines().getMessageTimeoutMillis();
+    }
+
+    /**
+     * Moderates rows from the source until it ends or {@link #stop()} is called, then writes the
+     * remaining windows.
+     *
+     * @param source "-" for standard input, "tcp:&lt;port&gt;" for a loopback socket, or a file to follow
+     * @param outputPath path of the window report CSV file (must be within 'data' directory)
+     * @return number of rows read from the source
+     * @throws IOException if the source cannot be read or the report cannot be written
+     * @throws SecurityException if a path is outside the allowed directory
+     * @throws RuntimeException if the stream is interrupted
+     */
+    public long stream(String source, String outputPath) throws IOException {
+        Path reportPath = PathValidator.validate(outputPath);
+        WindowedAggregator aggregator = new WindowedAggregator(settings.getWindowMillis(), settings.getSlideMillis(),
+                settings.getAllowedLatenessMillis(), System::currentTimeMillis);
+        ConcurrencyBudget.FileWindow window = concurrencyBudget.openFileWindow();
+        long flushInterval = Math.max(1L, settings.getFlushIntervalMillis());
+        long rows = 0;
+        ScheduledThreadPoolExecutor deadlineTimer = newDeadlineTimer();
+
+        metrics.runStarted();
+        try (WindowReportWriter writer = new WindowReportWriter(reportPath);
+             ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+             LineSource lines = LineSources.open(source, settings.getTailPollMillis())) {
+            activeSource = lines;
+            flusher.scheduleWithFixedDelay(() -> writeWindows(writer, aggregator.flush()),
+                    flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            log.info("Streaming from {} into {}", source, reportPath);
+
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank() || HEADER_LINE.equals(line.trim())) {
+                    continue;
+                }
+                InputMessage message = csvService.parseLine(line);
+                if (message.getUserId() == null || message.getUserId().trim().isEmpty()) {
+                    continue;
+                }
+                submit(message, aggregator, window, deadlineTimer);
+                rows++;
+            }
+
+            aggregator.awaitPendingRows();
+            // Stop the periodic flush first, so the last windows are written after the earlier ones.
+            flusher.close();
+            writeWindows(writer, aggregator.flushAll());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Streaming was interrupted", e);
+        } finally {
+            activeSource = null;
+            deadlineTimer.shutdownNow();
+            metrics.runFinished();
+        }
+        log.info("Stream from {} ended after {} rows", source, rows);
+        return rows;
+    }
+
+    /**
+     * Stops a running {@link #stream(String, String)} call. Rows already read are still reported.
+     */
+    @PreDestroy
+    public void stop() {
+        LineSource source = activeSource;
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                log.warn("Failed to close stream source: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void submit(InputMessage message, WindowedAggregator aggregator, ConcurrencyBudget.FileWindow window,
+                        ScheduledExecutorService deadlineTimer) throws InterruptedException {
+        window.acquire();
+        StreamRow row = new StreamRow(message, aggregator.register(), window);
+        metrics.taskSubmitted();
+        if (messageTimeoutMillis > 0) {
+            row.deadline = deadlineTimer.schedule(() -> {
+                if (row.cancel()) {
+                    log.warn("Message of user {} failed after {} ms", message.getUserId(), messageTimeoutMillis);
+                }
+            }, messageTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        try {
+            taskExecutor.execute(row);
+        } catch (RejectedExecutionException e) {
+            row.cancelDeadline();
+            if (row.settle()) {
+                row.pane.fail();
+            }
+            window.release();
+            throw e;
+        }
+    }
+
+    private void processMessage(StreamRow row) {
+        InputMessage message = row.message;
+        metrics.taskStarted();
+        try {
+            if (row.isSettled()) {
+                return; // Failed at its deadline before it started
+            }
+            float score = fileProcessorService.scoreMessage(message);
+            if (row.settle()) {
+                // Counted before the row is released, which may let the stream end before this method returns
+                metrics.recordRow();
+                row.pane.complete(message.getUserId(), score);
+            }
+        } catch (Exception e) {
+            if (!row.settle()) {
+                return; // Failed because its deadline passed, already counted
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            metrics.recordError();
+            metrics.recordRow();
+            row.pane.fail();
+            log.error("Failed to process message for user {}: {}", message.getUserId(), message.getMessage(), e);
+        } finally {
+            metrics.taskFinished();
+        }
+    }
+
+    private void writeWindows(WindowReportWriter writer, List<WindowReport> reports) {
+        try {
+            writer.write(reports);
+        } catch (IOException | RuntimeException e) {
+            // Keep the periodic flush alive; the windows of this batch are lost.
+            log.error("Failed to write window reports: {}", e.getMessage(), e);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor newDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("stream-deadlines").daemon(true).factory());
+        // Most deadlines are cancelled long before they expire; do not keep them queued until then
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Task of one row. Whichever comes first of its score and its deadline settles the row in its
+     * pane: a row failed at its deadline is never added, and a row already added is no longer failed.
+     * Failing a running row interrupts its thread; the interrupt is cleared when the task ends.
+     */
+    private final class StreamRow implements Runnable {
+        private final InputMessage message;
+        private final WindowedAggregator.Pane pane;
+        private final ConcurrencyBudget.FileWindow window;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile ScheduledFuture<?> deadline;
+        private Thread runner;
+        private boolean interrupted;
+
+        private StreamRow(InputMessage message, WindowedAggregator.Pane pane, ConcurrencyBudget.FileWindow window) {
+            this.message = message;
+            this.pane = pane;
+            this.window = window;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                processMessage(this);
+            } finally {
+                boolean clearInterrupt;
+                synchronized (this) {
+                    runner = null;
+                    clearInterrupt = interrupted;
+                }
+                if (clearInterrupt) {
+                    Thread.interrupted();
+                }
+                cancelDeadline();
+                window.release();
+            }
+        }
+
+        private boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+
+        private boolean isSettled() {
+            return settled.get();
+        }
+
+        private void cancelDeadline() {
+            ScheduledFuture<?> timer = deadline;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+
+        /**
+         * Fails the row unless it already has its score.
+         *
+         * @return true if the row was failed
+         */
+        private boolean cancel() {
+            if (!settle()) {
+                return false;
+            }
+            // Counted before the row is released, which may let the stream end before this method returns
+            metrics.recordError();
+            pane.fail();
+            synchronized (this) {
+                if (runner != null) {
+                    interrupted = true;
+                    runner.interrupt();
+                }
+            }
+            return true;
+        }
+    }
+}
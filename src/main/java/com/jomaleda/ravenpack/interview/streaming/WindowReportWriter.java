@@ -0,0 +1,58 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.dto.WindowReport;
+import com.opencsv.CSVWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends window reports to the streaming output CSV file as windows are emitted.
+ * Each batch is flushed immediately, so the file can itself be followed while the stream runs.
+ */
+class WindowReportWriter implements Closeable {
+    static final String[] HEADER = {"WINDOW_START", "WINDOW_END", "USER_ID", "TOTAL_MESSAGES", "AVG_SCORE"};
+
+    private final CSVWriter csvWriter;
+
+    WindowReportWriter(Path outputPath) throws IOException {
+        this.csvWriter = new CSVWriter(Files.newBufferedWriter(outputPath),
+                CSVWriter.DEFAULT_SEPARATOR,
+                CSVWriter.NO_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_ESCAPE_CHARACTER,
+                CSVWriter.DEFAULT_LINE_END);
+        csvWriter.writeNext(HEADER, false);
+        csvWriter.flush();
+    }
+
+    /**
+     * Writes and flushes the reports of the emitted windows.
+     *
+     * @param reports the reports, possibly empty
+     * @throws IOException if writing fails
+     */
+    synchronized void write(List<WindowReport> reports) throws IOException {
+        if (reports.isEmpty()) {
+            return;
+        }
+        for (WindowReport report : reports) {
+            csvWriter.writeNext(new String[]{
+                    Instant.ofEpochMilli(report.getWindowStart()).toString(),
+                    Instant.ofEpochMilli(report.getWindowEnd()).toString(),
+                    report.getUserId(),
+                    Integer.toString(report.getTotalMessages()),
+                    Float.toString(report.getAvgScore())
+            }, false);
+        }
+        csvWriter.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        csvWriter.close();
+    }
+}
@@ -0,0 +1,216 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.dto.WindowReport;
+import com.jomaleda.ravenpack.interview.model.UserStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates per-user statistics of a stream into tumbling or sliding windows over arrival time.
+ *
+ * <p>Rows are assigned to panes as long as the slide, so each row updates exactly one pane even
+ * when windows overlap. A window is the merge of the panes it covers and is emitted once the
+ * watermark, which trails the clock by the allowed lateness, has passed its end and all rows in
+ * its panes have been scored. Panes are dropped as soon as the last window covering them has been
+ * emitted, so the state is bounded by the window length plus the lateness, whatever the stream length.</p>
+ *
+ * <p>Rows are registered by a single reader thread; windows are emitted by a single flusher thread.
+ * Scored rows may be added to their pane from any thread.</p>
+ */
+public class WindowedAggregator {
+    private final long windowMillis;
+    private final long slideMillis;
+    private final long allowedLatenessMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private final NavigableMap<Long, Pane> panes = new TreeMap<>();
+    private final AtomicInteger pendingRows = new AtomicInteger();
+    private long nextWindowEnd = Long.MIN_VALUE;
+
+    /**
+     * @param windowMillis length of each window
+     * @param slideMillis distance between window starts, 0 for tumbling windows
+     * @param allowedLatenessMillis time the watermark trails the clock
+     * @param clock source of the current time in epoch milliseconds
+     * @throws IllegalArgumentException if the window length is not a positive multiple of the slide
+     */
+    public WindowedAggregator(long windowMillis, long slideMillis, long allowedLatenessMillis, LongSupplier clock) {
+        long slide = slideMillis <= 0 ? windowMillis : slideMillis;
+        if (windowMillis <= 0 || windowMillis % slide != 0) {
+            throw new IllegalArgumentException("Window length must be a positive multiple of the slide");
+        }
+        this.windowMillis = windowMillis;
+        this.slideMillis = slide;
+        this.allowedLatenessMillis = Math.max(0L, allowedLatenessMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a row arriving now. The row must later be completed or failed on the returned pane.
+     *
+     * @return the pane the row belongs to
+     */
+    public Pane register() {
+        lock.lock();
+        try {
+            long paneStart = Math.floorDiv(clock.getAsLong(), slideMillis) * slideMillis;
+            if (nextWindowEnd != Long.MIN_VALUE) {
+                // Never assign a row to a window already emitted, even if the clock steps back.
+                paneStart = Math.max(paneStart, nextWindowEnd - slideMillis);
+            }
+            if (panes.isEmpty()) {
+                // The first window covering this pane is the next one to emit.
+                nextWindowEnd = paneStart + slideMillis;
+            }
+            Pane pane = panes.computeIfAbsent(paneStart, start -> new Pane());
+            pane.pending.incrementAndGet();
+            pendingRows.incrementAndGet();
+            return pane;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Emits the windows that ended before the watermark and whose rows have all been scored.
+     *
+     * @return per-user reports of the emitted windows, ordered by window and user
+     */
+    public List<WindowReport> flush() {
+        return flush(clock.getAsLong() - allowedLatenessMillis);
+    }
+
+    /**
+     * Emits every remaining window, for example at the end of the stream. Rows still being scored
+     * hold back their windows, so callers should wait with {@link #awaitPendingRows()} first.
+     *
+     * @return per-user reports of the emitted windows, ordered by window and user
+     */
+    public List<WindowReport> flushAll() {
+        return flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return number of registered rows that are not completed or failed yet
+     */
+    public int pendingRows() {
+        return pendingRows.get();
+    }
+
+    /**
+     * Waits until every registered row has been completed or failed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitPendingRows() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pendingRows.get() > 0) {
+                idle.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of panes currently held in memory
+     */
+    public int paneCount() {
+        lock.lock();
+        try {
+            return panes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<WindowReport> flush(long watermark) {
+        List<WindowReport> reports = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!panes.isEmpty() && nextWindowEnd <= watermark) {
+                long windowStart = nextWindowEnd - windowMillis;
+                Collection<Pane> covered = panes.subMap(windowStart, nextWindowEnd).values();
+                if (covered.isEmpty()) {
+                    // Skip the gap to the first window covering the next pane.
+                    nextWindowEnd = panes.firstKey() + slideMillis;
+                    continue;
+                }
+                if (covered.stream().anyMatch(pane -> pane.pending.get() > 0)) {
+                    break;
+                }
+                emit(windowStart, nextWindowEnd, covered, reports);
+                nextWindowEnd += slideMillis;
+                panes.headMap(nextWindowEnd - windowMillis).clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return reports;
+    }
+
+    private void emit(long windowStart, long windowEnd, Collection<Pane> covered, List<WindowReport> reports) {
+        Map<String, UserStats> merged = new TreeMap<>();
+        for (Pane pane : covered) {
+            pane.stats.forEach((userId, stats) -> merged.computeIfAbsent(userId, id -> new UserStats(0, 0.0)).merge(stats));
+        }
+        merged.forEach((userId, stats) -> reports.add(
+                new WindowReport(windowStart, windowEnd, userId, stats.getTotalMessages(), stats.getAverageScore())));
+    }
+
+    /**
+     * Rows that arrived within one slide of time.
+     */
+    public final class Pane {
+        private final Map<String, UserStats> stats = new ConcurrentHashMap<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Pane() {
+        }
+
+        /**
+         * Adds the score of a registered row to the statistics of its user.
+         */
+        public void complete(String userId, float score) {
+            stats.compute(userId, (id, current) -> {
+                if (current == null) {
+                    return new UserStats(1, score);
+                }
+                current.addMessage(score);
+                return current;
+            });
+            finish();
+        }
+
+        /**
+         * Releases a registered row that could not be scored.
+         */
+        public void fail() {
+            finish();
+        }
+
+        private void finish() {
+            pending.decrementAndGet();
+            if (pendingRows.decrementAndGet() == 0) {
+                lock.lock();
+                try {
+                    idle.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a cache lookup. On a miss the duration includes computing the value.
+ */
+@Name("com.jomaleda.ravenpack.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Content Moderation", "Cache"})
+@Description("Lookup in the shared cache, including value computation on a miss")
+public class CacheLookupEvent extends Event {
+    @Label("Namespace")
+    public String namespace;
+
+    @Label("Key Length")
+    public int keyLength;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
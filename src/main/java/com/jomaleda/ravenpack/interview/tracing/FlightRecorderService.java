@@ -0,0 +1,82 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Service for recording a run with Java Flight Recorder.
+ *
+ * <p>The recording uses the JDK "profile" settings plus the custom moderation events, and is dumped
+ * next to the output report, replacing its ".csv" extension with "_recording.jfr". The file can be
+ * opened with JDK Mission Control.</p>
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+    static final String RECORDING_SUFFIX = "_recording.jfr";
+    private static final String SETTINGS = "profile";
+
+    private Recording recording;
+
+    /**
+     * Starts a recording for the current run. Does nothing if a recording is already active.
+     *
+     * @throws RuntimeException if the recording settings cannot be loaded
+     */
+    public synchronized void startRecording() {
+        if (recording != null) {
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration(SETTINGS));
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Failed to load Flight Recorder settings", e);
+        }
+        recording.setName("content-moderation");
+        recording.enable(MessageProcessedEvent.class);
+        recording.enable(TranslationEvent.class);
+        recording.enable(ScoringEvent.class);
+        recording.enable(CacheLookupEvent.class);
+        recording.start();
+        log.info("Flight Recorder recording started");
+    }
+
+    /**
+     * Stops the active recording and dumps it next to the output report.
+     * Does nothing if no recording is active.
+     *
+     * @param outputPath the path of the output report of the run
+     * @return the path of the recording file, or null if no recording was active
+     * @throws RuntimeException if the recording cannot be written
+     * @throws SecurityException if the recording path is outside the allowed directory
+     */
+    public synchronized Path stopRecording(String outputPath) {
+        if (recording == null) {
+            return null;
+        }
+        try (Recording finished = recording) {
+            recording = null;
+            finished.stop();
+            Path recordingPath = PathValidator.companionOf(outputPath, RECORDING_SUFFIX);
+            finished.dump(recordingPath);
+            log.info("Flight Recorder recording written to {}", recordingPath);
+            return recordingPath;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write Flight Recorder recording", e);
+        }
+    }
+
+    /**
+     * @return whether a recording is currently active
+     */
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+}
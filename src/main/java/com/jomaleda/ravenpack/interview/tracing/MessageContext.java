@@ -0,0 +1,47 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+/**
+ * The user whose message the current thread is scoring, recorded by the translation and scoring events.
+ *
+ * <p>A message is translated and scored on the thread that processes it, including the service calls
+ * made on a cache miss, so the user ID does not have to be passed through every service method.
+ * A cache lookup waiting for the same value computed for another message emits no service event.</p>
+ */
+public final class MessageContext {
+    private static final ThreadLocal<String> USER_ID = new ThreadLocal<>();
+
+    private MessageContext() {
+    }
+
+    /**
+     * Marks the current thread as scoring a message of the given user.
+     *
+     * @param userId the user ID of the message
+     * @return the user ID set before, to pass to {@link #exit(String)} once the message is scored
+     */
+    public static String enter(String userId) {
+        String previous = USER_ID.get();
+        USER_ID.set(userId);
+        return previous;
+    }
+
+    /**
+     * Restores the user ID set before the matching {@link #enter(String)}.
+     *
+     * @param previous the value returned by {@link #enter(String)}
+     */
+    public static void exit(String previous) {
+        if (previous == null) {
+            USER_ID.remove();
+        } else {
+            USER_ID.set(previous);
+        }
+    }
+
+    /**
+     * @return the user ID of the message scored by the current thread, or null outside of a message
+     */
+    public static String currentUserId() {
+        return USER_ID.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the full processing of one message: translation, scoring and aggregation.
+ * Translation, scoring and cache events emitted while the message is processed are nested in this event
+ * on the same thread.
+ */
+@Name("com.jomaleda.ravenpack.MessageProcessed")
+@Label("Message Processed")
+@Category({"Content Moderation", "Pipeline"})
+@Description("Processing of a single message through the moderation pipeline")
+public class MessageProcessedEvent extends Event {
+    @Label("User ID")
+    public String userId;
+
+    @Label("Message Length")
+    public int messageLength;
+
+    @Label("Score")
+    public float score;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,92 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Records where virtual threads pin their carrier thread, to choose the executor strategy from data.
+ *
+ * <p>Subscribes in process to the JDK {@code jdk.VirtualThreadPinned} Flight Recorder event, emitted
+ * when a virtual thread blocks while it cannot unmount, for example inside a {@code synchronized}
+ * block. Each pinning longer than the configured threshold is recorded in the {@link PipelineMetrics}
+ * under the first application frame of its stack trace, so the metrics summary lists the pinning
+ * sites of the run. Works without a Flight Recorder recording to disk.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PinningMonitor {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.jomaleda.";
+
+    private final PipelineMetrics metrics;
+    private final ModerationProperties properties;
+
+    private RecordingStream stream;
+
+    /**
+     * Starts recording pinnings, if enabled. Does nothing if already started.
+     */
+    public synchronized void start() {
+        ModerationProperties.Executor settings = properties.getExecutor();
+        if (!settings.isPinningDiagnostics() || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(settings.getPinningThresholdMillis()))
+                .withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> metrics.recordPinning(site(event), event.getDuration().toNanos()));
+        stream.startAsync();
+        log.info("Virtual thread pinning diagnostics started (threshold {}ms)", settings.getPinningThresholdMillis());
+    }
+
+    /**
+     * Stops recording, after the pinnings recorded so far have been delivered to the metrics.
+     * Does nothing if not started.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream == null) {
+            return;
+        }
+        try (RecordingStream finished = stream) {
+            stream = null;
+            finished.stop();
+        }
+        log.info("Virtual thread pinning diagnostics stopped; {} pinnings recorded", metrics.getPinnedCount());
+    }
+
+    /**
+     * Returns the first application frame of the event stack trace, or its top frame if it has none.
+     */
+    static String site(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,26 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a scoring lookup, including the remote call on a cache miss.
+ * The user ID is taken from the {@link MessageContext} of the thread.
+ */
+@Name("com.jomaleda.ravenpack.Scoring")
+@Label("Scoring")
+@Category({"Content Moderation", "Services"})
+@Description("Scoring of a message, served from the cache or the scoring API")
+public class ScoringEvent extends Event {
+    @Label("User ID")
+    public String userId;
+
+    @Label("Message Length")
+    public int messageLength;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
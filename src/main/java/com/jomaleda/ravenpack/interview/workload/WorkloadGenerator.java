@@ -0,0 +1,243 @@
+package com.jomaleda.ravenpack.interview.workload;
+
+import com.jomaleda.ravenpack.interview.service.PathValidator;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic input CSV files for load testing and capacity planning.
+ *
+ * <p>Users and messages are drawn with Zipfian skew, so a few users post most of the rows and a few
+ * messages are repeated most often, as on a real platform. Message lengths follow a log-normal
+ * distribution. A share of the rows get a unique message, which no cache can serve, and a share are
+ * malformed like real exports: unquoted commas, doubled quotes inside the message, and quoted
+ * messages with commas, all of which the input parser has to handle. Blank messages are added too.</p>
+ *
+ * <p>The output is the same for the same options and seed. Runs outside Spring:</p>
+ * <pre>./gradlew generateWorkload --args="--rows=10000000 --output=data/large_input.csv"</pre>
+ */
+@Slf4j
+public final class WorkloadGenerator {
+    private static final String HEADER = "user_id,message";
+    private static final String[] WORDS = {
+            "the", "be", "to", "of", "and", "a", "in", "that", "have", "it", "for", "not", "on", "with", "he",
+            "as", "you", "do", "at", "this", "but", "his", "by", "from", "they", "we", "say", "her", "she", "or",
+            "an", "will", "my", "one", "all", "would", "there", "their", "what", "so", "up", "out", "if", "about",
+            "who", "get", "which", "go", "me", "when", "make", "can", "like", "time", "no", "just", "him", "know",
+            "take", "people", "into", "year", "your", "good", "some", "could", "them", "see", "other", "than",
+            "then", "now", "look", "only", "come", "its", "over", "think", "also", "back", "after", "use", "two",
+            "how", "our", "work", "first", "well", "way", "even", "new", "want", "because", "any", "these", "give",
+            "day", "most", "us", "great", "platform", "message", "post", "deal", "free", "prize", "click", "offer",
+            "weather", "lunch", "vacation", "Madrid", "agree", "points", "amazing", "terrible", "awful", "love",
+            "hola", "gracias", "mensaje", "bonjour", "merci", "danke", "ciao", "obrigado"
+    };
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final String[] messagePool;
+    private final ZipfSampler users;
+    private final ZipfSampler messages;
+
+    /**
+     * Options of a generated workload, set from "--name=value" arguments with the same names in kebab case.
+     */
+    @Data
+    public static class Options {
+        /**
+         * Number of data rows.
+         */
+        private long rows = 1_000_000;
+        /**
+         * Output CSV file, within the 'data' directory.
+         */
+        private String output = "data/large_input.csv";
+        /**
+         * Number of distinct users.
+         */
+        private int users = 10_000;
+        /**
+         * Zipf exponent of the user choice. 0 is uniform, 1 is typical of user activity.
+         */
+        private double userSkew = 1.0;
+        /**
+         * Number of distinct repeated messages.
+         */
+        private int messagePool = 1_000;
+        /**
+         * Zipf exponent of the message choice.
+         */
+        private double messageSkew = 1.0;
+        /**
+         * Median message length in characters.
+         */
+        private int lengthMedian = 40;
+        /**
+         * Spread of the log-normal message length; 0 makes every message the median length.
+         */
+        private double lengthSigma = 0.6;
+        /**
+         * Maximum message length in characters.
+         */
+        private int lengthMax = 500;
+        /**
+         * Share of rows whose message appears nowhere else, between 0.0 and 1.0.
+         */
+        private double uniqueShare = 0.05;
+        /**
+         * Share of rows with commas or quotes inside the message, between 0.0 and 1.0.
+         */
+        private double malformedShare = 0.02;
+        /**
+         * Share of rows with an empty or whitespace-only message, between 0.0 and 1.0.
+         */
+        private double blankShare = 0.01;
+        /**
+         * Seed of the random choices.
+         */
+        private long seed = 42L;
+    }
+
+    public WorkloadGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getSeed());
+        this.users = new ZipfSampler(options.getUsers(), options.getUserSkew());
+        this.messages = new ZipfSampler(options.getMessagePool(), options.getMessageSkew());
+        this.messagePool = new String[options.getMessagePool()];
+        for (int i = 0; i < messagePool.length; i++) {
+            messagePool[i] = randomText(sampleLength());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = parse(args);
+        long start = System.nanoTime();
+        long rows = new WorkloadGenerator(options).generate();
+        long millis = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+        log.info("Generated {} rows in {} ms ({} rows/s) to {}", rows, millis, rows * 1000L / millis, options.getOutput());
+    }
+
+    /**
+     * Parses "--name=value" arguments into options, leaving the defaults for the options not given.
+     *
+     * @param args the arguments
+     * @return the options
+     * @throws IllegalArgumentException if an argument is unknown or its value invalid
+     */
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(2, equals)) {
+                case "rows" -> options.setRows(Long.parseLong(value));
+                case "output" -> options.setOutput(value);
+                case "users" -> options.setUsers(Integer.parseInt(value));
+                case "user-skew" -> options.setUserSkew(Double.parseDouble(value));
+                case "message-pool" -> options.setMessagePool(Integer.parseInt(value));
+                case "message-skew" -> options.setMessageSkew(Double.parseDouble(value));
+                case "length-median" -> options.setLengthMedian(Integer.parseInt(value));
+                case "length-sigma" -> options.setLengthSigma(Double.parseDouble(value));
+                case "length-max" -> options.setLengthMax(Integer.parseInt(value));
+                case "unique-share" -> options.setUniqueShare(Double.parseDouble(value));
+                case "malformed-share" -> options.setMalformedShare(Double.parseDouble(value));
+                case "blank-share" -> options.setBlankShare(Double.parseDouble(value));
+                case "seed" -> options.setSeed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Writes the header and every row to the output file.
+     *
+     * @return the number of data rows written
+     * @throws IOException if the file cannot be written
+     * @throws SecurityException if the output is outside the allowed directory
+     */
+    public long generate() throws IOException {
+        Path output = PathValidator.validate(options.getOutput());
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        double blank = options.getBlankShare();
+        double malformed = blank + options.getMalformedShare();
+        double unique = malformed + options.getUniqueShare();
+        StringBuilder row = new StringBuilder(256);
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), 1 << 20)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (long i = 0; i < options.getRows(); i++) {
+                row.setLength(0);
+                row.append("user_").append(users.sample(random)).append(',');
+                double kind = random.nextDouble();
+                if (kind < blank) {
+                    row.append(random.nextBoolean() ? "" : " ");
+                } else if (kind < malformed) {
+                    appendMalformed(row, pooledMessage());
+                } else if (kind < unique) {
+                    // The row number makes the message unique whatever text it was drawn with
+                    row.append(pooledMessage()).append(' ').append(Long.toString(i, 36));
+                } else {
+                    row.append(pooledMessage());
+                }
+                row.append('\n');
+                writer.append(row);
+            }
+        }
+        return options.getRows();
+    }
+
+    private String pooledMessage() {
+        return messagePool[messages.sample(random) - 1];
+    }
+
+    /**
+     * Appends the message in one of the malformed shapes seen in real exports.
+     */
+    private void appendMalformed(StringBuilder row, String message) {
+        int space = message.indexOf(' ');
+        String head = space < 0 ? message : message.substring(0, space);
+        String tail = space < 0 ? "" : message.substring(space + 1);
+        switch (random.nextInt(3)) {
+            // Unquoted commas: the message is everything after the first comma of the row
+            case 0 -> row.append(head).append(", ").append(tail).append(", and more");
+            // Doubled quotes around a quotation inside the message
+            case 1 -> row.append(head).append(" said, \"\"").append(tail).append("\"\" and it was great.");
+            // Properly quoted message with a comma
+            default -> row.append('"').append(head).append(", ").append(tail).append('"');
+        }
+    }
+
+    private int sampleLength() {
+        double length = options.getLengthMedian() * Math.exp(options.getLengthSigma() * random.nextGaussian());
+        return (int) Math.max(1, Math.min(options.getLengthMax(), Math.round(length)));
+    }
+
+    private String randomText(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (text.length() > length) {
+            // Cut at the last whole word, or mid-word if the first word is already too long
+            int lastSpace = text.lastIndexOf(" ", length);
+            text.setLength(lastSpace > 0 ? lastSpace : length);
+        }
+        return text.toString();
+    }
+}
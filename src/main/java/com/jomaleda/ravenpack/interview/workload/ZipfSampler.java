@@ -0,0 +1,99 @@
+package com.jomaleda.ravenpack.interview.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks from 1 to n with probability proportional to 1 / rank^exponent (Zipf's law).
+ *
+ * <p>Uses the rejection-inversion method of Hörmann and Derflinger, which takes constant time
+ * per sample and no table, so millions of ranks cost no more than a few. An exponent of 0 samples
+ * uniformly; around 1 the first ranks take a large share, as with the busiest users of a forum.</p>
+ *
+ * <p>Stateless apart from its parameters; thread-safe if the random generator passed in is.</p>
+ */
+public final class ZipfSampler {
+    private final int numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+
+    /**
+     * @param numberOfElements number of ranks, at least 1
+     * @param exponent the skew, 0 or more
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public ZipfSampler(int numberOfElements, double exponent) {
+        if (numberOfElements < 1) {
+            throw new IllegalArgumentException("Number of elements must be at least 1: " + numberOfElements);
+        }
+        if (exponent < 0.0 || Double.isNaN(exponent)) {
+            throw new IllegalArgumentException("Exponent must not be negative: " + exponent);
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    /**
+     * @param random source of randomness
+     * @return a rank between 1 and the number of elements
+     */
+    public int sample(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Integral of {@link #h(double)}, with the constant chosen so it is well defined for every exponent.
+     */
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0; // Rounding may take t just below -1
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, accurate near 0.
+     */
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, accurate near 0.
+     */
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
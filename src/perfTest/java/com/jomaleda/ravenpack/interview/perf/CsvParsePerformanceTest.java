@@ -0,0 +1,159 @@
+package com.jomaleda.ravenpack.interview.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.parsing.CsvRowReader;
+import com.jomaleda.ravenpack.interview.parsing.DelimiterScanner;
+import com.jomaleda.ravenpack.interview.parsing.DelimiterScanners;
+import com.jomaleda.ravenpack.interview.parsing.ScalarDelimiterScanner;
+import com.jomaleda.ravenpack.interview.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of the byte-level CSV parser, with the scalar delimiter scanner and with the fastest one
+ * available on this JVM. The input is generated and held in memory, so only scanning and decoding are
+ * measured. The results are written as JSON next to the report of the pipeline suite.
+ */
+class CsvParsePerformanceTest {
+    private static final Path INPUT = Path.of("data/perf_parse_input.csv");
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void read_GeneratedInput_StaysWithinBudgets() throws IOException {
+        Properties budgets = loadBudgets();
+        byte[] input = generateInput(Long.parseLong(budgets.getProperty("parse-rows")));
+        DelimiterScanner scalar = new ScalarDelimiterScanner();
+        DelimiterScanner fastest = DelimiterScanners.fastest();
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("input_bytes", input.length);
+        results.put("scanner", fastest.name());
+        double scalarScan = scanBytesPerNano(input, scalar);
+        double fastestScan = scanBytesPerNano(input, fastest);
+        double scalarParse = parseBytesPerNano(input, scalar);
+        double fastestParse = parseBytesPerNano(input, fastest);
+        results.put("scalar_scan_gb_per_second", scalarScan);
+        results.put("scan_gb_per_second", fastestScan);
+        results.put("scan_speedup", fastestScan / scalarScan);
+        // Bytes per nanosecond is GB/s; a thousand times that is MB/s
+        results.put("scalar_parse_mb_per_second", scalarParse * 1000.0);
+        results.put("parse_mb_per_second", fastestParse * 1000.0);
+
+        List<String> violations = new ArrayList<>();
+        double minParse = Double.parseDouble(budgets.getProperty("min-parse-mb-per-second"));
+        if (fastestParse * 1000.0 < minParse) {
+            violations.add(String.format("parse MB/s %.2f below min-parse-mb-per-second %.2f", fastestParse * 1000.0, minParse));
+        }
+        // The parse rate varies too much between runs to tell the scanners apart; the scan speedup does not
+        double minSpeedup = Double.parseDouble(budgets.getProperty("min-scan-speedup"));
+        if (fastestScan / scalarScan < minSpeedup) {
+            violations.add(String.format("%s scan speedup %.2f below min-scan-speedup %.2f", fastest.name(), fastestScan / scalarScan, minSpeedup));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("passed", violations.isEmpty());
+        report.put("results", results);
+        report.put("violations", violations);
+        writeReport(report);
+
+        assertTrue(violations.isEmpty(), "Performance budgets exceeded: " + String.join("; ", violations));
+    }
+
+    /**
+     * Finds every line end and the first comma of every line, as the reader does, without decoding.
+     */
+    private static double scanBytesPerNano(byte[] input, DelimiterScanner scanner) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            int lines = 0;
+            int position = 0;
+            int lineEnd;
+            while ((lineEnd = scanner.indexOfAny(input, position, input.length, (byte) '\n', (byte) '\r')) >= 0) {
+                lines += scanner.indexOf(input, position, lineEnd, (byte) ',') >= 0 ? 1 : 0;
+                position = lineEnd + 1;
+            }
+            long nanos = System.nanoTime() - start;
+            assertTrue(lines > 0);
+            if (round >= WARMUP_ROUNDS) {
+                bestNanos = Math.min(bestNanos, nanos);
+            }
+        }
+        return (double) input.length / bestNanos;
+    }
+
+    private static double parseBytesPerNano(byte[] input, DelimiterScanner scanner) throws IOException {
+        long bestNanos = Long.MAX_VALUE;
+        long expectedRows = -1L;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            long rows = 0L;
+            try (CsvRowReader reader = new CsvRowReader(new ByteArrayInputStream(input), 1 << 20, scanner, nanos -> { })) {
+                while (reader.hasNext()) {
+                    reader.next();
+                    rows++;
+                }
+            }
+            long nanos = System.nanoTime() - start;
+            if (expectedRows >= 0) {
+                assertEquals(expectedRows, rows);
+            }
+            expectedRows = rows;
+            if (round >= WARMUP_ROUNDS) {
+                bestNanos = Math.min(bestNanos, nanos);
+            }
+        }
+        return (double) input.length / bestNanos;
+    }
+
+    private static byte[] generateInput(long rows) throws IOException {
+        WorkloadGenerator.Options options = new WorkloadGenerator.Options();
+        options.setRows(rows);
+        options.setOutput(INPUT.toString());
+        try {
+            new WorkloadGenerator(options).generate();
+            return Files.readAllBytes(INPUT);
+        } finally {
+            Files.deleteIfExists(INPUT);
+        }
+    }
+
+    /**
+     * Loads the budgets file, with each value overridden by a "perf."-prefixed system property of the same name.
+     */
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = CsvParsePerformanceTest.class.getResourceAsStream("/perf-budgets.properties")) {
+            budgets.load(in);
+        }
+        for (String name : budgets.stringPropertyNames()) {
+            String override = System.getProperty("perf." + name);
+            if (override != null) {
+                budgets.setProperty(name, override);
+            }
+        }
+        return budgets;
+    }
+
+    private static void writeReport(Map<String, Object> report) throws IOException {
+        Path pipelineReport = Path.of(System.getProperty("perf.report-file", "build/reports/perf/perf-report.json"));
+        Path reportFile = pipelineReport.resolveSibling("parse-report.json");
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+    }
+}
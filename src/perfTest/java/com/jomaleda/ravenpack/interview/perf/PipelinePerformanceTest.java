@@ -0,0 +1,185 @@
+package com.jomaleda.ravenpack.interview.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.ApplicationRunner;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.metrics.LatencyHistogram;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import com.jomaleda.ravenpack.interview.workload.WorkloadGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end performance regression test: generates a large input, runs the whole pipeline on it
+ * with a fixed simulated latency, and checks throughput, per-row latency, heap, GC time and the
+ * number of downstream calls against the budgets in perf-budgets.properties. The results are
+ * written as JSON to the file named by the "perf.report-file" system property whether they pass or not.
+ */
+@SpringBootTest(properties = "spring.jmx.enabled=false")
+class PipelinePerformanceTest {
+    private static final Path INPUT = Path.of("data/perf_input.csv");
+    private static final Path OUTPUT = Path.of("data/perf_output.csv");
+
+    // Replaced so the command-line runner does not run, and exit, on startup
+    @MockBean
+    private ApplicationRunner applicationRunner;
+
+    @Autowired
+    private FileProcessorService fileProcessorService;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private ModerationProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(INPUT);
+        Files.deleteIfExists(OUTPUT);
+    }
+
+    @Test
+    void processFile_LargeInput_StaysWithinBudgets() throws IOException {
+        Properties budgets = loadBudgets();
+        generateInput(budgets);
+        long latencyMillis = Long.parseLong(budgets.getProperty("latency-millis"));
+        properties.getLatency().setMinMillis(latencyMillis);
+        properties.getLatency().setMaxMillis(latencyMillis);
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        LatencyHistogram rowLatency = metrics.getStageLatency(PipelineMetrics.Stage.ROW);
+        rowLatency.reset();
+        long translationCallsBefore = metrics.getDownstreamCalls("translation");
+        long scoringCallsBefore = metrics.getDownstreamCalls("scoring");
+        long gcMillisBefore = gcMillis();
+        long start = System.nanoTime();
+
+        ProcessingSummary summary = fileProcessorService.processFile(INPUT.toString(), OUTPUT.toString());
+
+        long durationMillis = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+        long rows = summary.getTotalMessages();
+        double rowsPerSecond = rows * 1000.0 / durationMillis;
+        double p99Millis = rowLatency.getValueAtPercentile(99.0) / 1_000_000.0;
+        // Sum of the peaks of each pool, an upper bound of the peak of the whole heap
+        long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long gcMillis = gcMillis() - gcMillisBefore;
+        long translationCalls = metrics.getDownstreamCalls("translation") - translationCallsBefore;
+        long scoringCalls = metrics.getDownstreamCalls("scoring") - scoringCallsBefore;
+
+        List<String> violations = new ArrayList<>();
+        checkAtLeast(violations, "rows per second", rowsPerSecond, budgets, "min-rows-per-second");
+        checkAtMost(violations, "p99 row latency (ms)", p99Millis, budgets, "max-row-latency-p99-millis");
+        checkAtMost(violations, "peak heap (MB)", peakHeapBytes / (1024.0 * 1024.0), budgets, "max-peak-heap-mb");
+        checkAtMost(violations, "GC time (ms)", gcMillis, budgets, "max-gc-millis");
+        checkAtMost(violations, "translation calls per row", (double) translationCalls / rows, budgets, "max-translation-calls-per-row");
+        checkAtMost(violations, "scoring calls per row", (double) scoringCalls / rows, budgets, "max-scoring-calls-per-row");
+        checkAtMost(violations, "errors", summary.getErrors(), budgets, "max-errors");
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("rows", rows);
+        results.put("users", summary.getUsers());
+        results.put("errors", summary.getErrors());
+        results.put("duration_millis", durationMillis);
+        results.put("rows_per_second", rowsPerSecond);
+        results.put("row_latency_p99_millis", p99Millis);
+        results.put("peak_heap_bytes", peakHeapBytes);
+        results.put("gc_millis", gcMillis);
+        results.put("translation_calls", translationCalls);
+        results.put("scoring_calls", scoringCalls);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("passed", violations.isEmpty());
+        report.put("results", results);
+        report.put("budgets", new LinkedHashMap<>(budgets));
+        report.put("violations", violations);
+        writeReport(report);
+
+        assertTrue(violations.isEmpty(), "Performance budgets exceeded: " + String.join("; ", violations));
+    }
+
+    /**
+     * Loads the budgets file, with each value overridden by a "perf."-prefixed system property of the same name.
+     */
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = PipelinePerformanceTest.class.getResourceAsStream("/perf-budgets.properties")) {
+            budgets.load(in);
+        }
+        for (String name : budgets.stringPropertyNames()) {
+            String override = System.getProperty("perf." + name);
+            if (override != null) {
+                budgets.setProperty(name, override);
+            }
+        }
+        return budgets;
+    }
+
+    private static void generateInput(Properties budgets) throws IOException {
+        WorkloadGenerator.Options options = new WorkloadGenerator.Options();
+        options.setRows(Long.parseLong(budgets.getProperty("rows")));
+        options.setUsers(Integer.parseInt(budgets.getProperty("users")));
+        options.setUserSkew(Double.parseDouble(budgets.getProperty("user-skew")));
+        options.setUniqueShare(Double.parseDouble(budgets.getProperty("unique-share")));
+        options.setSeed(Long.parseLong(budgets.getProperty("seed")));
+        options.setOutput(INPUT.toString());
+        new WorkloadGenerator(options).generate();
+    }
+
+    private static long gcMillis() {
+        long millis = 0L;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0L, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static void checkAtLeast(List<String> violations, String name, double value, Properties budgets, String budget) {
+        double limit = Double.parseDouble(budgets.getProperty(budget));
+        if (value < limit) {
+            violations.add(String.format("%s %.2f below %s %.2f", name, value, budget, limit));
+        }
+    }
+
+    private static void checkAtMost(List<String> violations, String name, double value, Properties budgets, String budget) {
+        double limit = Double.parseDouble(budgets.getProperty(budget));
+        if (value > limit) {
+            violations.add(String.format("%s %.2f above %s %.2f", name, value, budget, limit));
+        }
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path reportFile = Path.of(System.getProperty("perf.report-file", "build/reports/perf/perf-report.json"));
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+    }
+}
@@ -0,0 +1,147 @@
+package com.jomaleda.ravenpack.interview.aggregation;
+
+import com.jomaleda.ravenpack.interview.model.QuantileSketch;
+import com.jomaleda.ravenpack.interview.model.UserStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillingAggregatorTest {
+
+    private Path spillDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spillDirectory = Files.createTempDirectory("spill-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(spillDirectory);
+    }
+
+    @Test
+    void forEachUser_NoBudget_KeepsEverythingInMemory() throws IOException {
+        try (SpillingAggregator aggregator = new SpillingAggregator(() -> new UserStats(0, 0.0), 0, 0, 4, spillDirectory)) {
+            for (int i = 0; i < 1000; i++) {
+                aggregator.add("user" + i, 0.5);
+            }
+
+            Map<String, UserStats> users = collect(aggregator);
+
+            assertFalse(aggregator.hasSpilled());
+            assertEquals(1000, users.size());
+            assertTrue(isEmpty(spillDirectory));
+        }
+    }
+
+    @Test
+    void forEachUser_BudgetExceeded_MergesSpilledRunsPerUser() throws IOException {
+        try (SpillingAggregator aggregator = new SpillingAggregator(() -> new UserStats(0, 0.0), 2_000, 0, 4, spillDirectory)) {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 100; i++) {
+                    aggregator.add("user" + i, i % 2 == 0 ? 1.0 : 0.0);
+                }
+            }
+
+            Map<String, UserStats> users = collect(aggregator);
+
+            assertTrue(aggregator.getSpillCount() > 1);
+            assertEquals(100, users.size());
+            assertEquals(5, users.get("user0").getTotalMessages());
+            assertEquals(1.0f, users.get("user0").getAverageScore(), 0.0001f);
+            assertEquals(0.0f, users.get("user1").getAverageScore(), 0.0001f);
+        }
+    }
+
+    @Test
+    void forEachUser_ManyRuns_MergesBeyondFanIn() throws IOException {
+        int runs = SpillingAggregator.MAX_MERGE_FAN_IN * 2 + 1;
+        try (SpillingAggregator aggregator = new SpillingAggregator(() -> new UserStats(0, 0.0), 1, 0, 1, spillDirectory)) {
+            for (int i = 0; i < runs; i++) {
+                aggregator.add("user1", 1.0);
+            }
+
+            Map<String, UserStats> users = collect(aggregator);
+
+            assertEquals(runs, users.get("user1").getTotalMessages());
+        }
+    }
+
+    @Test
+    void forEachUser_Sketches_MergesScoreDistributions() throws IOException {
+        try (SpillingAggregator aggregator = new SpillingAggregator(
+                () -> new UserStats(0, 0.0, new QuantileSketch(0.02, 128)), 1, 0, 2, spillDirectory)) {
+            for (int i = 1; i <= 100; i++) {
+                aggregator.add("user1", i / 100.0);
+            }
+
+            UserStats stats = collect(aggregator).get("user1");
+
+            assertEquals(100, stats.getTotalMessages());
+            assertEquals(0.5f, stats.getScoreQuantile(0.5), 0.5f * 0.03f);
+            assertEquals(1.0f, stats.getScoreQuantile(1.0), 0.0001f);
+        }
+    }
+
+    @Test
+    void add_ConcurrentAddsWhileSpilling_LosesNoMessage() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try (SpillingAggregator aggregator = new SpillingAggregator(() -> new UserStats(0, 0.0), 5_000, 0, 4, spillDirectory)) {
+            for (int i = 0; i < 20_000; i++) {
+                String userId = "user" + (i % 500);
+                executor.execute(() -> aggregator.add(userId, 0.5));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            Map<String, UserStats> users = collect(aggregator);
+
+            assertTrue(aggregator.hasSpilled());
+            assertEquals(500, users.size());
+            assertEquals(20_000, users.values().stream().mapToInt(UserStats::getTotalMessages).sum());
+        }
+    }
+
+    @Test
+    void close_AfterSpill_DeletesSpillFiles() throws IOException {
+        SpillingAggregator aggregator = new SpillingAggregator(() -> new UserStats(0, 0.0), 1, 0, 4, spillDirectory);
+        aggregator.add("user1", 0.5);
+        aggregator.add("user2", 0.5);
+        assertFalse(isEmpty(spillDirectory));
+
+        aggregator.close();
+
+        assertTrue(isEmpty(spillDirectory));
+    }
+
+    private static Map<String, UserStats> collect(SpillingAggregator aggregator) throws IOException {
+        Map<String, UserStats> users = new HashMap<>();
+        aggregator.forEachUser((userId, stats) -> assertNull(users.put(userId, stats), "user reported twice: " + userId));
+        return users;
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.jomaleda.ravenpack.interview.aspect;
 
 import com.jomaleda.ravenpack.interview.annotation.SimulateLatency;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,10 +22,19 @@ class LatencyAspectTest {
     @Mock
     private SimulateLatency simulateLatency;
 
+    private ModerationProperties properties;
+
+    private PipelineMetrics metrics;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        latencyAspect = new LatencyAspect();
+        when(simulateLatency.value()).thenReturn("translation");
+        properties = new ModerationProperties();
+        properties.getLatency().setMinMillis(50);
+        properties.getLatency().setMaxMillis(200);
+        metrics = new PipelineMetrics();
+        latencyAspect = new LatencyAspect(properties, metrics);
     }
 
     @Test
@@ -80,4 +91,42 @@ class LatencyAspectTest {
         
         verify(joinPoint, times(3)).proceed();
     }
-}
\ No newline at end of file
+
+    @Test
+    void simulateLatency_FixedLatency_SleepsConfiguredTime() throws Throwable {
+        properties.getLatency().setMinMillis(20);
+        properties.getLatency().setMaxMillis(20);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        long startTime = System.currentTimeMillis();
+        latencyAspect.simulateLatency(joinPoint, simulateLatency);
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertTrue(duration >= 20, "Should have the fixed latency");
+        assertTrue(duration < 50, "Should not add the default latency");
+    }
+
+    @Test
+    void simulateLatency_DefaultSettings_AddsNoLatency() throws Throwable {
+        latencyAspect = new LatencyAspect(new ModerationProperties(), metrics);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        long startTime = System.currentTimeMillis();
+        latencyAspect.simulateLatency(joinPoint, simulateLatency);
+
+        assertTrue(System.currentTimeMillis() - startTime < 20, "Should not sleep by default");
+        assertEquals(1, metrics.getDownstreamCalls("translation"));
+    }
+
+    @Test
+    void simulateLatency_EveryCall_CountedAsDownstreamCall() throws Throwable {
+        properties.getLatency().setMinMillis(0);
+        properties.getLatency().setMaxMillis(0);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        latencyAspect.simulateLatency(joinPoint, simulateLatency);
+        latencyAspect.simulateLatency(joinPoint, simulateLatency);
+
+        assertEquals(2, metrics.getDownstreamCalls("translation"));
+    }
+}
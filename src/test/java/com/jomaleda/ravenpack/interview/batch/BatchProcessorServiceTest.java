@@ -0,0 +1,105 @@
+package com.jomaleda.ravenpack.interview.batch;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchProcessorServiceTest {
+
+    private final Path inputDirectory = Path.of("data/test_batch");
+    private BatchProcessorService batchProcessorService;
+
+    @Mock
+    private FileProcessorService fileProcessorService;
+
+    private ExecutorService taskExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        Files.createDirectories(inputDirectory);
+        Files.writeString(inputDirectory.resolve("a.csv"), "user_id,message\nuser1,hello");
+        Files.writeString(inputDirectory.resolve("b.csv"), "user_id,message\nuser2,world");
+        Files.writeString(inputDirectory.resolve("notes.txt"), "not a csv");
+        Files.writeString(inputDirectory.resolve("old_report.csv"), "user_id,total_messages,avg_score");
+        taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        batchProcessorService = new BatchProcessorService(fileProcessorService, taskExecutor, new ModerationProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        taskExecutor.shutdownNow();
+        try (var files = Files.list(inputDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(inputDirectory);
+    }
+
+    @Test
+    void resolveInputs_Directory_ReturnsCsvFilesExceptReports() {
+        List<Path> inputs = batchProcessorService.resolveInputs("data/test_batch");
+
+        assertEquals(List.of("a.csv", "b.csv"), inputs.stream().map(path -> path.getFileName().toString()).toList());
+    }
+
+    @Test
+    void resolveInputs_Glob_ReturnsMatchingFiles() {
+        List<Path> inputs = batchProcessorService.resolveInputs("data/test_batch/b*.csv");
+
+        assertEquals(1, inputs.size());
+        assertEquals("b.csv", inputs.get(0).getFileName().toString());
+    }
+
+    @Test
+    void resolveInputs_OutsideDataDirectory_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> batchProcessorService.resolveInputs("../outside"));
+    }
+
+    @Test
+    void processAll_WritesOneReportPerFile() {
+        when(fileProcessorService.processFile(anyString(), anyString())).thenReturn(new ProcessingSummary(1, 0, 1, 1));
+
+        Map<Path, ProcessingSummary> summaries = batchProcessorService.processAll("data/test_batch", "data/test_batch");
+
+        assertEquals(2, summaries.size());
+        verify(fileProcessorService).processFile(contains("a.csv"), endsWith("a_report.csv"));
+        verify(fileProcessorService).processFile(contains("b.csv"), endsWith("b_report.csv"));
+        verify(fileProcessorService, never()).processFile(contains("old_report.csv"), anyString());
+    }
+
+    @Test
+    void processAll_FailingFile_ContinuesWithOthers() {
+        when(fileProcessorService.processFile(contains("a.csv"), anyString())).thenThrow(new RuntimeException("boom"));
+        when(fileProcessorService.processFile(contains("b.csv"), anyString())).thenReturn(new ProcessingSummary(1, 0, 1, 1));
+
+        Map<Path, ProcessingSummary> summaries = batchProcessorService.processAll("data/test_batch", "data/test_batch");
+
+        assertEquals(1, summaries.size());
+        assertTrue(summaries.keySet().iterator().next().endsWith("b.csv"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.jomaleda.ravenpack.interview.batch;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectoryWatchServiceTest {
+
+    private final Path watchedDirectory = Path.of("data/test_watch");
+    private DirectoryWatchService directoryWatchService;
+    private Thread watcher;
+
+    @Mock
+    private BatchProcessorService batchProcessorService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        Files.createDirectories(watchedDirectory);
+        ModerationProperties properties = new ModerationProperties();
+        properties.getBatch().setSettleMillis(50);
+        when(batchProcessorService.isReport(anyString())).thenAnswer(i -> i.<String>getArgument(0).endsWith("_report.csv"));
+        when(batchProcessorService.submit(any(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        directoryWatchService = new DirectoryWatchService(batchProcessorService, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        directoryWatchService.stop();
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher.join(1000);
+        }
+        try (var files = Files.list(watchedDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(watchedDirectory);
+    }
+
+    @Test
+    void watch_ExistingFile_IsProcessed() throws IOException {
+        Path existing = Files.writeString(watchedDirectory.resolve("existing.csv"), "user_id,message\nuser1,hello");
+
+        startWatching();
+
+        verify(batchProcessorService, timeout(2000)).submit(eq(existing.toAbsolutePath()), eq("data/test_watch"));
+    }
+
+    @Test
+    void watch_NewFile_IsProcessedOnceSettled() throws Exception {
+        startWatching();
+        Thread.sleep(100);
+
+        Path dropped = Files.writeString(watchedDirectory.resolve("dropped.csv"), "user_id,message\nuser1,hello");
+
+        verify(batchProcessorService, timeout(5000)).submit(eq(dropped.toAbsolutePath()), eq("data/test_watch"));
+    }
+
+    @Test
+    void watch_ReportFile_IsIgnored() throws Exception {
+        Files.writeString(watchedDirectory.resolve("dropped_report.csv"), "user_id,total_messages,avg_score");
+
+        startWatching();
+        Thread.sleep(300);
+
+        verify(batchProcessorService, never()).submit(any(), anyString());
+    }
+
+    @Test
+    void watch_OutsideDataDirectory_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> directoryWatchService.watch("../outside", "data/test_watch"));
+    }
+
+    private void startWatching() {
+        watcher = Thread.ofVirtual().start(() -> {
+            try {
+                directoryWatchService.watch("data/test_watch", "data/test_watch");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
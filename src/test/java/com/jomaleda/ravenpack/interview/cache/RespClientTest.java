@@ -0,0 +1,126 @@
+package com.jomaleda.ravenpack.interview.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RespClientTest {
+
+    private RespTestServer server;
+    private RespClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new RespTestServer();
+        client = new RespClient("127.0.0.1", server.getPort(), 1_000, 5_000, 256, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void get_AfterSet_ReturnsValue() throws Exception {
+        client.set("key", bytes("value")).get(5, TimeUnit.SECONDS);
+
+        assertArrayEquals(bytes("value"), client.get("key").get(5, TimeUnit.SECONDS));
+        assertArrayEquals(bytes("value"), server.getValue("key"));
+    }
+
+    @Test
+    void get_MissingKey_ReturnsNull() throws Exception {
+        assertNull(client.get("missing").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void get_ManyQueuedLookups_SentAsFewMultiGets() throws Exception {
+        server.putValue("key-7", bytes("seven"));
+        // The first batch waits at the server while the others queue up in the client
+        server.setReplyDelayMillis(100);
+        List<CompletableFuture<byte[]>> lookups = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            lookups.add(client.get("key-" + i));
+        }
+
+        for (int i = 0; i < lookups.size(); i++) {
+            byte[] value = lookups.get(i).get(30, TimeUnit.SECONDS);
+            if (i == 7) {
+                assertArrayEquals(bytes("seven"), value);
+            } else {
+                assertNull(value);
+            }
+        }
+        assertEquals(1_000, server.getKeysLookedUp());
+        assertTrue(server.getCommandCount("MGET") <= 1 + (999 + 255) / 256, "MGET commands: " + server.getCommandCount("MGET"));
+        assertEquals(0, server.getCommandCount("GET"));
+    }
+
+    @Test
+    void send_LookupsAndWritesInOneBatch_PipelinesBothCommands() throws Exception {
+        server.setReplyDelayMillis(100);
+        client.get("first");
+        // Queue the next requests while the server holds the first batch
+        while (server.getCommandCount("MGET") == 0) {
+            Thread.sleep(1);
+        }
+        CompletableFuture<byte[]> write = client.set("key", bytes("value"));
+        CompletableFuture<byte[]> lookup = client.get("key");
+
+        write.get(5, TimeUnit.SECONDS);
+        lookup.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, server.getCommandCount("MGET"));
+        assertEquals(1, server.getCommandCount("MSET"));
+        assertEquals(2, client.getBatches());
+    }
+
+    @Test
+    void get_ErrorReply_FailsWithIOException() {
+        server.setFailing(true);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> client.get("key").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, failure.getCause());
+    }
+
+    @Test
+    void get_ServerUnreachable_FailsWithIOException() throws IOException {
+        server.close();
+        client.close();
+        client = new RespClient("127.0.0.1", server.getPort(), 1_000, 1_000, 256, 60_000);
+
+        ExecutionException first = assertThrows(ExecutionException.class, () -> client.get("key").get(5, TimeUnit.SECONDS));
+        ExecutionException second = assertThrows(ExecutionException.class, () -> client.get("key").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, first.getCause());
+        assertInstanceOf(IOException.class, second.getCause());
+    }
+
+    @Test
+    void get_AfterClose_Fails() {
+        client.close();
+
+        assertThrows(ExecutionException.class, () -> client.get("key").get(5, TimeUnit.SECONDS));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,161 @@
+package com.jomaleda.ravenpack.interview.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a Redis server on a loopback port, understanding GET, SET, MGET, MSET and
+ * PING, so the RESP backend can be tested without a real server. Counts the commands it receives.
+ */
+public final class RespTestServer implements Closeable {
+    private final ServerSocket serverSocket;
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> commands = new ConcurrentHashMap<>();
+    private final AtomicLong keysLookedUp = new AtomicLong();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private volatile long replyDelayMillis;
+
+    public RespTestServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @param name the command, such as "MGET"
+     * @return number of times the command was received
+     */
+    public long getCommandCount(String name) {
+        AtomicLong count = commands.get(name);
+        return count == null ? 0L : count.get();
+    }
+
+    /**
+     * @return number of keys looked up with GET and MGET
+     */
+    public long getKeysLookedUp() {
+        return keysLookedUp.get();
+    }
+
+    public byte[] getValue(String key) {
+        return values.get(key);
+    }
+
+    public void putValue(String key, byte[] value) {
+        values.put(key, value);
+    }
+
+    /**
+     * @param failing whether every command is answered with an error
+     */
+    public void setFailing(boolean failing) {
+        this.failing.set(failing);
+    }
+
+    /**
+     * @param replyDelayMillis time to wait before executing each command, to let requests queue up in the client
+     */
+    public void setReplyDelayMillis(long replyDelayMillis) {
+        this.replyDelayMillis = replyDelayMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                Thread.ofVirtual().start(() -> serve(connection));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection) {
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+            while (true) {
+                List<?> command = (List<?>) RespClient.readReply(in);
+                String name = new String((byte[]) command.get(0), StandardCharsets.UTF_8).toUpperCase();
+                commands.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+                if (replyDelayMillis > 0) {
+                    Thread.sleep(replyDelayMillis);
+                }
+                if (failing.get()) {
+                    out.write("-ERR failing on purpose\r\n".getBytes(StandardCharsets.US_ASCII));
+                } else {
+                    execute(name, command, out);
+                }
+                // Replies of pipelined commands are flushed once the client has nothing more to send
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // Connection closed by the client or the server
+        }
+    }
+
+    private void execute(String name, List<?> command, OutputStream out) throws IOException {
+        switch (name) {
+            case "PING" -> out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+            case "GET" -> {
+                keysLookedUp.incrementAndGet();
+                writeBulk(out, values.get(key(command, 1)));
+            }
+            case "SET" -> {
+                values.put(key(command, 1), (byte[]) command.get(2));
+                out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            case "MGET" -> {
+                out.write(("*" + (command.size() - 1) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (int i = 1; i < command.size(); i++) {
+                    keysLookedUp.incrementAndGet();
+                    writeBulk(out, values.get(key(command, i)));
+                }
+            }
+            case "MSET" -> {
+                for (int i = 1; i + 1 < command.size(); i += 2) {
+                    values.put(key(command, i), (byte[]) command.get(i + 1));
+                }
+                out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            default -> out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static String key(List<?> command, int index) {
+        return new String((byte[]) command.get(index), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,27 +1,38 @@
 package com.jomaleda.ravenpack.interview.config;
 
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.CacheService;
+import com.jomaleda.ravenpack.interview.service.InMemoryCacheService;
+import com.jomaleda.ravenpack.interview.service.RespCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AppConfigTest {
 
     private AppConfig appConfig;
+    private ModerationProperties properties;
 
     @BeforeEach
     void setUp() {
         appConfig = new AppConfig();
+        properties = new ModerationProperties();
     }
 
     @Test
     void taskExecutor_ReturnsExecutorService() {
-        ExecutorService executor = appConfig.taskExecutor();
+        ExecutorService executor = appConfig.taskExecutor(properties);
         
         assertNotNull(executor);
         assertFalse(executor.isShutdown());
@@ -32,7 +43,7 @@ class AppConfigTest {
 
     @Test
     void taskExecutor_SupportsTaskExecution() {
-        ExecutorService executor = appConfig.taskExecutor();
+        ExecutorService executor = appConfig.taskExecutor(properties);
         
         assertDoesNotThrow(() -> {
             executor.submit(() -> "test task");
@@ -43,12 +54,99 @@ class AppConfigTest {
 
     @Test
     void taskExecutor_MultipleCallsReturnDifferentInstances() {
-        ExecutorService executor1 = appConfig.taskExecutor();
-        ExecutorService executor2 = appConfig.taskExecutor();
+        ExecutorService executor1 = appConfig.taskExecutor(properties);
+        ExecutorService executor2 = appConfig.taskExecutor(properties);
         
         assertNotSame(executor1, executor2);
         
         executor1.shutdown();
         executor2.shutdown();
     }
-}
\ No newline at end of file
+
+    @Test
+    void taskExecutor_VirtualStrategy_RunsTasksOnVirtualThreads() throws Exception {
+        ExecutorService executor = appConfig.taskExecutor(properties);
+
+        assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+
+        executor.shutdown();
+    }
+
+    @Test
+    void taskExecutor_PlatformPoolStrategy_RunsTasksOnNamedPlatformThreads() throws Exception {
+        properties.getExecutor().setStrategy(ModerationProperties.Executor.Strategy.PLATFORM_POOL);
+        properties.getExecutor().setPoolSize(2);
+        ExecutorService executor = appConfig.taskExecutor(properties);
+
+        Thread worker = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertFalse(worker.isVirtual());
+        assertTrue(worker.isDaemon());
+        assertTrue(worker.getName().startsWith("moderation-worker-"));
+        executor.shutdown();
+    }
+
+    @Test
+    void taskExecutor_ForkJoinStrategy_UsesConfiguredParallelism() {
+        properties.getExecutor().setStrategy(ModerationProperties.Executor.Strategy.FORK_JOIN);
+        properties.getExecutor().setParallelism(3);
+        ExecutorService executor = appConfig.taskExecutor(properties);
+
+        assertEquals(3, assertInstanceOf(ForkJoinPool.class, executor).getParallelism());
+        executor.shutdown();
+    }
+
+    @Test
+    void taskExecutor_VirtualFixedParallelismStrategy_RunsTasksOnVirtualThreads() throws Exception {
+        properties.getExecutor().setStrategy(ModerationProperties.Executor.Strategy.VIRTUAL_FIXED_PARALLELISM);
+        properties.getExecutor().setParallelism(2);
+        String previous = System.getProperty(AppConfig.SCHEDULER_PARALLELISM_PROPERTY);
+        try {
+            ExecutorService executor = appConfig.taskExecutor(properties);
+
+            assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+            if (previous == null) {
+                assertEquals("2", System.getProperty(AppConfig.SCHEDULER_PARALLELISM_PROPERTY));
+            }
+            executor.shutdown();
+        } finally {
+            if (previous == null) {
+                System.clearProperty(AppConfig.SCHEDULER_PARALLELISM_PROPERTY);
+            }
+        }
+    }
+
+    @Test
+    void schedulerParallelism_ReadsCarrierPool() {
+        int parallelism = AppConfig.schedulerParallelism();
+
+        // The scheduler of this JVM may have been created with the parallelism set by another test
+        assertTrue(parallelism > 0, "Carrier threads not found");
+    }
+
+    @Test
+    void coordinationExecutor_RunsTasksOnVirtualThreads() throws Exception {
+        ExecutorService executor = appConfig.coordinationExecutor();
+
+        assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+
+        executor.shutdown();
+    }
+
+    @Test
+    void cacheService_Default_IsInMemory() {
+        CacheService cacheService = appConfig.cacheService(properties, new PipelineMetrics());
+
+        assertInstanceOf(InMemoryCacheService.class, cacheService);
+    }
+
+    @Test
+    void cacheService_RespBackend_IsRemote() {
+        properties.getCache().setBackend(ModerationProperties.Cache.Backend.RESP);
+
+        CacheService cacheService = appConfig.cacheService(properties, new PipelineMetrics());
+
+        assertInstanceOf(RespCacheService.class, cacheService);
+        cacheService.close();
+    }
+}
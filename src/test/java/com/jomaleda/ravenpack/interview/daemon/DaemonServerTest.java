@@ -0,0 +1,126 @@
+package com.jomaleda.ravenpack.interview.daemon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DaemonServerTest {
+
+    private DaemonServer daemonServer;
+
+    @Mock
+    private JobService jobService;
+
+    private ExecutorService taskExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        ModerationProperties properties = new ModerationProperties();
+        properties.getDaemon().setPort(0);
+        taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        daemonServer = new DaemonServer(jobService, properties, objectMapper, taskExecutor);
+        baseUrl = "http://127.0.0.1:" + daemonServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemonServer.stop();
+        taskExecutor.shutdownNow();
+    }
+
+    @Test
+    void health_ReturnsUp() throws Exception {
+        HttpResponse<String> response = get("/health");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("UP", objectMapper.readTree(response.body()).get("status").asText());
+    }
+
+    @Test
+    void postJob_ValidRequest_QueuesJob() throws Exception {
+        ModerationJob job = new ModerationJob("job-1", "data/in.csv", "data/out.csv");
+        when(jobService.submit("data/in.csv", "data/out.csv")).thenReturn(job);
+
+        HttpResponse<String> response = post("{\"input\": \"data/in.csv\", \"output\": \"data/out.csv\"}");
+
+        assertEquals(202, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals("job-1", body.get("id").asText());
+        assertEquals("QUEUED", body.get("status").asText());
+    }
+
+    @Test
+    void postJob_MissingFields_ReturnsBadRequest() throws Exception {
+        HttpResponse<String> response = post("{\"input\": \"data/in.csv\"}");
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(jobService);
+    }
+
+    @Test
+    void postJob_InvalidPath_ReturnsBadRequest() throws Exception {
+        when(jobService.submit("../in.csv", "data/out.csv")).thenThrow(new SecurityException("Invalid file path"));
+
+        HttpResponse<String> response = post("{\"input\": \"../in.csv\", \"output\": \"data/out.csv\"}");
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getJob_KnownAndUnknownIds() throws Exception {
+        ModerationJob job = new ModerationJob("job-1", "data/in.csv", "data/out.csv");
+        when(jobService.getJob("job-1")).thenReturn(Optional.of(job));
+        when(jobService.getJob("missing")).thenReturn(Optional.empty());
+
+        assertEquals(200, get("/jobs/job-1").statusCode());
+        assertEquals(404, get("/jobs/missing").statusCode());
+    }
+
+    @Test
+    void listJobs_ReturnsAllJobs() throws Exception {
+        when(jobService.listJobs()).thenReturn(List.of(
+                new ModerationJob("job-1", "data/a.csv", "data/a_out.csv"),
+                new ModerationJob("job-2", "data/b.csv", "data/b_out.csv")));
+
+        HttpResponse<String> response = get("/jobs");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, objectMapper.readTree(response.body()).size());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/jobs"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.jomaleda.ravenpack.interview.daemon;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+    private JobService jobService;
+
+    @Mock
+    private FileProcessorService fileProcessorService;
+
+    private ExecutorService taskExecutor;
+    private ModerationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        properties = new ModerationProperties();
+        jobService = new JobService(fileProcessorService, taskExecutor, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdownNow();
+    }
+
+    @Test
+    void submit_SuccessfulJob_ReportsSummaryAndTimings() throws InterruptedException {
+        ProcessingSummary summary = new ProcessingSummary(10, 0, 3, 5);
+        when(fileProcessorService.processFile("data/in.csv", "data/out.csv")).thenReturn(summary);
+
+        ModerationJob job = jobService.submit("data/in.csv", "data/out.csv");
+        awaitFinished(job);
+
+        assertEquals(ModerationJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(summary, job.getSummary());
+        assertTrue(job.getRunningMillis() >= 0);
+        assertEquals(job, jobService.getJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void submit_FailingJob_ReportsError() throws InterruptedException {
+        when(fileProcessorService.processFile("data/in.csv", "data/out.csv"))
+                .thenThrow(new RuntimeException("Failed to read input file"));
+
+        ModerationJob job = jobService.submit("data/in.csv", "data/out.csv");
+        awaitFinished(job);
+
+        assertEquals(ModerationJob.Status.FAILED, job.getStatus());
+        assertEquals("Failed to read input file", job.getError());
+    }
+
+    @Test
+    void submit_InvalidPath_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> jobService.submit("../outside/in.csv", "data/out.csv"));
+        assertTrue(jobService.listJobs().isEmpty());
+    }
+
+    @Test
+    void submit_MoreJobsThanSlots_QueuesExtraJobs() throws InterruptedException {
+        properties.getDaemon().setMaxConcurrentJobs(1);
+        jobService = new JobService(fileProcessorService, taskExecutor, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fileProcessorService.processFile("data/slow.csv", "data/out.csv")).thenAnswer(invocation -> {
+            release.await();
+            return new ProcessingSummary();
+        });
+        when(fileProcessorService.processFile("data/fast.csv", "data/out2.csv")).thenReturn(new ProcessingSummary());
+
+        ModerationJob slow = jobService.submit("data/slow.csv", "data/out.csv");
+        while (slow.getStatus() != ModerationJob.Status.RUNNING) {
+            Thread.sleep(5);
+        }
+        ModerationJob fast = jobService.submit("data/fast.csv", "data/out2.csv");
+        Thread.sleep(50);
+
+        assertEquals(ModerationJob.Status.QUEUED, fast.getStatus());
+        release.countDown();
+        awaitFinished(fast);
+        assertEquals(ModerationJob.Status.SUCCEEDED, fast.getStatus());
+        assertEquals(2, jobService.listJobs().size());
+    }
+
+    @Test
+    void submit_HistoryFull_EvictsOldestFinishedJob() throws InterruptedException {
+        properties.getDaemon().setJobHistory(1);
+        jobService = new JobService(fileProcessorService, taskExecutor, properties);
+        when(fileProcessorService.processFile("data/in.csv", "data/out.csv")).thenReturn(new ProcessingSummary());
+
+        ModerationJob first = jobService.submit("data/in.csv", "data/out.csv");
+        awaitFinished(first);
+        ModerationJob second = jobService.submit("data/in.csv", "data/out.csv");
+
+        assertFalse(jobService.getJob(first.getId()).isPresent());
+        assertTrue(jobService.getJob(second.getId()).isPresent());
+    }
+
+    private static void awaitFinished(ModerationJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
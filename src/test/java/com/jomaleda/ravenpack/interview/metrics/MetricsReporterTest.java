@@ -0,0 +1,64 @@
+package com.jomaleda.ravenpack.interview.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsReporterTest {
+
+    private final Path summaryFile = Path.of("data/test_report_metrics.json");
+    private PipelineMetrics metrics;
+    private ModerationProperties properties;
+    private MetricsReporter metricsReporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(Path.of("data"));
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        metricsReporter = new MetricsReporter(metrics, properties, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(summaryFile);
+    }
+
+    @Test
+    void writeSummary_Enabled_WritesJsonNextToReport() throws IOException {
+        metrics.recordRow();
+
+        metricsReporter.writeSummary("data/test_report.csv");
+
+        assertTrue(Files.exists(summaryFile));
+        JsonNode summary = new ObjectMapper().readTree(summaryFile.toFile());
+        assertEquals(1, summary.get("rows_processed").asLong());
+        assertTrue(summary.has("stage_latency_micros"));
+    }
+
+    @Test
+    void writeSummary_Disabled_WritesNothing() {
+        properties.getMetrics().setSummaryEnabled(false);
+
+        metricsReporter.writeSummary("data/test_report.csv");
+
+        assertFalse(Files.exists(summaryFile));
+    }
+
+    @Test
+    void writeSummary_InvalidPath_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> metricsReporter.writeSummary("../outside/report.csv"));
+    }
+}
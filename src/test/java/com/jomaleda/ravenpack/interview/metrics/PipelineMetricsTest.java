@@ -0,0 +1,134 @@
+package com.jomaleda.ravenpack.interview.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineMetricsTest {
+
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new PipelineMetrics();
+    }
+
+    @Test
+    void taskGauges_TrackQueuedAndRunningTasks() {
+        metrics.taskSubmitted();
+        metrics.taskSubmitted();
+        metrics.taskStarted();
+
+        assertEquals(1, metrics.getQueuedTasks());
+        assertEquals(1, metrics.getRunningTasks());
+
+        metrics.taskFinished();
+
+        assertEquals(0, metrics.getRunningTasks());
+    }
+
+    @Test
+    void recordCacheLookup_ComputesHitRatioPerNamespace() {
+        metrics.recordCacheLookup("translate", false);
+        metrics.recordCacheLookup("translate", true);
+        metrics.recordCacheLookup("score", true);
+
+        assertEquals(0.5, metrics.getCacheHitRatio("translate"));
+        assertEquals(1.0, metrics.getCacheHitRatio("score"));
+        assertEquals(0.0, metrics.getCacheHitRatio("unknown"));
+    }
+
+    @Test
+    void getRowsPerSecond_BeforeRun_ReturnsZero() {
+        metrics.recordRow();
+
+        assertEquals(0.0, metrics.getRowsPerSecond());
+    }
+
+    @Test
+    void getRowsPerSecond_AfterRun_IsPositive() throws InterruptedException {
+        metrics.runStarted();
+        metrics.recordRow();
+        Thread.sleep(5);
+        metrics.runFinished();
+
+        assertTrue(metrics.getRowsPerSecond() > 0.0);
+    }
+
+    @Test
+    void recordRow_FirstRow_RecordsTimeToFirstRow() {
+        assertEquals(0, metrics.getTimeToFirstRowMillis());
+
+        metrics.recordRow();
+        long firstRow = metrics.getTimeToFirstRowMillis();
+        metrics.recordRow();
+
+        assertTrue(firstRow > 0);
+        assertEquals(firstRow, metrics.getTimeToFirstRowMillis());
+    }
+
+    @Test
+    void getStageLatencyMicros_ConvertsFromNanos() {
+        metrics.recordStage(PipelineMetrics.Stage.TRANSLATE, 5_000);
+
+        assertEquals(5, metrics.getStageLatencyMicros("TRANSLATE", 100.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshot_ContainsAllSections() {
+        metrics.recordRow();
+        metrics.recordError();
+        metrics.recordStage(PipelineMetrics.Stage.SCORE, 1_000);
+        metrics.recordCacheLookup("score", true);
+        metrics.recordBlankSkipped();
+
+        Map<String, Object> snapshot = metrics.snapshot();
+
+        assertEquals(1L, snapshot.get("rows_processed"));
+        assertEquals(1L, snapshot.get("errors"));
+        Map<String, Object> stages = (Map<String, Object>) snapshot.get("stage_latency_micros");
+        assertEquals(PipelineMetrics.Stage.values().length, stages.size());
+        Map<String, Object> score = (Map<String, Object>) stages.get("score");
+        assertEquals(1L, score.get("count"));
+        Map<String, Object> caches = (Map<String, Object>) snapshot.get("cache");
+        assertTrue(caches.containsKey("score"));
+        Map<String, Object> fastPath = (Map<String, Object>) snapshot.get("fast_path");
+        assertEquals(1L, fastPath.get("blank_skipped"));
+        assertEquals(0L, fastPath.get("translation_skipped"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordPinning_SnapshotListsSitesByCount() {
+        metrics.recordPinning("UserStats.addMessage:34", 2_000);
+        metrics.recordPinning("CacheService.lookup:80", 1_000);
+        metrics.recordPinning("CacheService.lookup:80", 3_000);
+
+        Map<String, Object> pinning = (Map<String, Object>) metrics.snapshot().get("pinning");
+
+        assertEquals(3, metrics.getPinnedCount());
+        assertEquals("CacheService.lookup:80", pinning.keySet().iterator().next());
+        Map<String, Object> site = (Map<String, Object>) pinning.get("CacheService.lookup:80");
+        assertEquals(2L, site.get("count"));
+        assertEquals(4L, site.get("total_micros"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordDownstreamCall_CountsPerService() {
+        metrics.recordDownstreamCall("translation");
+        metrics.recordDownstreamCall("translation");
+        metrics.recordDownstreamCall("scoring");
+
+        Map<String, Object> calls = (Map<String, Object>) metrics.snapshot().get("downstream_calls");
+
+        assertEquals(2L, metrics.getDownstreamCalls("translation"));
+        assertEquals(0L, metrics.getDownstreamCalls("unknown"));
+        assertEquals(1L, calls.get("scoring"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class FingerprintTest {
+
+    @Test
+    void of_SameText_EqualFingerprints() {
+        Fingerprint first = Fingerprint.of("hello world");
+        Fingerprint second = Fingerprint.of(new StringBuilder("hello ").append("world"));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void of_KnownText_MatchesMurmur3OfUtf16Bytes() {
+        // MurmurHash3 x64 128 with seed 0 over the UTF-16LE bytes of the text
+        assertEquals("00000000000000000000000000000000", Fingerprint.of("").toString());
+        assertEquals("ee2ee18fe1bfd3877b927262d8c336c4", Fingerprint.of("hello").toString());
+        assertEquals("e012926d62d8d271a7101f5142ed7798", Fingerprint.of("hello world, this is").toString());
+    }
+
+    @Test
+    void of_DistinctTexts_DistinctFingerprints() {
+        Set<Fingerprint> fingerprints = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            fingerprints.add(Fingerprint.of("message " + i));
+        }
+
+        assertEquals(100_000, fingerprints.size());
+    }
+
+    @Test
+    void of_TextsDifferingInTail_DistinctFingerprints() {
+        assertNotEquals(Fingerprint.of("abcdefgh1"), Fingerprint.of("abcdefgh2"));
+        assertNotEquals(Fingerprint.of("abcdefghijklm"), Fingerprint.of("abcdefghijkln"));
+    }
+}
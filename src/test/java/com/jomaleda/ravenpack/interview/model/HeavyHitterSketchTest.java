@@ -0,0 +1,83 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHitterSketchTest {
+
+    @Test
+    void top_FewerKeysThanCapacity_IsExact() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(10);
+        sketch.add("user1", 0.5);
+        sketch.add("user2", 2.0);
+        sketch.add("user1", 0.5);
+        sketch.add("user3", 0.1);
+
+        List<HeavyHitterSketch.HeavyHitter> top = sketch.top(2);
+
+        assertEquals(2, top.size());
+        assertEquals("user2", top.get(0).getKey());
+        assertEquals(2.0, top.get(0).getEstimate());
+        assertEquals("user1", top.get(1).getKey());
+        assertEquals(1.0, top.get(1).getEstimate());
+        assertEquals(0.0, top.get(1).getOverestimate());
+    }
+
+    @Test
+    void top_ManyLightKeys_FindsHeavyHitters() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(50);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 10 == 0) {
+                sketch.add("heavy" + (i % 30 == 0 ? 1 : 2), 1.0);
+            } else {
+                sketch.add("light" + random.nextInt(10_000), 1.0);
+            }
+        }
+
+        List<HeavyHitterSketch.HeavyHitter> top = sketch.top(2);
+
+        assertEquals("heavy2", top.get(0).getKey());
+        assertEquals("heavy1", top.get(1).getKey());
+        for (HeavyHitterSketch.HeavyHitter hitter : top) {
+            double trueWeight = hitter.getKey().equals("heavy1") ? 3334 : 6666;
+            assertTrue(hitter.getEstimate() >= trueWeight);
+            assertTrue(hitter.getEstimate() - hitter.getOverestimate() <= trueWeight);
+        }
+    }
+
+    @Test
+    void add_NonPositiveWeight_IsIgnored() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(1);
+        sketch.add("user1", 1.0);
+        sketch.add("user2", 0.0);
+
+        assertEquals("user1", sketch.top(1).get(0).getKey());
+    }
+
+    @Test
+    void add_SketchFull_NewKeyInheritsMinimum() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(2);
+        sketch.add("user1", 5.0);
+        sketch.add("user2", 1.0);
+        sketch.add("user3", 2.0);
+
+        List<HeavyHitterSketch.HeavyHitter> top = sketch.top(2);
+
+        assertEquals("user1", top.get(0).getKey());
+        assertEquals("user3", top.get(1).getKey());
+        assertEquals(3.0, top.get(1).getEstimate());
+        assertEquals(1.0, top.get(1).getOverestimate());
+    }
+
+    @Test
+    void constructor_ZeroCapacity_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitterSketch(0));
+    }
+}
@@ -0,0 +1,120 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    @Test
+    void getQuantile_RandomScores_WithinRelativeAccuracy() {
+        Random random = new Random(42);
+        QuantileSketch sketch = new QuantileSketch(0.02, 128);
+        double[] scores = new double[10_000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = Math.round(random.nextDouble() * 1000) / 1000.0;
+            sketch.add(scores[i]);
+        }
+        Arrays.sort(scores);
+
+        for (double quantile : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            double exact = scores[(int) (quantile * (scores.length - 1))];
+            assertEquals(exact, sketch.getQuantile(quantile), exact * 0.02 + 1e-3, "quantile " + quantile);
+        }
+        assertEquals(scores[0], sketch.getQuantile(0.0));
+        assertEquals(scores[scores.length - 1], sketch.getQuantile(1.0));
+        assertEquals(10_000, sketch.getCount());
+    }
+
+    @Test
+    void getQuantile_Empty_ReturnsNaN() {
+        assertTrue(Double.isNaN(new QuantileSketch(0.02, 128).getQuantile(0.5)));
+    }
+
+    @Test
+    void getQuantile_ZeroScores_ReturnsZero() {
+        QuantileSketch sketch = new QuantileSketch(0.02, 128);
+        sketch.add(0.0);
+        sketch.add(0.0);
+        sketch.add(0.8);
+
+        assertEquals(0.0, sketch.getQuantile(0.5));
+        assertEquals(0.8, sketch.getQuantile(0.99), 0.8 * 0.02);
+    }
+
+    @Test
+    void add_WideRange_KeepsAtMostMaxBins() {
+        QuantileSketch sketch = new QuantileSketch(0.02, 16);
+        for (int i = 1; i <= 1000; i++) {
+            sketch.add(i / 1000.0);
+        }
+
+        assertEquals(16, sketch.getBinCount());
+        // High quantiles keep their accuracy when low buckets collapse
+        assertEquals(0.99, sketch.getQuantile(0.99), 0.99 * 0.02);
+    }
+
+    @Test
+    void merge_Partitions_MatchesSingleSketch() {
+        QuantileSketch whole = new QuantileSketch(0.02, 128);
+        QuantileSketch left = new QuantileSketch(0.02, 128);
+        QuantileSketch right = new QuantileSketch(0.02, 128);
+        for (int i = 0; i <= 1000; i++) {
+            double score = i / 1000.0;
+            whole.add(score);
+            (i % 3 == 0 ? left : right).add(score);
+        }
+
+        left.merge(right);
+
+        assertEquals(whole.getCount(), left.getCount());
+        for (double quantile : new double[]{0.0, 0.25, 0.5, 0.95, 1.0}) {
+            assertEquals(whole.getQuantile(quantile), left.getQuantile(quantile));
+        }
+    }
+
+    @Test
+    void merge_DifferentParameters_ThrowsException() {
+        QuantileSketch sketch = new QuantileSketch(0.02, 128);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.01, 128)));
+    }
+
+    @Test
+    void copy_IsIndependent() {
+        QuantileSketch sketch = new QuantileSketch(0.02, 128);
+        sketch.add(0.5);
+        QuantileSketch copy = sketch.copy();
+        copy.add(0.9);
+
+        assertEquals(1, sketch.getCount());
+        assertEquals(2, copy.getCount());
+    }
+
+    @Test
+    void writeTo_RoundTrip_KeepsQuantiles() throws IOException {
+        QuantileSketch sketch = new QuantileSketch(0.02, 128);
+        for (int i = 0; i <= 1000; i++) {
+            sketch.add(i / 1000.0);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        QuantileSketch read = QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(sketch.getCount(), read.getCount());
+        for (double q : new double[] {0.0, 0.1, 0.5, 0.99, 1.0}) {
+            assertEquals(sketch.getQuantile(q), read.getQuantile(q));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.jomaleda.ravenpack.interview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreReservoirTest {
+
+    /**
+     * Rejects every message once the reservoir is full.
+     */
+    private static final RandomGenerator ALWAYS_REJECT = new RandomGenerator() {
+        @Override
+        public long nextLong() {
+            return 0L;
+        }
+
+        @Override
+        public long nextLong(long bound) {
+            return bound - 1;
+        }
+    };
+
+    @Test
+    void offer_UpToCapacity_SamplesEveryMessage() {
+        ScoreReservoir reservoir = new ScoreReservoir(3);
+
+        for (int i = 0; i < 3; i++) {
+            long ticket = reservoir.offer(ALWAYS_REJECT);
+            assertNotEquals(ScoreReservoir.REJECTED, ticket);
+            reservoir.record(ticket, i);
+        }
+
+        assertEquals(3, reservoir.getTotalMessages());
+        assertEquals(3, reservoir.getSampleSize());
+        assertEquals(1.0f, reservoir.getMean(), 1e-6f);
+        assertEquals(0.0f, reservoir.getMarginOfError(1.96));
+    }
+
+    @Test
+    void offer_BeyondCapacity_CountsEveryMessageAndKeepsSampleSize() {
+        ScoreReservoir reservoir = new ScoreReservoir(10);
+        SplittableRandom random = new SplittableRandom(42);
+        int sampled = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            long ticket = reservoir.offer(random);
+            if (ticket != ScoreReservoir.REJECTED) {
+                sampled++;
+                reservoir.record(ticket, 0.5f);
+            }
+        }
+
+        assertEquals(10_000, reservoir.getTotalMessages());
+        assertEquals(10, reservoir.getSampleSize());
+        // About capacity * (1 + ln(n / capacity)), some 80 messages
+        assertTrue(sampled < 200, "sampled " + sampled);
+        assertEquals(0.5f, reservoir.getMean());
+    }
+
+    @Test
+    void offer_ManyTrials_SamplesEveryMessageWithTheSameProbability() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] inclusions = new int[100];
+        int trials = 5_000;
+
+        for (int trial = 0; trial < trials; trial++) {
+            ScoreReservoir reservoir = new ScoreReservoir(10);
+            for (int i = 0; i < inclusions.length; i++) {
+                long ticket = reservoir.offer(random);
+                if (ticket != ScoreReservoir.REJECTED) {
+                    reservoir.record(ticket, i);
+                }
+            }
+            for (int i = 0; i < inclusions.length; i++) {
+                // Every score is distinct, so the rank of each sampled message is known
+                if (reservoir.getShareAtLeast(i) - reservoir.getShareAtLeast(i + 1) > 0) {
+                    inclusions[i]++;
+                }
+            }
+        }
+
+        for (int i : new int[] {0, 9, 10, 50, 99}) {
+            double probability = (double) inclusions[i] / trials;
+            assertEquals(0.1, probability, 0.02, "message " + i);
+        }
+    }
+
+    @Test
+    void record_ReplacedMessage_IgnoresLateScore() {
+        ScoreReservoir reservoir = new ScoreReservoir(1);
+        SplittableRandom random = new SplittableRandom(1);
+        long replaced = reservoir.offer(random);
+        long ticket;
+        do {
+            ticket = reservoir.offer(random);
+        } while (ticket == ScoreReservoir.REJECTED);
+
+        reservoir.record(replaced, 0.9f);
+        assertEquals(0, reservoir.getSampleSize());
+
+        reservoir.record(ticket, 0.1f);
+        assertEquals(1, reservoir.getSampleSize());
+        assertEquals(0.1f, reservoir.getMean());
+    }
+
+    @Test
+    void getMarginOfError_PartialSample_AppliesFinitePopulationCorrection() {
+        ScoreReservoir reservoir = new ScoreReservoir(3);
+        for (int i = 1; i <= 3; i++) {
+            reservoir.record(reservoir.offer(ALWAYS_REJECT), i);
+        }
+        assertEquals(ScoreReservoir.REJECTED, reservoir.offer(ALWAYS_REJECT));
+        assertEquals(ScoreReservoir.REJECTED, reservoir.offer(ALWAYS_REJECT));
+
+        // Standard deviation 1 of 3 scores out of 5 messages: 1.96 / sqrt(3) * sqrt(2 / 4)
+        assertEquals(0.800166f, reservoir.getMarginOfError(1.96), 1e-5f);
+    }
+
+    @Test
+    void getMarginOfError_SingleScoreOfSeveralMessages_IsUnknown() {
+        ScoreReservoir reservoir = new ScoreReservoir(1);
+        reservoir.record(reservoir.offer(ALWAYS_REJECT), 0.5f);
+        reservoir.offer(ALWAYS_REJECT);
+
+        assertTrue(Float.isNaN(reservoir.getMarginOfError(1.96)));
+    }
+
+    @Test
+    void getQuantile_Sample_ReturnsNearestRank() {
+        ScoreReservoir reservoir = new ScoreReservoir(4);
+        for (float score : new float[] {0.4f, 0.1f, 0.3f, 0.2f}) {
+            reservoir.record(reservoir.offer(ALWAYS_REJECT), score);
+        }
+
+        assertEquals(0.2f, reservoir.getQuantile(0.5));
+        assertEquals(0.4f, reservoir.getQuantile(1.0));
+        assertEquals(0.75, reservoir.getShareAtLeast(0.2));
+        assertTrue(Float.isNaN(new ScoreReservoir(4).getQuantile(0.5)));
+    }
+
+    @Test
+    void zScore_CommonConfidenceLevels_MatchNormalQuantiles() {
+        assertEquals(1.644854, ScoreReservoir.zScore(0.90), 1e-6);
+        assertEquals(1.959964, ScoreReservoir.zScore(0.95), 1e-6);
+        assertEquals(2.575829, ScoreReservoir.zScore(0.99), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> ScoreReservoir.zScore(1.0));
+    }
+
+    @Test
+    void constructor_NonPositiveCapacity_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoreReservoir(0));
+    }
+}
@@ -1,6 +1,13 @@
 package com.jomaleda.ravenpack.interview.model;
 
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserStatsTest {
@@ -42,4 +49,57 @@ class UserStatsTest {
         assertEquals(5, stats.getTotalMessages());
         assertEquals(5.0f, stats.getAverageScore());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMerge() {
+        UserStats stats = new UserStats(2, 3.0);
+        UserStats other = new UserStats(3, 7.0);
+        stats.merge(other);
+        assertEquals(5, stats.getTotalMessages());
+        assertEquals(2.0f, stats.getAverageScore());
+        assertEquals(3, other.getTotalMessages());
+    }
+
+    @Test
+    void testScoreQuantileWithSketch() {
+        UserStats stats = new UserStats(0, 0.0, new QuantileSketch(0.02, 128));
+        for (int i = 1; i <= 100; i++) {
+            stats.addMessage(i / 100.0);
+        }
+        assertEquals(100, stats.getTotalMessages());
+        assertEquals(0.95f, stats.getScoreQuantile(0.95), 0.95f * 0.03f);
+    }
+
+    @Test
+    void testScoreQuantileWithoutSketch() {
+        UserStats stats = new UserStats(1, 0.5);
+        assertTrue(Float.isNaN(stats.getScoreQuantile(0.5)));
+    }
+
+    @Test
+    void testMergeWithSketches() {
+        UserStats stats = new UserStats(0, 0.0, new QuantileSketch(0.02, 128));
+        UserStats other = new UserStats(0, 0.0, new QuantileSketch(0.02, 128));
+        stats.addMessage(0.1);
+        other.addMessage(0.9);
+        other.addMessage(0.9);
+        stats.merge(other);
+        assertEquals(3, stats.getTotalMessages());
+        assertEquals(0.9f, stats.getScoreQuantile(0.5), 0.9f * 0.03f);
+    }
+
+    @Test
+    void testWriteToAndReadFrom() throws IOException {
+        UserStats stats = new UserStats(0, 0.0, new QuantileSketch(0.02, 128));
+        stats.addMessage(0.2);
+        stats.addMessage(0.8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+
+        UserStats read = UserStats.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, read.getTotalMessages());
+        assertEquals(0.5f, read.getAverageScore(), 0.001f);
+        assertEquals(0.8f, read.getScoreQuantile(1.0), 0.001f);
+    }
+}
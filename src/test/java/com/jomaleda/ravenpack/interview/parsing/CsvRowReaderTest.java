@@ -0,0 +1,91 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CsvRowReaderTest {
+
+    @Test
+    void next_MalformedRows_ParsedLikeLineParser() {
+        List<InputMessage> rows = readAll("u1,plain\nu2, Let's discuss A, B, and C. \nu3,\"quoted, text\"\n"
+                + "u4,She said, \"\"hi\"\"\nu5\nu6,\n", 1024);
+
+        assertEquals(List.of(
+                new InputMessage("u1", "plain"),
+                new InputMessage("u2", "Let's discuss A, B, and C."),
+                new InputMessage("u3", "quoted, text"),
+                new InputMessage("u4", "She said, \"\"hi\"\""),
+                new InputMessage("u5", ""),
+                new InputMessage("u6", "")), rows);
+    }
+
+    @Test
+    void next_LinesLongerThanBuffer_GrowsBuffer() {
+        String longMessage = "x".repeat(500);
+
+        List<InputMessage> rows = readAll("u1," + longMessage + "\r\nu2,short", 64);
+
+        assertEquals(List.of(new InputMessage("u1", longMessage), new InputMessage("u2", "short")), rows);
+    }
+
+    @Test
+    void next_LoneCarriageReturns_EndLines() {
+        List<InputMessage> rows = readAll("u1,a\ru2,b\r\ru3,c\r\nu4,d\r", 1024);
+
+        assertEquals(List.of(
+                new InputMessage("u1", "a"),
+                new InputMessage("u2", "b"),
+                new InputMessage("", ""),
+                new InputMessage("u3", "c"),
+                new InputMessage("u4", "d")), rows);
+    }
+
+    @Test
+    void next_CarriageReturnAtEndOfRead_WaitsForLineFeed() {
+        for (int padding = 50; padding < 70; padding++) {
+            String message = "x".repeat(padding);
+
+            List<InputMessage> rows = readAll("u1," + message + "\r\nu2,b", 64);
+
+            assertEquals(List.of(new InputMessage("u1", message), new InputMessage("u2", "b")), rows, "padding " + padding);
+        }
+    }
+
+    @Test
+    void next_MultiByteCharacters_DecodedAsUtf8() {
+        List<InputMessage> rows = readAll("usuario,¿Qué tal, señor?\n", 16);
+
+        assertEquals(List.of(new InputMessage("usuario", "¿Qué tal, señor?")), rows);
+    }
+
+    @Test
+    void next_EveryRow_ReportsParseTime() {
+        AtomicInteger parsed = new AtomicInteger();
+        CsvRowReader reader = new CsvRowReader(input("u1,a\nu2,b\n"), 1024, new ScalarDelimiterScanner(),
+                nanos -> parsed.incrementAndGet());
+
+        reader.forEachRemaining(row -> { });
+
+        assertEquals(2, parsed.get());
+        assertFalse(reader.hasNext());
+    }
+
+    private static List<InputMessage> readAll(String content, int bufferBytes) {
+        List<InputMessage> rows = new ArrayList<>();
+        new CsvRowReader(input(content), bufferBytes, DelimiterScanners.fastest(), nanos -> { }).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DelimiterScannerTest {
+
+    private final DelimiterScanner scalar = new ScalarDelimiterScanner();
+
+    @Test
+    void indexOf_Scalar_FindsFirstOccurrenceInRange() {
+        byte[] bytes = "user1,hi,there\n".getBytes();
+
+        assertEquals(5, scalar.indexOf(bytes, 0, bytes.length, (byte) ','));
+        assertEquals(8, scalar.indexOf(bytes, 6, bytes.length, (byte) ','));
+        assertEquals(-1, scalar.indexOf(bytes, 0, 5, (byte) ','));
+        assertEquals(14, scalar.indexOf(bytes, 0, bytes.length, (byte) '\n'));
+    }
+
+    @Test
+    void fastest_ScannerOfTheTestJvm_IsTheExpectedOne() {
+        // Set by the build: "scalar" for the regular tests, "vector" for the ones run with the incubator module
+        String expected = System.getProperty("parsing.expected-scanner");
+        assumeTrue(expected != null, "Run outside the build");
+
+        String name = DelimiterScanners.fastest().name();
+        assertTrue(name.startsWith(expected), "Expected the " + expected + " scanner, got " + name);
+    }
+
+    @Test
+    void indexOf_Fastest_AgreesWithScalarOnEveryRange() {
+        DelimiterScanner fastest = DelimiterScanners.fastest();
+        SplittableRandom random = new SplittableRandom(3);
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            // Sparse delimiters, so long runs without one cross whole vectors
+            bytes[i] = random.nextInt(40) == 0 ? (byte) ',' : (byte) ('a' + random.nextInt(26));
+        }
+
+        for (int from = 0; from < 200; from++) {
+            for (int to = from; to < bytes.length; to += 7) {
+                assertEquals(scalar.indexOf(bytes, from, to, (byte) ','), fastest.indexOf(bytes, from, to, (byte) ','),
+                        fastest.name() + " from " + from + " to " + to);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyBudgetTest {
+
+    @Test
+    void acquire_WithinLimit_TakesSlots() throws InterruptedException {
+        ModerationProperties properties = new ModerationProperties();
+        properties.getConcurrency().setMaxInFlight(2);
+        ConcurrencyBudget budget = new ConcurrencyBudget(properties);
+
+        budget.acquire();
+        assertEquals(1, budget.availableSlots());
+        budget.release();
+        assertEquals(2, budget.availableSlots());
+    }
+
+    @Test
+    void acquire_ZeroLimit_IsUnlimited() throws InterruptedException {
+        ModerationProperties properties = new ModerationProperties();
+        properties.getConcurrency().setMaxInFlight(0);
+        ConcurrencyBudget budget = new ConcurrencyBudget(properties);
+
+        for (int i = 0; i < 10_000; i++) {
+            budget.acquire();
+        }
+        assertEquals(-1, budget.availableSlots());
+    }
+
+    @Test
+    void fileWindow_Full_BlocksUntilRelease() throws InterruptedException {
+        ModerationProperties properties = new ModerationProperties();
+        properties.getConcurrency().setPerFileWindow(1);
+        ConcurrencyBudget.FileWindow window = new ConcurrencyBudget(properties).openFileWindow();
+        window.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            try {
+                window.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+        window.release();
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fileWindow_TryAcquireWhenFull_GivesUpAfterTimeout() throws InterruptedException {
+        ModerationProperties properties = new ModerationProperties();
+        properties.getConcurrency().setPerFileWindow(1);
+        ConcurrencyBudget.FileWindow window = new ConcurrencyBudget(properties).openFileWindow();
+
+        assertTrue(window.tryAcquire(10, TimeUnit.MILLISECONDS));
+        assertFalse(window.tryAcquire(10, TimeUnit.MILLISECONDS));
+        window.release();
+        assertTrue(window.tryAcquire(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void openFileWindow_EachFileGetsItsOwnWindow() throws InterruptedException {
+        ModerationProperties properties = new ModerationProperties();
+        properties.getConcurrency().setPerFileWindow(1);
+        ConcurrencyBudget budget = new ConcurrencyBudget(properties);
+
+        budget.openFileWindow().acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        ConcurrencyBudget.FileWindow second = budget.openFileWindow();
+        Thread.ofVirtual().start(() -> {
+            try {
+                second.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+    }
+}
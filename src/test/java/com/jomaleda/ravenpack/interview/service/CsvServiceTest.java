@@ -1,7 +1,10 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
 import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.dto.TopUserReport;
 import com.jomaleda.ravenpack.interview.dto.UserReport;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -18,12 +22,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 class CsvServiceTest {
 
     private CsvService csvService;
+    private PipelineMetrics metrics;
+    private ModerationProperties properties;
     private Path testInputFile;
     private Path testOutputFile;
 
     @BeforeEach
     void setUp() throws IOException {
-        csvService = new CsvService();
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        csvService = new CsvService(metrics, properties);
         Files.createDirectories(Path.of("data"));
         testInputFile = Path.of("data/test_input.csv");
         testOutputFile = Path.of("data/test_output.csv");
@@ -49,6 +57,66 @@ class CsvServiceTest {
         assertEquals("Test message", messageList.get(1).getMessage());
     }
 
+    @Test
+    void readMessages_ValidFile_RecordsParseLatency() throws IOException {
+        Files.writeString(testInputFile, "user_id,message\nuser1,Hello world\nuser2,Test message");
+
+        try (Stream<InputMessage> messages = csvService.readMessages("data/test_input.csv")) {
+            messages.forEach(message -> { });
+        }
+
+        assertEquals(2, metrics.getStageLatency(PipelineMetrics.Stage.PARSE).getCount());
+    }
+
+    @Test
+    void readMessages_Vectorized_ParsesLikeLineParser() throws IOException {
+        Files.writeString(testInputFile, "user_id,message\r\nuser1, Hello, world \r\nuser2,\"Quoted, message\"\n"
+                + "user3,She said, \"\"hi\"\"\n,no user\nuser4\nuser5,\n user6 ,¿Qué tal?");
+        List<InputMessage> expected;
+        try (Stream<InputMessage> messages = csvService.readMessages("data/test_input.csv")) {
+            expected = messages.toList();
+        }
+
+        properties.getParser().setVectorized(true);
+        properties.getParser().setBufferBytes(8);
+        List<InputMessage> actual;
+        try (Stream<InputMessage> messages = csvService.readMessages("data/test_input.csv")) {
+            actual = messages.toList();
+        }
+
+        assertEquals(6, expected.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void readMessages_EveryLineEnding_VectorizedParsesLikeLineParser() throws IOException {
+        for (String lineEnd : List.of("\n", "\r\n", "\r")) {
+            StringBuilder content = new StringBuilder("user_id,message").append(lineEnd);
+            for (int i = 0; i < 40; i++) {
+                // Rows of different lengths, so line ends fall at every offset of the read buffer
+                content.append("user").append(i).append(",message ").append("x".repeat(i)).append(lineEnd);
+            }
+            content.append(lineEnd).append("last,row").append(lineEnd);
+            Files.writeString(testInputFile, content);
+            properties.getParser().setVectorized(false);
+            List<InputMessage> expected;
+            try (Stream<InputMessage> messages = csvService.readMessages("data/test_input.csv")) {
+                expected = messages.toList();
+            }
+
+            properties.getParser().setVectorized(true);
+            properties.getParser().setBufferBytes(64);
+            List<InputMessage> actual;
+            try (Stream<InputMessage> messages = csvService.readMessages("data/test_input.csv")) {
+                actual = messages.toList();
+            }
+
+            String name = lineEnd.replace("\r", "\\r").replace("\n", "\\n");
+            assertEquals(41, expected.size(), name);
+            assertEquals(expected, actual, name);
+        }
+    }
+
     @Test
     void readMessages_InvalidPath_ThrowsSecurityException() {
         assertThrows(SecurityException.class, () -> 
@@ -69,6 +137,68 @@ class CsvServiceTest {
         assertTrue(content.contains("user1"));
     }
 
+    @Test
+    void writeReports_ValidData_KeepsReportFormat() throws IOException {
+        List<UserReport> reports = List.of(
+            new UserReport("user1", 5, 3.2f),
+            new UserReport("user2", 3, 0.62333333f)
+        );
+
+        csvService.writeReports("data/test_output.csv", reports);
+
+        assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID\n3.2,5,user1\n0.62333333,3,user2\n", Files.readString(testOutputFile));
+    }
+
+    @Test
+    void writeReports_Quantiles_AppendsQuantileColumns() throws IOException {
+        List<UserReport> reports = List.of(
+            new UserReport("user1", 5, 0.5f, new float[]{0.4f, 0.9f})
+        );
+
+        csvService.writeReports("data/test_output.csv", reports, List.of(0.5, 0.999));
+
+        assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID,P50,P99.9\n0.5,5,user1,0.4,0.9\n", Files.readString(testOutputFile));
+    }
+
+    @Test
+    void openReportWriter_CompleteColumn_MarksIncompleteUsers() throws IOException {
+        UserReport incomplete = new UserReport("user2", 1, 0.9f, new float[]{0.9f});
+        incomplete.setComplete(false);
+
+        try (CsvService.ReportWriter writer = csvService.openReportWriter("data/test_output.csv", List.of(0.5), true)) {
+            writer.write(new UserReport("user1", 2, 0.5f, new float[]{0.4f}));
+            writer.write(incomplete);
+        }
+
+        assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID,P50,COMPLETE\n0.5,2,user1,0.4,true\n0.9,1,user2,0.9,false\n",
+                Files.readString(testOutputFile));
+    }
+
+    @Test
+    void openReportWriter_MarginColumn_WritesMarginBeforeComplete() throws IOException {
+        UserReport sampled = new UserReport("user1", 200, 0.5f, new float[]{0.4f}, true, 0.05f);
+
+        try (CsvService.ReportWriter writer = csvService.openReportWriter("data/test_output.csv", List.of(0.5),
+                CsvService.marginColumn(0.95), true)) {
+            writer.write(sampled);
+        }
+
+        assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID,P50,AVG_SCORE_CI95,COMPLETE\n0.5,200,user1,0.4,0.05,true\n",
+                Files.readString(testOutputFile));
+    }
+
+    @Test
+    void writeTopUsers_ValidData_WritesRanking() throws IOException {
+        List<TopUserReport> ranking = List.of(
+            new TopUserReport(1, "user2", 7.0, 0.0),
+            new TopUserReport(2, "user1", 2.5, 0.5)
+        );
+
+        csvService.writeTopUsers("data/test_output.csv", "TOTAL_SCORE", ranking);
+
+        assertEquals("RANK,USER_ID,TOTAL_SCORE,MAX_OVERESTIMATE\n1,user2,7,0\n2,user1,2.5,0.5\n", Files.readString(testOutputFile));
+    }
+
     @Test
     void writeReports_InvalidPath_ThrowsSecurityException() {
         List<UserReport> reports = List.of(new UserReport("user1", 1, 1.0f));
@@ -1,20 +1,36 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
 import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.dto.ProcessingSummary;
+import com.jomaleda.ravenpack.interview.dto.TopUserReport;
+import com.jomaleda.ravenpack.interview.dto.UserReport;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -35,11 +51,18 @@ class FileProcessorServiceTest {
     
     private ExecutorService taskExecutor;
 
+    private PipelineMetrics metrics;
+
+    private ModerationProperties properties;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
-        fileProcessorService = new FileProcessorService(csvService, translationService, scoringService, taskExecutor);
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        fileProcessorService = new FileProcessorService(csvService, translationService, scoringService,
+                new MessageClassifier(properties), taskExecutor, metrics, new ConcurrencyBudget(properties), properties);
     }
 
     @Test
@@ -60,9 +83,13 @@ class FileProcessorServiceTest {
         assertDoesNotThrow(() -> fileProcessorService.processFile(inputPath, outputPath));
         
         verify(csvService).readMessages(inputPath);
-        verify(csvService).writeReports(eq(outputPath), any(List.class));
+        verify(csvService).writeReports(eq(outputPath), any(List.class), any(List.class));
         verify(translationService, times(2)).translate(anyString());
         verify(scoringService, times(2)).getScore(anyString());
+        assertEquals(2, metrics.getRowsProcessed());
+        assertEquals(0, metrics.getErrorCount());
+        assertEquals(0, metrics.getRunningTasks());
+        assertEquals(2, metrics.getStageLatency(PipelineMetrics.Stage.SCORE).getCount());
     }
 
     @Test
@@ -89,7 +116,7 @@ class FileProcessorServiceTest {
         assertDoesNotThrow(() -> fileProcessorService.processFile(inputPath, outputPath));
         
         verify(csvService).readMessages(inputPath);
-        verify(csvService).writeReports(eq(outputPath), any(List.class));
+        verify(csvService).writeReports(eq(outputPath), any(List.class), any(List.class));
     }
 
     @Test
@@ -106,9 +133,14 @@ class FileProcessorServiceTest {
         when(translationService.translate("world")).thenReturn("dlrow");
         when(scoringService.getScore("dlrow")).thenReturn(0.7f);
         
-        assertDoesNotThrow(() -> fileProcessorService.processFile(inputPath, outputPath));
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
         
-        verify(csvService).writeReports(eq(outputPath), any(List.class));
+        verify(csvService).writeReports(eq(outputPath), any(List.class), any(List.class));
+        assertEquals(2, metrics.getRowsProcessed());
+        assertEquals(1, metrics.getErrorCount());
+        assertEquals(2, summary.getTotalMessages());
+        assertEquals(1, summary.getErrors());
+        assertEquals(1, summary.getUsers());
     }
 
     @Test
@@ -126,10 +158,356 @@ class FileProcessorServiceTest {
             new StringBuilder(i.getArgument(0).toString()).reverse().toString());
         when(scoringService.getScore(anyString())).thenReturn(0.5f);
         
-        assertDoesNotThrow(() -> fileProcessorService.processFile(inputPath, outputPath));
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
         
-        verify(csvService).writeReports(eq(outputPath), any(List.class));
+        verify(csvService).writeReports(eq(outputPath), any(List.class), any(List.class));
+        assertEquals(3, summary.getTotalMessages());
+        assertEquals(0, summary.getErrors());
+        assertEquals(2, summary.getUsers());
         verify(translationService, times(3)).translate(anyString());
         verify(scoringService, times(3)).getScore(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void processFile_GlobalBudget_BoundsConcurrentMessages() throws IOException {
+        properties.getConcurrency().setMaxInFlight(2);
+        fileProcessorService = new FileProcessorService(csvService, translationService, scoringService,
+                new MessageClassifier(properties), taskExecutor, metrics, new ConcurrencyBudget(properties), properties);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.generate(() -> new InputMessage("user1", "hello")).limit(20));
+        when(translationService.translate(anyString())).thenAnswer(i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return "olleh";
+        });
+        when(scoringService.getScore(anyString())).thenReturn(0.5f);
+
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
+
+        assertEquals(20, summary.getTotalMessages());
+        assertEquals(0, summary.getErrors());
+        assertTrue(maxRunning.get() <= 2, "At most 2 messages may run at once, saw " + maxRunning.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processFile_QuantilesConfigured_ReportsScoreQuantiles() throws IOException {
+        properties.getReport().setQuantiles(List.of(0.5, 0.95));
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+        List<InputMessage> messages = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            messages.add(new InputMessage("user1", "message" + i));
+        }
+
+        when(csvService.readMessages(inputPath)).thenReturn(messages.stream());
+        when(translationService.translate(anyString())).thenAnswer(i -> i.getArgument(0));
+        when(scoringService.getScore(anyString())).thenAnswer(i ->
+                Integer.parseInt(i.<String>getArgument(0).substring("message".length())) / 100.0f);
+
+        fileProcessorService.processFile(inputPath, outputPath);
+
+        ArgumentCaptor<List<UserReport>> reports = ArgumentCaptor.forClass(List.class);
+        verify(csvService).writeReports(eq(outputPath), reports.capture(), eq(List.of(0.5, 0.95)));
+        float[] quantiles = reports.getValue().get(0).getScoreQuantiles();
+        assertEquals(2, quantiles.length);
+        assertEquals(0.5f, quantiles[0], 0.5f * 0.05f);
+        assertEquals(0.95f, quantiles[1], 0.95f * 0.05f);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processFile_TopUsersEnabled_WritesRankingNextToReport() throws IOException {
+        properties.getTopUsers().setEnabled(true);
+        properties.getTopUsers().setSize(2);
+        properties.getTopUsers().setMetric(ModerationProperties.TopUsers.Metric.OFFENSIVE_COUNT);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(
+                new InputMessage("user1", "bad"), new InputMessage("user1", "bad"), new InputMessage("user1", "good"),
+                new InputMessage("user2", "bad"), new InputMessage("user3", "good")));
+        when(translationService.translate(anyString())).thenAnswer(i -> i.getArgument(0));
+        when(scoringService.getScore("bad")).thenReturn(0.9f);
+        when(scoringService.getScore("good")).thenReturn(0.1f);
+
+        fileProcessorService.processFile(inputPath, outputPath);
+
+        ArgumentCaptor<List<TopUserReport>> ranking = ArgumentCaptor.forClass(List.class);
+        verify(csvService).writeTopUsers(endsWith("output_topk.csv"), eq("OFFENSIVE_COUNT"), ranking.capture());
+        assertEquals(List.of(new TopUserReport(1, "user1", 2.0, 0.0), new TopUserReport(2, "user2", 1.0, 0.0)),
+                ranking.getValue());
+    }
+
+    @Test
+    void processFile_MemoryBudgetExceeded_SpillsAndReportsEveryUser() throws IOException {
+        properties.getAggregation().setMemoryBudgetBytes(2_000);
+        properties.getAggregation().setSpillDirectory("data/test_spill");
+        fileProcessorService = new FileProcessorService(new CsvService(metrics, properties), translationService, scoringService,
+                new MessageClassifier(properties), taskExecutor, metrics, new ConcurrencyBudget(properties), properties);
+        Path inputFile = Path.of("data/test_spill_input.csv");
+        Path outputFile = Path.of("data/test_spill_output.csv");
+        StringBuilder input = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < 300; i++) {
+            input.append("user").append(i % 100).append(",hello\n");
+        }
+        Files.writeString(inputFile, input);
+        when(translationService.translate(anyString())).thenReturn("olleh");
+        when(scoringService.getScore(anyString())).thenReturn(0.5f);
+
+        try {
+            ProcessingSummary summary = fileProcessorService.processFile(inputFile.toString(), outputFile.toString());
+
+            assertEquals(300, summary.getTotalMessages());
+            assertEquals(0, summary.getErrors());
+            assertEquals(100, summary.getUsers());
+            List<String> lines = Files.readAllLines(outputFile);
+            assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID", lines.get(0));
+            assertEquals(101, lines.size());
+            assertTrue(lines.contains("0.5,3,user42"));
+        } finally {
+            Files.deleteIfExists(inputFile);
+            Files.deleteIfExists(outputFile);
+            Files.deleteIfExists(Path.of("data/test_spill"));
+        }
+    }
+
+    @Test
+    void processFile_FingerprintKeys_UsesOneFingerprintForBothLookups() throws IOException {
+        properties.getCache().setFingerprintKeys(true);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+        Fingerprint fingerprint = Fingerprint.of("hello");
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(new InputMessage("user1", "hello")));
+        when(translationService.translate("hello", fingerprint)).thenReturn("olleh");
+        when(scoringService.getScore("olleh", fingerprint)).thenReturn(0.5f);
+
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
+
+        assertEquals(0, summary.getErrors());
+        verify(translationService).translate("hello", fingerprint);
+        verify(scoringService).getScore("olleh", fingerprint);
+        verify(translationService, never()).translate(anyString());
+    }
+
+    @Test
+    void processFile_BlankMessages_SkipTranslationAndScoring() throws IOException {
+        properties.getFastPath().setBlankScore(0.25f);
+        properties.getFastPath().setSkipWhitespaceOnly(true);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(
+                new InputMessage("user1", ""), new InputMessage("user1", "   "), new InputMessage("user2", "hello")));
+        when(translationService.translate("hello")).thenReturn("olleh");
+        when(scoringService.getScore("olleh")).thenReturn(0.5f);
+
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
+
+        assertEquals(3, summary.getTotalMessages());
+        assertEquals(0, summary.getErrors());
+        assertEquals(2, metrics.getBlankMessagesSkipped());
+        verify(translationService, times(1)).translate(anyString());
+        verify(scoringService, times(1)).getScore(anyString());
+        assertEquals(1, metrics.getStageLatency(PipelineMetrics.Stage.TRANSLATE).getCount());
+    }
+
+    @Test
+    void processFile_TargetLanguageDetection_ScoresEnglishWithoutTranslation() throws IOException {
+        properties.getFastPath().setTargetLanguageDetection(true);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(
+                new InputMessage("user1", "This is a test message."), new InputMessage("user2", "Esto es un mensaje de prueba")));
+        when(translationService.translate("Esto es un mensaje de prueba")).thenReturn("This is a test message.");
+        when(scoringService.getScore("This is a test message.")).thenReturn(0.5f);
+
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
+
+        assertEquals(0, summary.getErrors());
+        assertEquals(1, metrics.getTranslationsSkipped());
+        verify(translationService, times(1)).translate("Esto es un mensaje de prueba");
+        verify(scoringService, times(2)).getScore("This is a test message.");
+    }
+
+    @Test
+    void processFile_FastPathDisabled_TranslatesBlankMessages() throws IOException {
+        properties.getFastPath().setEnabled(false);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(new InputMessage("user1", "")));
+        when(translationService.translate("")).thenReturn("");
+        when(scoringService.getScore("")).thenReturn(0.0f);
+
+        fileProcessorService.processFile(inputPath, outputPath);
+
+        assertEquals(0, metrics.getBlankMessagesSkipped());
+        verify(translationService).translate("");
+    }
+
+    @Test
+    void processFile_HungMessage_CancelledAtItsDeadline() throws IOException {
+        properties.getDeadlines().setMessageTimeoutMillis(500);
+        String inputPath = "data/input.csv";
+        String outputPath = "data/output.csv";
+
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(
+                new InputMessage("user1", "hello"), new InputMessage("user2", "stuck")));
+        when(translationService.translate("hello")).thenReturn("olleh");
+        when(translationService.translate("stuck")).thenAnswer(invocation -> {
+            Thread.sleep(30_000);
+            return "kcuts";
+        });
+        when(scoringService.getScore("olleh")).thenReturn(0.5f);
+
+        long start = System.currentTimeMillis();
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, outputPath);
+
+        assertTrue(System.currentTimeMillis() - start < 10_000);
+        assertEquals(2, summary.getTotalMessages());
+        assertEquals(1, summary.getErrors());
+        assertEquals(1, summary.getTimedOut());
+        assertEquals(1, summary.getUsers());
+        assertFalse(summary.isPartial());
+        assertEquals(1, metrics.getErrorCount());
+        assertEquals(1, metrics.getRowsProcessed());
+        assertEquals(1, metrics.getStageLatency(PipelineMetrics.Stage.ROW).getCount());
+    }
+
+    @Test
+    void processFile_RunDeadline_WritesPartialReportMarkingIncompleteUsers() throws IOException {
+        properties.getDeadlines().setMessageTimeoutMillis(0);
+        properties.getDeadlines().setRunTimeoutMillis(300);
+        fileProcessorService = new FileProcessorService(new CsvService(metrics, properties), translationService, scoringService,
+                new MessageClassifier(properties), taskExecutor, metrics, new ConcurrencyBudget(properties), properties);
+        Path inputFile = Path.of("data/test_deadline_input.csv");
+        Path outputFile = Path.of("data/test_deadline_output.csv");
+        Files.writeString(inputFile, "user_id,message\nuser1,hello\nuser2,hello\nuser2,stuck\n");
+        when(translationService.translate("hello")).thenReturn("olleh");
+        when(translationService.translate("stuck")).thenAnswer(invocation -> {
+            Thread.sleep(30_000);
+            return "kcuts";
+        });
+        when(scoringService.getScore("olleh")).thenReturn(0.5f);
+
+        try {
+            ProcessingSummary summary = fileProcessorService.processFile(inputFile.toString(), outputFile.toString());
+
+            assertTrue(summary.isPartial());
+            assertEquals(3, summary.getTotalMessages());
+            assertEquals(1, summary.getErrors());
+            assertEquals(1, summary.getTimedOut());
+            List<String> lines = Files.readAllLines(outputFile);
+            assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID,COMPLETE", lines.get(0));
+            assertTrue(lines.contains("0.5,1,user1,true"));
+            assertTrue(lines.contains("0.5,1,user2,false"));
+        } finally {
+            Files.deleteIfExists(inputFile);
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    @Test
+    void processFile_SampleMode_CountsEveryRowAndScoresASample() throws IOException {
+        properties.getTopUsers().setEnabled(true);
+        fileProcessorService = new FileProcessorService(new CsvService(metrics, properties), translationService, scoringService,
+                new MessageClassifier(properties), taskExecutor, metrics, new ConcurrencyBudget(properties), properties);
+        Path inputFile = Path.of("data/test_sample_input.csv");
+        Path outputFile = Path.of("data/test_sample_output.csv");
+        StringBuilder rows = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < 2_000; i++) {
+            rows.append("user1,bad\n");
+        }
+        rows.append("user2,good\nuser2,bad\n");
+        Files.writeString(inputFile, rows);
+        when(translationService.translate(anyString())).thenAnswer(i -> i.getArgument(0));
+        when(scoringService.getScore("bad")).thenReturn(0.9f);
+        when(scoringService.getScore("good")).thenReturn(0.1f);
+
+        try {
+            ProcessingSummary summary = fileProcessorService.processFile(inputFile.toString(), outputFile.toString(), 20);
+
+            assertEquals(2_002, summary.getTotalMessages());
+            assertEquals(0, summary.getErrors());
+            assertEquals(2, summary.getUsers());
+            // About 20 * (1 + ln(100)) scores for user1, and both messages of user2
+            assertTrue(summary.getScoredMessages() < 300, "scored " + summary.getScoredMessages());
+            verify(scoringService, times((int) summary.getScoredMessages())).getScore(anyString());
+            List<String> lines = Files.readAllLines(outputFile);
+            assertEquals("AVG_SCORE,TOTAL_MESSAGES,USER_ID,AVG_SCORE_CI95", lines.get(0));
+            assertTrue(lines.contains("0.9,2000,user1,0.0"), lines.toString());
+            assertTrue(lines.contains("0.5,2,user2,0.0"), lines.toString());
+            // Ranked by the estimated total score of every message, not of the sample only
+            assertEquals("1,user1,1800.0,0", Files.readAllLines(Path.of("data/test_sample_output_topk.csv")).get(1));
+        } finally {
+            Files.deleteIfExists(inputFile);
+            Files.deleteIfExists(outputFile);
+            Files.deleteIfExists(Path.of("data/test_sample_output_topk.csv"));
+        }
+    }
+
+    @Test
+    void processFile_ResultCache_ScoresRepeatedMessageWithOneLookup() throws IOException {
+        properties.getCache().setResultCacheEnabled(true);
+        CacheService cacheService = new InMemoryCacheService(metrics);
+        TranslationApiClient translationApiClient = mock(TranslationApiClient.class);
+        ScoringApiClient scoringApiClient = mock(ScoringApiClient.class);
+        when(translationApiClient.translate("hola")).thenReturn("aloh");
+        when(scoringApiClient.score("aloh")).thenReturn(0.5f);
+        fileProcessorService = new FileProcessorService(csvService, new TranslationService(cacheService, translationApiClient),
+                new ScoringService(cacheService, scoringApiClient), new MessageClassifier(properties), taskExecutor,
+                metrics, new ConcurrencyBudget(properties), properties);
+        String inputPath = "data/input.csv";
+        when(csvService.readMessages(inputPath)).thenReturn(Stream.of(
+                new InputMessage("user1", "hola"), new InputMessage("user2", "hola"), new InputMessage("user1", "hola")));
+
+        ProcessingSummary summary = fileProcessorService.processFile(inputPath, "data/output.csv");
+
+        assertEquals(0, summary.getErrors());
+        verify(translationApiClient, times(1)).translate("hola");
+        verify(scoringApiClient, times(1)).score("aloh");
+        // Neither the translation nor the score of the translated text is kept
+        assertEquals(2.0 / 3.0, metrics.getCacheHitRatio("result"), 1e-9);
+        assertEquals(Set.of("result"), ((Map<?, ?>) metrics.snapshot().get("cache")).keySet());
+    }
+
+    @Test
+    void processFile_ResultCacheKeepingTranslations_ScoresConcurrentRepeatsOnce() throws IOException {
+        properties.getCache().setResultCacheEnabled(true);
+        properties.getCache().setResultCacheKeepTranslations(true);
+        CacheService cacheService = new InMemoryCacheService(metrics);
+        TranslationApiClient translationApiClient = mock(TranslationApiClient.class);
+        ScoringApiClient scoringApiClient = mock(ScoringApiClient.class);
+        when(translationApiClient.translate(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            return new StringBuilder(invocation.<String>getArgument(0)).reverse().toString();
+        });
+        when(scoringApiClient.score(anyString())).thenReturn(0.5f);
+        fileProcessorService = new FileProcessorService(csvService, new TranslationService(cacheService, translationApiClient),
+                new ScoringService(cacheService, scoringApiClient), new MessageClassifier(properties), taskExecutor,
+                metrics, new ConcurrencyBudget(properties), properties);
+        List<InputMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            messages.add(new InputMessage("user" + i % 7, "message " + i % 500));
+        }
+        String inputPath = "data/input.csv";
+        when(csvService.readMessages(inputPath)).thenReturn(messages.stream());
+
+        ProcessingSummary summary = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> fileProcessorService.processFile(inputPath, "data/output.csv"));
+
+        assertEquals(4_000, summary.getTotalMessages());
+        assertEquals(0, summary.getErrors());
+        verify(translationApiClient, times(500)).translate(anyString());
+        verify(scoringApiClient, times(500)).score(anyString());
+        assertEquals(Set.of("result", "translate"), ((Map<?, ?>) metrics.snapshot().get("cache")).keySet());
+    }
+}
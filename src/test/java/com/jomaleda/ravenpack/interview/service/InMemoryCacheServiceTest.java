@@ -0,0 +1,174 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCacheServiceTest {
+
+    private CacheService cacheService;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new PipelineMetrics();
+        cacheService = new InMemoryCacheService(metrics);
+    }
+
+    @Test
+    void computeIfAbsent_NewKey_CallsSupplier() {
+        String key = "test-key";
+        String expectedValue = "test-value";
+        
+        String result = cacheService.computeIfAbsent(key, k -> expectedValue);
+        
+        assertEquals(expectedValue, result);
+    }
+
+    @Test
+    void computeIfAbsent_ExistingKey_ReturnsCachedValue() {
+        String key = "cached-key";
+        String firstValue = "first-value";
+        String secondValue = "second-value";
+        
+        String result1 = cacheService.computeIfAbsent(key, k -> firstValue);
+        String result2 = cacheService.computeIfAbsent(key, k -> secondValue);
+        
+        assertEquals(firstValue, result1);
+        assertEquals(firstValue, result2);
+    }
+
+    @Test
+    void computeIfAbsent_DifferentTypes_WorksCorrectly() {
+        String stringResult = cacheService.computeIfAbsent("string-key", k -> "string-value");
+        Float floatResult = cacheService.computeIfAbsent("float-key", k -> 1.5f);
+        
+        assertEquals("string-value", stringResult);
+        assertEquals(1.5f, floatResult);
+    }
+
+    @Test
+    void computeIfAbsent_Namespace_SuppliesOriginalKey() {
+        String result = cacheService.computeIfAbsent("translate", "hello", k -> k + "-computed");
+
+        assertEquals("hello-computed", result);
+    }
+
+    @Test
+    void computeIfAbsent_Namespaces_AreIsolated() {
+        String translated = cacheService.computeIfAbsent("translate", "hello", k -> "translated");
+        String scored = cacheService.computeIfAbsent("score", "hello", k -> "scored");
+
+        assertEquals("translated", translated);
+        assertEquals("scored", scored);
+    }
+
+    @Test
+    void computeIfAbsent_Namespace_RecordsHitsAndMisses() {
+        cacheService.computeIfAbsent("score", "hello", k -> 0.5f);
+        cacheService.computeIfAbsent("score", "hello", k -> 0.5f);
+        cacheService.computeIfAbsent("score", "hello", k -> 0.5f);
+
+        assertEquals(2.0 / 3.0, metrics.getCacheHitRatio("score"), 1e-9);
+        assertEquals(0.0, metrics.getCacheHitRatio("translate"));
+    }
+
+    @Test
+    void computeIfAbsent_Fingerprint_SuppliesKeyAndCachesByFingerprint() {
+        Fingerprint fingerprint = Fingerprint.of("hello");
+
+        String first = cacheService.computeIfAbsent("translate", fingerprint, "hello", k -> k + "-computed");
+        String second = cacheService.computeIfAbsent("translate", Fingerprint.of("hello"), "hello", k -> "recomputed");
+
+        assertEquals("hello-computed", first);
+        assertEquals("hello-computed", second);
+        assertEquals(0.5, metrics.getCacheHitRatio("translate"), 1e-9);
+    }
+
+    @Test
+    void computeIfAbsent_Fingerprint_NamespacesAreIsolated() {
+        Fingerprint fingerprint = Fingerprint.of("hello");
+
+        String translated = cacheService.computeIfAbsent("translate", fingerprint, "hello", k -> "translated");
+        String scored = cacheService.computeIfAbsent("score", fingerprint, "hello", k -> "scored");
+
+        assertEquals("translated", translated);
+        assertEquals("scored", scored);
+    }
+
+    @Test
+    void computeIfAbsent_SupplierLooksUpOtherNamespace_ComputesBothValues() {
+        // Enough keys for some entries of both namespaces to share a hash bin
+        for (int i = 0; i < 10_000; i++) {
+            String message = "message " + i;
+            float score = cacheService.computeIfAbsent("result", message,
+                    original -> cacheService.computeIfAbsent("translate", original, k -> "translated " + k).length() / 100f);
+
+            assertEquals(("translated " + message).length() / 100f, score);
+        }
+        assertEquals(0.0, metrics.getCacheHitRatio("translate"));
+    }
+
+    @Test
+    void computeIfAbsent_ConcurrentLookupsOfSameKey_CallSupplierOnce() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> cacheService.computeIfAbsent("score", "hello", k -> {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0.5f;
+            })));
+        }
+        Thread.sleep(50);
+        // A slow supplier does not block lookups of other keys
+        Float other = cacheService.computeIfAbsent("score", "other", k -> 0.1f);
+        assertEquals(0.1f, other);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, calls.get());
+        // The lookups that waited count as hits: 7 of the 9 lookups did not call a supplier
+        assertEquals(7.0 / 9.0, metrics.getCacheHitRatio("score"), 1e-9);
+    }
+
+    @Test
+    void computeIfAbsent_SupplierFails_WaitingLookupComputesValueItself() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        Thread failing = Thread.ofVirtual().start(() -> assertThrows(IllegalStateException.class,
+                () -> cacheService.computeIfAbsent("score", "hello", k -> {
+                    started.countDown();
+                    try {
+                        fail.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("Scoring service unavailable");
+                })));
+        started.await();
+        Float[] result = new Float[1];
+        Thread waiting = Thread.ofVirtual().start(() -> result[0] = cacheService.computeIfAbsent("score", "hello", k -> 0.5f));
+        Thread.sleep(50);
+        fail.countDown();
+        failing.join();
+        waiting.join();
+
+        assertEquals(0.5f, result[0]);
+    }
+}
@@ -0,0 +1,90 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageClassifierTest {
+
+    private ModerationProperties properties;
+    private MessageClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ModerationProperties();
+        properties.getFastPath().setTargetLanguageDetection(true);
+        classifier = new MessageClassifier(properties);
+    }
+
+    @Test
+    void classify_EmptyMessages_ReturnsBlank() {
+        assertEquals(MessageClassifier.Classification.BLANK, classifier.classify(null));
+        assertEquals(MessageClassifier.Classification.BLANK, classifier.classify(""));
+    }
+
+    @Test
+    void classify_WhitespaceOnlyMessage_ReturnsBlankOnlyWhenConfigured() {
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify(" \t "));
+
+        properties.getFastPath().setSkipWhitespaceOnly(true);
+
+        assertEquals(MessageClassifier.Classification.BLANK, classifier.classify(" \t "));
+    }
+
+    @Test
+    void classify_QuotedWhitespaceMessage_KeepsBaselineScore() {
+        InputMessage message = new CsvService(new PipelineMetrics(), properties).parseLine("user1,\"  \"");
+
+        assertEquals("  ", message.getMessage());
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify(message.getMessage()));
+        // The score the baseline gave it: "  ".hashCode() % 1001 / 1000
+        String translated = new TranslationApiClient().translate(message.getMessage());
+        assertEquals(0.023f, new ScoringApiClient().score(translated));
+    }
+
+    @Test
+    void classify_EnglishMessages_ReturnsTargetLanguage() {
+        assertEquals(MessageClassifier.Classification.TARGET_LANGUAGE, classifier.classify("This is a test message."));
+        assertEquals(MessageClassifier.Classification.TARGET_LANGUAGE, classifier.classify("What's everyone having for lunch?"));
+        assertEquals(MessageClassifier.Classification.TARGET_LANGUAGE, classifier.classify("The weather in Madrid is lovely today."));
+    }
+
+    @Test
+    void classify_OtherLanguagesAndScrambledText_ReturnsTranslate() {
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify("Esto es un mensaje de prueba"));
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify("Ich habe heute keine Zeit für dich"));
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify(".egassem tset a si sihT"));
+    }
+
+    @Test
+    void classify_ShortMessage_ReturnsTranslate() {
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify("the"));
+    }
+
+    @Test
+    void classify_DetectionDisabled_OnlyRecognizesBlank() {
+        properties.getFastPath().setTargetLanguageDetection(false);
+
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify("This is a test message."));
+        assertEquals(MessageClassifier.Classification.BLANK, classifier.classify(""));
+    }
+
+    @Test
+    void classify_FastPathDisabled_AlwaysReturnsTranslate() {
+        properties.getFastPath().setEnabled(false);
+
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify(""));
+        assertEquals(MessageClassifier.Classification.TRANSLATE, classifier.classify("This is a test message."));
+    }
+
+    @Test
+    void targetLanguageShare_NonLatinLetters_ReturnsZero() {
+        assertEquals(0.0, MessageClassifier.targetLanguageShare("これはテストメッセージです", 1));
+        assertTrue(MessageClassifier.targetLanguageShare("this is the thing", 1) > 0.5);
+    }
+}
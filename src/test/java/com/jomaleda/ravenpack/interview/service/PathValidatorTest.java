@@ -0,0 +1,39 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathValidatorTest {
+
+    @Test
+    void validate_PathInsideDataDirectory_ReturnsAbsolutePath() {
+        Path path = PathValidator.validate("data/input.csv");
+
+        assertTrue(path.isAbsolute());
+        assertTrue(path.endsWith(Path.of("data", "input.csv")));
+    }
+
+    @Test
+    void validate_PathTraversal_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> PathValidator.validate("data/../../etc/passwd"));
+    }
+
+    @Test
+    void companionOf_CsvReport_ReplacesExtension() {
+        Path path = PathValidator.companionOf("data/output.csv", "_metrics.json");
+
+        assertEquals("output_metrics.json", path.getFileName().toString());
+    }
+
+    @Test
+    void companionOf_ReportWithoutExtension_AppendsSuffix() {
+        Path path = PathValidator.companionOf("data/output", "_metrics.json");
+
+        assertEquals("output_metrics.json", path.getFileName().toString());
+    }
+}
@@ -0,0 +1,144 @@
+package com.jomaleda.ravenpack.interview.service;
+
+import com.jomaleda.ravenpack.interview.cache.RespTestServer;
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RespCacheServiceTest {
+
+    private RespTestServer server;
+    private PipelineMetrics metrics;
+    private ModerationProperties properties;
+    private RespCacheService cacheService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new RespTestServer();
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        properties.getCache().setBackend(ModerationProperties.Cache.Backend.RESP);
+        properties.getCache().getRemote().setPort(server.getPort());
+        properties.getCache().getRemote().setTimeoutMillis(5_000);
+        cacheService = new RespCacheService(metrics, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cacheService.close();
+        server.close();
+    }
+
+    @Test
+    void computeIfAbsent_SecondJvm_ReusesValueComputedByFirst() {
+        RespCacheService otherJvm = new RespCacheService(new PipelineMetrics(), properties);
+        try {
+            String first = cacheService.computeIfAbsent("translate", "hola", k -> "hello");
+            awaitWrite("moderation:translate:hola");
+            String second = otherJvm.computeIfAbsent("translate", "hola", k -> "recomputed");
+
+            assertEquals("hello", first);
+            assertEquals("hello", second);
+            assertEquals(0.0, metrics.getCacheHitRatio("translate"));
+        } finally {
+            otherJvm.close();
+        }
+    }
+
+    @Test
+    void computeIfAbsent_Float_RoundTripsExactly() {
+        float score = 0.1f + 0.2f;
+
+        cacheService.computeIfAbsent("score", "hello", k -> score);
+        Float cached = cacheService.computeIfAbsent("score", "hello", k -> 0.9f);
+
+        assertEquals(score, cached);
+        assertEquals(0.5, metrics.getCacheHitRatio("score"), 1e-9);
+    }
+
+    @Test
+    void computeIfAbsent_Fingerprint_StoresUnderFixedWidthKey() {
+        Fingerprint fingerprint = Fingerprint.of("a long message that is not stored in the key");
+
+        String translated = cacheService.computeIfAbsent("translate", fingerprint, "message", k -> "translated");
+
+        assertEquals("translated", translated);
+        awaitWrite("moderation:translate#" + fingerprint);
+        assertEquals("stranslated", new String(server.getValue("moderation:translate#" + fingerprint), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void computeIfAbsent_ConcurrentLookups_CallSupplierOnceAndBatch() throws Exception {
+        server.setReplyDelayMillis(20);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String key = "message-" + (i % 10);
+            results.add(executor.submit(() -> cacheService.computeIfAbsent("translate", key, k -> {
+                calls.incrementAndGet();
+                return k.toUpperCase();
+            })));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("MESSAGE-" + (i % 10), results.get(i).get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(10, calls.get());
+        assertTrue(cacheService.getBatches() < 200, "Batches: " + cacheService.getBatches());
+    }
+
+    @Test
+    void computeIfAbsent_ServerUnreachable_ComputesValue() throws IOException {
+        server.close();
+        properties.getCache().getRemote().setTimeoutMillis(1_000);
+        RespCacheService unreachable = new RespCacheService(metrics, properties);
+        try {
+            String translated = unreachable.computeIfAbsent("translate", "hola", k -> "hello");
+
+            assertEquals("hello", translated);
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    @Test
+    void computeIfAbsent_UnsupportedValue_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> cacheService.computeIfAbsent("key", k -> List.of(k)));
+    }
+
+    @Test
+    void decode_ForeignValue_ReturnsNull() {
+        assertNull(RespCacheService.decode("not written by us".getBytes(StandardCharsets.UTF_8)));
+        assertNull(RespCacheService.decode(new byte[0]));
+        assertEquals("text", RespCacheService.decode(RespCacheService.encode("text")));
+    }
+
+    private void awaitWrite(String key) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getValue(key) == null && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertNotNull(server.getValue(key));
+    }
+}
@@ -1,10 +1,20 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.MessageContext;
+import com.jomaleda.ravenpack.interview.tracing.ScoringEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -12,6 +22,9 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ScoringServiceTest {
@@ -24,12 +37,12 @@ class ScoringServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        when(cacheService.computeIfAbsent(any(String.class), any())).thenAnswer(invocation -> {
-            String key = invocation.getArgument(0);
-            Function<String, Float> supplier = invocation.getArgument(1);
+        when(cacheService.computeIfAbsent(any(String.class), any(String.class), any())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(1);
+            Function<String, Float> supplier = invocation.getArgument(2);
             return supplier.apply(key);
         });
-        scoringService = new ScoringService(cacheService);
+        scoringService = new ScoringService(cacheService, new ScoringApiClient());
     }
 
     @Test
@@ -89,4 +102,56 @@ class ScoringServiceTest {
         testThread.start();
         testThread.join();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getScore_Fingerprint_CachesUnderFingerprint() {
+        Fingerprint fingerprint = Fingerprint.of("original message");
+        when(cacheService.computeIfAbsent(eq(ScoringService.CACHE_NAMESPACE), eq(fingerprint), eq("test message"), any()))
+                .thenAnswer(invocation -> invocation.<Function<String, Float>>getArgument(3).apply(invocation.getArgument(2)));
+
+        float score = scoringService.getScore("test message", fingerprint);
+
+        assertEquals(scoringService.getScore("test message"), score);
+        verify(cacheService).computeIfAbsent(eq(ScoringService.CACHE_NAMESPACE), eq(fingerprint), eq("test message"), any());
+    }
+
+    @Test
+    void getResultScore_OriginalMessage_CachesUnderOriginalInResultNamespace() {
+        float score = scoringService.getResultScore("hello", null, original -> 0.25f);
+
+        assertEquals(0.25f, score);
+        verify(cacheService).computeIfAbsent(eq(ScoringService.RESULT_CACHE_NAMESPACE), eq("hello"), any());
+    }
+
+    @Test
+    void getScoreUncached_ValidMessage_ScoresWithoutCache() {
+        float score = scoringService.getScoreUncached("test message");
+
+        assertEquals(scoringService.getScore("test message"), score);
+        verify(cacheService, times(1)).computeIfAbsent(any(String.class), any(String.class), any());
+    }
+
+    @Test
+    void getScore_InsideMessage_EventRecordsUserId() throws IOException {
+        Path recordingFile = Path.of("data/test_scoring_events.jfr");
+        Files.createDirectories(recordingFile.getParent());
+        try (Recording recording = new Recording()) {
+            recording.enable(ScoringEvent.class);
+            recording.start();
+            String previous = MessageContext.enter("user1");
+            try {
+                scoringService.getScore("hello");
+            } finally {
+                MessageContext.exit(previous);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertEquals(1, events.size());
+            assertEquals("user1", events.get(0).getString("userId"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.jomaleda.ravenpack.interview.service;
 
+import com.jomaleda.ravenpack.interview.model.Fingerprint;
+import com.jomaleda.ravenpack.interview.tracing.MessageContext;
+import com.jomaleda.ravenpack.interview.tracing.TranslationEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class TranslationServiceTest {
@@ -21,12 +34,12 @@ class TranslationServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        when(cacheService.computeIfAbsent(any(String.class), any())).thenAnswer(invocation -> {
-            String key = invocation.getArgument(0);
-            Function<String, String> supplier = invocation.getArgument(1);
+        when(cacheService.computeIfAbsent(any(String.class), any(String.class), any())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(1);
+            Function<String, String> supplier = invocation.getArgument(2);
             return supplier.apply(key);
         });
-        translationService = new TranslationService(cacheService);
+        translationService = new TranslationService(cacheService, new TranslationApiClient());
     }
 
     @Test
@@ -85,4 +98,48 @@ class TranslationServiceTest {
         
         assertEquals(expected, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void translate_Fingerprint_CachesUnderFingerprint() {
+        Fingerprint fingerprint = Fingerprint.of("hello");
+        when(cacheService.computeIfAbsent(eq(TranslationService.CACHE_NAMESPACE), eq(fingerprint), eq("hello"), any()))
+                .thenAnswer(invocation -> invocation.<Function<String, String>>getArgument(3).apply(invocation.getArgument(2)));
+
+        String result = translationService.translate("hello", fingerprint);
+
+        assertEquals("olleh", result);
+        verify(cacheService).computeIfAbsent(eq(TranslationService.CACHE_NAMESPACE), eq(fingerprint), eq("hello"), any());
+    }
+
+    @Test
+    void translateUncached_ValidMessage_TranslatesWithoutCache() {
+        String result = translationService.translateUncached("hello");
+
+        assertEquals("olleh", result);
+        verify(cacheService, never()).computeIfAbsent(any(String.class), any(String.class), any());
+    }
+
+    @Test
+    void translate_InsideMessage_EventRecordsUserId() throws IOException {
+        Path recordingFile = Path.of("data/test_translation_events.jfr");
+        Files.createDirectories(recordingFile.getParent());
+        try (Recording recording = new Recording()) {
+            recording.enable(TranslationEvent.class);
+            recording.start();
+            String previous = MessageContext.enter("user1");
+            try {
+                translationService.translate("hello");
+            } finally {
+                MessageContext.exit(previous);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertEquals(1, events.size());
+            assertEquals("user1", events.get(0).getString("userId"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
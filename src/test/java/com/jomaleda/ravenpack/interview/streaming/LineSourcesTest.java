@@ -0,0 +1,84 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LineSourcesTest {
+
+    private final Path tailedFile = Path.of("data/test_tailed.csv");
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(tailedFile);
+    }
+
+    @Test
+    void readerSource_ReadsUntilEndOfStream() throws Exception {
+        try (LineSource source = new LineSources.ReaderSource(
+                new ByteArrayInputStream("user1,hello\r\nuser2,world\n".getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals("user1,hello", source.readLine());
+            assertEquals("user2,world", source.readLine());
+            assertNull(source.readLine());
+        }
+    }
+
+    @Test
+    void tailingSource_ReturnsOnlyCompleteLines() throws Exception {
+        Files.writeString(tailedFile, "user1,hello\r\nuser2,par");
+        try (LineSource source = LineSources.open("data/test_tailed.csv", 5)) {
+            assertEquals("user1,hello", source.readLine());
+
+            Files.writeString(tailedFile, "tial\n", StandardOpenOption.APPEND);
+            assertEquals("user2,partial", source.readLine());
+
+            source.close();
+            assertNull(source.readLine());
+        }
+    }
+
+    @Test
+    void socketSource_ReadsConnectionsInTurn() throws Exception {
+        try (LineSources.SocketSource source = new LineSources.SocketSource(0)) {
+            send(source.getLocalPort(), "user1,hello\nuser2,world\n");
+            send(source.getLocalPort(), "user3,again\n");
+
+            assertEquals("user1,hello", source.readLine());
+            assertEquals("user2,world", source.readLine());
+            assertEquals("user3,again", source.readLine());
+
+            source.close();
+            assertNull(source.readLine());
+        }
+    }
+
+    @Test
+    void open_FileOutsideDataDirectory_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> LineSources.open("../outside.csv", 5));
+    }
+
+    @Test
+    void open_InvalidPort_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> LineSources.open("tcp:abc", 5));
+    }
+
+    private static void send(int port, String lines) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             OutputStream output = socket.getOutputStream()) {
+            output.write(lines.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.ConcurrencyBudget;
+import com.jomaleda.ravenpack.interview.service.CsvService;
+import com.jomaleda.ravenpack.interview.service.FileProcessorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+
+class StreamingServiceTest {
+
+    private final Path tailedFile = Path.of("data/test_stream_input.csv");
+    private final Path reportFile = Path.of("data/test_stream_report.csv");
+    private final InputStream originalIn = System.in;
+    private StreamingService streamingService;
+    private PipelineMetrics metrics;
+    private ModerationProperties properties;
+    private ExecutorService taskExecutor;
+
+    @Mock
+    private FileProcessorService fileProcessorService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(fileProcessorService.scoreMessage(any())).thenReturn(0.5f);
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        properties.getStreaming().setFlushIntervalMillis(20);
+        properties.getStreaming().setTailPollMillis(5);
+        taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        streamingService = new StreamingService(new CsvService(metrics, properties), fileProcessorService, taskExecutor,
+                metrics, new ConcurrencyBudget(properties), properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        System.setIn(originalIn);
+        streamingService.stop();
+        taskExecutor.shutdownNow();
+        Files.deleteIfExists(tailedFile);
+        Files.deleteIfExists(reportFile);
+    }
+
+    @Test
+    void stream_StandardInput_ReportsAllRowsWhenInputEnds() throws Exception {
+        System.setIn(new ByteArrayInputStream(
+                "user_id,message\nuser1,hello\nuser2,world\n\nuser1,again\n".getBytes(StandardCharsets.UTF_8)));
+
+        long rows = streamingService.stream("-", "data/test_stream_report.csv");
+
+        assertEquals(3, rows);
+        List<String> lines = Files.readAllLines(reportFile);
+        assertEquals("WINDOW_START,WINDOW_END,USER_ID,TOTAL_MESSAGES,AVG_SCORE", lines.get(0));
+        // Rows may straddle a window boundary, so totals are summed over windows.
+        Map<String, Integer> totals = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            assertEquals("0.5", columns[4]);
+            totals.merge(columns[2], Integer.parseInt(columns[3]), Integer::sum);
+        }
+        assertEquals(Map.of("user1", 2, "user2", 1), totals);
+        assertEquals(3, metrics.getRowsProcessed());
+    }
+
+    @Test
+    void stream_TailedFile_FlushesClosedWindowsWhileRunning() throws Exception {
+        properties.getStreaming().setWindowMillis(100);
+        properties.getStreaming().setAllowedLatenessMillis(0);
+        Files.writeString(tailedFile, "user_id,message\nuser1,hello\n");
+
+        CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return streamingService.stream("data/test_stream_input.csv", "data/test_stream_report.csv");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(reportFile) || !Files.readString(reportFile).contains("user1")) {
+            assertTrue(System.currentTimeMillis() < deadline, "window was not flushed");
+            Thread.sleep(20);
+        }
+        streamingService.stop();
+
+        assertEquals(1L, running.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stream_ScoringFails_RowCountedAsErrorAndNotReported() throws Exception {
+        when(fileProcessorService.scoreMessage(argThat((InputMessage message) -> "user2".equals(message.getUserId()))))
+                .thenThrow(new RuntimeException("Scoring failed"));
+        System.setIn(new ByteArrayInputStream("user1,hello\nuser2,world\n".getBytes(StandardCharsets.UTF_8)));
+
+        streamingService.stream("-", "data/test_stream_report.csv");
+
+        String report = Files.readString(reportFile);
+        assertTrue(report.contains("user1"));
+        assertFalse(report.contains("user2"));
+        assertEquals(1, metrics.getErrorCount());
+    }
+
+    @Test
+    void stream_HungRow_FailedAtDeadlineWithoutHoldingBackLaterRows() throws Exception {
+        properties.getDeadlines().setMessageTimeoutMillis(500);
+        streamingService = new StreamingService(new CsvService(metrics, properties), fileProcessorService, taskExecutor,
+                metrics, new ConcurrencyBudget(properties), properties);
+        when(fileProcessorService.scoreMessage(argThat((InputMessage message) -> "user2".equals(message.getUserId()))))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(30_000);
+                    return 0.9f;
+                });
+        System.setIn(new ByteArrayInputStream("user2,stuck\nuser1,hello\n".getBytes(StandardCharsets.UTF_8)));
+
+        long rows = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> streamingService.stream("-", "data/test_stream_report.csv"));
+
+        assertEquals(2, rows);
+        String report = Files.readString(reportFile);
+        assertTrue(report.contains("user1"));
+        assertFalse(report.contains("user2"));
+        assertEquals(1, metrics.getErrorCount());
+    }
+
+    @Test
+    void stream_OutputOutsideDataDirectory_ThrowsSecurityException() {
+        assertThrows(SecurityException.class, () -> streamingService.stream("-", "../outside.csv"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.jomaleda.ravenpack.interview.streaming;
+
+import com.jomaleda.ravenpack.interview.dto.WindowReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowedAggregatorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void flush_TumblingWindow_EmittedAfterWatermarkPassesEnd() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 100, clock::get);
+        clock.set(1500);
+        aggregator.register().complete("user1", 1.0f);
+        aggregator.register().complete("user1", 3.0f);
+
+        clock.set(2050);
+        assertTrue(aggregator.flush().isEmpty());
+
+        clock.set(2100);
+        List<WindowReport> reports = aggregator.flush();
+        assertEquals(List.of(new WindowReport(1000, 2000, "user1", 2, 2.0f)), reports);
+        assertEquals(0, aggregator.paneCount());
+    }
+
+    @Test
+    void flush_PendingRow_HoldsBackWindow() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        clock.set(500);
+        WindowedAggregator.Pane pane = aggregator.register();
+
+        clock.set(5000);
+        assertTrue(aggregator.flush().isEmpty());
+        assertEquals(1, aggregator.pendingRows());
+
+        pane.complete("user1", 0.5f);
+        assertEquals(List.of(new WindowReport(0, 1000, "user1", 1, 0.5f)), aggregator.flush());
+        assertEquals(0, aggregator.pendingRows());
+    }
+
+    @Test
+    void awaitPendingRows_RowCompletedByOtherThread_Returns() throws InterruptedException {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        WindowedAggregator.Pane pane = aggregator.register();
+        Thread.ofVirtual().start(() -> pane.complete("user1", 0.5f));
+
+        aggregator.awaitPendingRows();
+
+        assertEquals(0, aggregator.pendingRows());
+        assertEquals(List.of(new WindowReport(0, 1000, "user1", 1, 0.5f)), aggregator.flushAll());
+    }
+
+    @Test
+    void flush_FailedRow_IsNotReported() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        clock.set(500);
+        aggregator.register().fail();
+        aggregator.register().complete("user1", 0.5f);
+
+        clock.set(1000);
+        assertEquals(List.of(new WindowReport(0, 1000, "user1", 1, 0.5f)), aggregator.flush());
+    }
+
+    @Test
+    void flush_SlidingWindows_EachRowInEveryCoveringWindow() {
+        WindowedAggregator aggregator = new WindowedAggregator(2000, 1000, 0, clock::get);
+        clock.set(500);
+        aggregator.register().complete("user1", 1.0f);
+        clock.set(1000);
+        assertEquals(List.of(new WindowReport(-1000, 1000, "user1", 1, 1.0f)), aggregator.flush());
+
+        clock.set(1500);
+        aggregator.register().complete("user1", 3.0f);
+        clock.set(2000);
+        assertEquals(List.of(new WindowReport(0, 2000, "user1", 2, 2.0f)), aggregator.flush());
+
+        clock.set(3000);
+        assertEquals(List.of(new WindowReport(1000, 3000, "user1", 1, 3.0f)), aggregator.flush());
+        assertEquals(0, aggregator.paneCount());
+    }
+
+    @Test
+    void flush_GapBetweenRows_SkipsEmptyWindows() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        clock.set(500);
+        aggregator.register().complete("user1", 1.0f);
+        clock.set(10_500);
+        aggregator.register().complete("user2", 2.0f);
+
+        clock.set(20_000);
+        assertEquals(List.of(
+                new WindowReport(0, 1000, "user1", 1, 1.0f),
+                new WindowReport(10_000, 11_000, "user2", 1, 2.0f)), aggregator.flush());
+    }
+
+    @Test
+    void flushAll_EmitsOpenWindows() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        clock.set(500);
+        aggregator.register().complete("user2", 2.0f);
+        aggregator.register().complete("user1", 1.0f);
+
+        assertTrue(aggregator.flush().isEmpty());
+        assertEquals(List.of(
+                new WindowReport(0, 1000, "user1", 1, 1.0f),
+                new WindowReport(0, 1000, "user2", 1, 2.0f)), aggregator.flushAll());
+    }
+
+    @Test
+    void register_ClockStepsBack_RowGoesToOpenWindow() {
+        WindowedAggregator aggregator = new WindowedAggregator(1000, 0, 0, clock::get);
+        clock.set(1500);
+        aggregator.register().complete("user1", 1.0f);
+        clock.set(2000);
+        assertEquals(1, aggregator.flush().size());
+
+        clock.set(2500);
+        aggregator.register().complete("user1", 1.0f);
+        clock.set(1200);
+        aggregator.register().complete("user1", 3.0f);
+
+        assertEquals(List.of(new WindowReport(2000, 3000, "user1", 2, 2.0f)), aggregator.flushAll());
+    }
+
+    @Test
+    void constructor_WindowNotMultipleOfSlide_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedAggregator(1000, 300, 0, clock::get));
+    }
+}
@@ -0,0 +1,70 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderServiceTest {
+
+    private final Path recordingFile = Path.of("data/test_report_recording.jfr");
+    private FlightRecorderService flightRecorderService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(Path.of("data"));
+        flightRecorderService = new FlightRecorderService();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        flightRecorderService.stopRecording("data/test_report.csv");
+        Files.deleteIfExists(recordingFile);
+    }
+
+    @Test
+    void stopRecording_WithoutRecording_ReturnsNull() {
+        assertNull(flightRecorderService.stopRecording("data/test_report.csv"));
+    }
+
+    @Test
+    void stopRecording_AfterStart_DumpsCustomEvents() throws IOException {
+        flightRecorderService.startRecording();
+        assertTrue(flightRecorderService.isRecording());
+
+        MessageProcessedEvent event = new MessageProcessedEvent();
+        event.begin();
+        event.userId = "user1";
+        event.messageLength = 5;
+        event.succeeded = true;
+        event.commit();
+
+        Path path = flightRecorderService.stopRecording("data/test_report.csv");
+
+        assertFalse(flightRecorderService.isRecording());
+        assertEquals(recordingFile.toAbsolutePath(), path);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        assertTrue(events.stream().anyMatch(recorded ->
+                recorded.getEventType().getName().equals("com.jomaleda.ravenpack.MessageProcessed")
+                        && "user1".equals(recorded.getString("userId"))));
+    }
+
+    @Test
+    void startRecording_Twice_KeepsSingleRecording() {
+        flightRecorderService.startRecording();
+        flightRecorderService.startRecording();
+
+        assertTrue(flightRecorderService.isRecording());
+    }
+}
@@ -0,0 +1,35 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MessageContextTest {
+
+    @Test
+    void exit_NestedMessages_RestoresOuterUser() {
+        String outer = MessageContext.enter("user1");
+        String inner = MessageContext.enter("user2");
+        assertEquals("user2", MessageContext.currentUserId());
+
+        MessageContext.exit(inner);
+        assertEquals("user1", MessageContext.currentUserId());
+
+        MessageContext.exit(outer);
+        assertNull(MessageContext.currentUserId());
+    }
+
+    @Test
+    void currentUserId_OtherThread_IsNotShared() throws InterruptedException {
+        String previous = MessageContext.enter("user1");
+        try {
+            String[] seen = {"unset"};
+            Thread.ofVirtual().start(() -> seen[0] = MessageContext.currentUserId()).join();
+
+            assertNull(seen[0]);
+        } finally {
+            MessageContext.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.jomaleda.ravenpack.interview.tracing;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PinningMonitorTest {
+
+    private final Object lock = new Object();
+    private PipelineMetrics metrics;
+    private ModerationProperties properties;
+    private PinningMonitor pinningMonitor;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new PipelineMetrics();
+        properties = new ModerationProperties();
+        properties.getExecutor().setPinningThresholdMillis(1);
+        pinningMonitor = new PinningMonitor(metrics, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pinningMonitor.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stop_VirtualThreadsBlockedInSynchronized_RecordsPinningSite() {
+        properties.getExecutor().setPinningDiagnostics(true);
+        pinningMonitor.start();
+
+        runPinningTasks();
+        pinningMonitor.stop();
+
+        assertTrue(metrics.getPinnedCount() > 0);
+        Map<String, Object> pinning = (Map<String, Object>) metrics.snapshot().get("pinning");
+        assertTrue(pinning.keySet().stream().anyMatch(site -> site.startsWith("PinningMonitorTest.")), pinning.toString());
+    }
+
+    @Test
+    void start_Disabled_RecordsNothing() {
+        pinningMonitor.start();
+
+        runPinningTasks();
+        pinningMonitor.stop();
+
+        assertEquals(0, metrics.getPinnedCount());
+    }
+
+    private void runPinningTasks() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> {
+                    synchronized (lock) {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+        }
+    }
+}
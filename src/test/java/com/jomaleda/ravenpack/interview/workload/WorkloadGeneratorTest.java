@@ -0,0 +1,78 @@
+package com.jomaleda.ravenpack.interview.workload;
+
+import com.jomaleda.ravenpack.interview.config.ModerationProperties;
+import com.jomaleda.ravenpack.interview.dto.InputMessage;
+import com.jomaleda.ravenpack.interview.metrics.PipelineMetrics;
+import com.jomaleda.ravenpack.interview.service.CsvService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkloadGeneratorTest {
+
+    private final Path outputFile = Path.of("data/test_workload.csv");
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Test
+    void generate_DefaultShares_WritesParseableRows() throws IOException {
+        WorkloadGenerator.Options options = WorkloadGenerator.parse(new String[]{
+                "--rows=5000", "--output=" + outputFile, "--users=50", "--malformed-share=0.2", "--blank-share=0.1"});
+
+        long rows = new WorkloadGenerator(options).generate();
+
+        assertEquals(5000, rows);
+        List<String> lines = Files.readAllLines(outputFile);
+        assertEquals("user_id,message", lines.get(0));
+        assertEquals(5001, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"\"")));
+        try (Stream<InputMessage> messages = new CsvService(new PipelineMetrics(), new ModerationProperties()).readMessages(outputFile.toString())) {
+            List<InputMessage> parsed = messages.toList();
+            assertEquals(5000, parsed.size());
+            assertTrue(parsed.stream().allMatch(message -> message.getUserId().startsWith("user_")));
+            assertTrue(parsed.stream().anyMatch(message -> message.getMessage().contains(", ")));
+            assertTrue(parsed.stream().anyMatch(message -> message.getMessage().isBlank()));
+        }
+    }
+
+    @Test
+    void generate_SameSeed_WritesSameFile() throws IOException {
+        WorkloadGenerator.Options options = WorkloadGenerator.parse(new String[]{"--rows=1000", "--output=" + outputFile});
+        new WorkloadGenerator(options).generate();
+        String first = Files.readString(outputFile);
+
+        new WorkloadGenerator(options).generate();
+
+        assertEquals(first, Files.readString(outputFile));
+    }
+
+    @Test
+    void generate_AllUnique_RepeatsNoMessage() throws IOException {
+        WorkloadGenerator.Options options = WorkloadGenerator.parse(new String[]{"--rows=2000", "--output=" + outputFile,
+                "--unique-share=1.0", "--malformed-share=0", "--blank-share=0"});
+
+        new WorkloadGenerator(options).generate();
+
+        List<String> lines = Files.readAllLines(outputFile);
+        long distinctMessages = lines.stream().skip(1).map(line -> line.substring(line.indexOf(',') + 1)).distinct().count();
+        assertEquals(2000, distinctMessages);
+    }
+
+    @Test
+    void parse_UnknownOption_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> WorkloadGenerator.parse(new String[]{"--colour=red"}));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadGenerator.parse(new String[]{"rows=10"}));
+    }
+}
@@ -0,0 +1,62 @@
+package com.jomaleda.ravenpack.interview.workload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipfSamplerTest {
+
+    @Test
+    void sample_ExponentOne_FollowsZipfsLaw() {
+        ZipfSampler sampler = new ZipfSampler(100, 1.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[101];
+        int samples = 500_000;
+        for (int i = 0; i < samples; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        double harmonic = 0.0;
+        for (int k = 1; k <= 100; k++) {
+            harmonic += 1.0 / k;
+        }
+        assertEquals(1.0 / harmonic, (double) counts[1] / samples, 0.005);
+        assertEquals(0.5 / harmonic, (double) counts[2] / samples, 0.005);
+        assertEquals(0.1 / harmonic, (double) counts[10] / samples, 0.002);
+    }
+
+    @Test
+    void sample_ExponentZero_IsUniform() {
+        ZipfSampler sampler = new ZipfSampler(10, 0.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[11];
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        for (int k = 1; k <= 10; k++) {
+            assertEquals(0.1, counts[k] / 100_000.0, 0.01);
+        }
+    }
+
+    @Test
+    void sample_AlwaysWithinRange() {
+        ZipfSampler sampler = new ZipfSampler(3, 2.5);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= 3);
+        }
+        assertEquals(1, new ZipfSampler(1, 1.0).sample(random));
+    }
+
+    @Test
+    void constructor_InvalidParameters_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -0.5));
+    }
+}
@@ -0,0 +1,58 @@
+package com.jomaleda.ravenpack.interview.parsing;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans with SIMD instructions through the incubating Vector API, comparing a whole vector of bytes
+ * at once: 32 bytes with AVX2, 64 with AVX-512 and 16 with ARM NEON. The tail shorter than a vector
+ * is scanned byte by byte.
+ *
+ * <p>Only loaded by {@link DelimiterScanners#fastest()} when the {@code jdk.incubator.vector} module is present.</p>
+ */
+public final class VectorDelimiterScanner implements DelimiterScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public int indexOf(byte[] bytes, int from, int to, byte delimiter) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Byte> matches = ByteVector.fromArray(SPECIES, bytes, i).eq(delimiter);
+            if (matches.anyTrue()) {
+                return i + matches.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfAny(byte[] bytes, int from, int to, byte first, byte second) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, bytes, i);
+            VectorMask<Byte> matches = vector.eq(first).or(vector.eq(second));
+            if (matches.anyTrue()) {
+                return i + matches.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == first || bytes[i] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize() + "bit";
+    }
+}